@@ -1,5 +1,7 @@
 package com.notarius.shorturl.config;
 
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -13,12 +15,84 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final Resolver resolver = new Resolver();
+
+    private final ShortCode shortCode = new ShortCode();
+
+    private final BloomFilter bloomFilter = new BloomFilter();
+
+    private final Cache cache = new Cache();
+
+    private final Snapshot snapshot = new Snapshot();
+
+    private final StaticIndex staticIndex = new StaticIndex();
+
+    private final UrlImport urlImport = new UrlImport();
+
+    private final Clicks clicks = new Clicks();
+
+    private final ClickLog clickLog = new ClickLog();
+
+    private final HotLinks hotLinks = new HotLinks();
+
+    private final Expiration expiration = new Expiration();
+
+    private final WriteBehind writeBehind = new WriteBehind();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public Resolver getResolver() {
+        return resolver;
+    }
+
+    public ShortCode getShortCode() {
+        return shortCode;
+    }
+
+    public BloomFilter getBloomFilter() {
+        return bloomFilter;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public StaticIndex getStaticIndex() {
+        return staticIndex;
+    }
+
+    public UrlImport getUrlImport() {
+        return urlImport;
+    }
+
+    public Clicks getClicks() {
+        return clicks;
+    }
+
+    public ClickLog getClickLog() {
+        return clickLog;
+    }
+
+    public HotLinks getHotLinks() {
+        return hotLinks;
+    }
+
+    public Expiration getExpiration() {
+        return expiration;
+    }
+
+    public WriteBehind getWriteBehind() {
+        return writeBehind;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +107,571 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class Resolver {
+
+        private boolean permanentRedirect = false;
+
+        private long expiryTickMillis = 1000;
+
+        private final OffHeap offHeap = new OffHeap();
+
+        public boolean isPermanentRedirect() {
+            return permanentRedirect;
+        }
+
+        public void setPermanentRedirect(boolean permanentRedirect) {
+            this.permanentRedirect = permanentRedirect;
+        }
+
+        public long getExpiryTickMillis() {
+            return expiryTickMillis;
+        }
+
+        public void setExpiryTickMillis(long expiryTickMillis) {
+            this.expiryTickMillis = expiryTickMillis;
+        }
+
+        public OffHeap getOffHeap() {
+            return offHeap;
+        }
+
+        public static class OffHeap {
+
+            private boolean enabled = false;
+
+            private int stripes = 64;
+
+            private long initialCapacity = 1_000_000;
+
+            private int chunkBytes = 16 * 1024 * 1024;
+
+            private long maxEntries = 10_000_000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getStripes() {
+                return stripes;
+            }
+
+            public void setStripes(int stripes) {
+                this.stripes = stripes;
+            }
+
+            public long getInitialCapacity() {
+                return initialCapacity;
+            }
+
+            public void setInitialCapacity(long initialCapacity) {
+                this.initialCapacity = initialCapacity;
+            }
+
+            public int getChunkBytes() {
+                return chunkBytes;
+            }
+
+            public void setChunkBytes(int chunkBytes) {
+                this.chunkBytes = chunkBytes;
+            }
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+    }
+
+    public static class ShortCode {
+
+        private Strategy strategy = Strategy.HASH;
+
+        private int length = 10;
+
+        private String alphabet = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+        private int maxProbes = 8;
+
+        private final KeyPool keyPool = new KeyPool();
+
+        public Strategy getStrategy() {
+            return strategy;
+        }
+
+        public void setStrategy(Strategy strategy) {
+            this.strategy = strategy;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public void setLength(int length) {
+            this.length = length;
+        }
+
+        public String getAlphabet() {
+            return alphabet;
+        }
+
+        public void setAlphabet(String alphabet) {
+            this.alphabet = alphabet;
+        }
+
+        public int getMaxProbes() {
+            return maxProbes;
+        }
+
+        public void setMaxProbes(int maxProbes) {
+            this.maxProbes = maxProbes;
+        }
+
+        public KeyPool getKeyPool() {
+            return keyPool;
+        }
+
+        public enum Strategy {
+            /**
+             * Codes are derived from the hash of the full url, the same full url always getting the same code.
+             */
+            HASH,
+            /**
+             * Codes are taken from pre-allocated blocks of sequence numbers, every full url not shortened yet getting a new
+             * code.
+             */
+            KEY_POOL,
+        }
+
+        public static class KeyPool {
+
+            private int blockSize = 10_000;
+
+            private int refillThreshold = 2_000;
+
+            public int getBlockSize() {
+                return blockSize;
+            }
+
+            public void setBlockSize(int blockSize) {
+                this.blockSize = blockSize;
+            }
+
+            public int getRefillThreshold() {
+                return refillThreshold;
+            }
+
+            public void setRefillThreshold(int refillThreshold) {
+                this.refillThreshold = refillThreshold;
+            }
+        }
+    }
+
+    public static class BloomFilter {
+
+        private boolean enabled = true;
+
+        private double falsePositiveRate = 0.01;
+
+        private long minExpectedInsertions = 1_000_000;
+
+        private long rebuildIntervalSeconds = 60;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        public long getMinExpectedInsertions() {
+            return minExpectedInsertions;
+        }
+
+        public void setMinExpectedInsertions(long minExpectedInsertions) {
+            this.minExpectedInsertions = minExpectedInsertions;
+        }
+
+        public long getRebuildIntervalSeconds() {
+            return rebuildIntervalSeconds;
+        }
+
+        public void setRebuildIntervalSeconds(long rebuildIntervalSeconds) {
+            this.rebuildIntervalSeconds = rebuildIntervalSeconds;
+        }
+    }
+
+    public static class Cache {
+
+        private String diskDirectory;
+
+        private final Map<String, Region> caches = new HashMap<>();
+
+        public String getDiskDirectory() {
+            return diskDirectory;
+        }
+
+        public void setDiskDirectory(String diskDirectory) {
+            this.diskDirectory = diskDirectory;
+        }
+
+        public Map<String, Region> getCaches() {
+            return caches;
+        }
+
+        /**
+         * Sizing and expiry of one cache, unset values falling back to {@code jhipster.cache.ehcache}.
+         */
+        public static class Region {
+
+            private Long heapEntries;
+
+            private Long offheapMb;
+
+            private Long diskMb;
+
+            private Long timeToLiveSeconds;
+
+            public Long getHeapEntries() {
+                return heapEntries;
+            }
+
+            public void setHeapEntries(Long heapEntries) {
+                this.heapEntries = heapEntries;
+            }
+
+            public Long getOffheapMb() {
+                return offheapMb;
+            }
+
+            public void setOffheapMb(Long offheapMb) {
+                this.offheapMb = offheapMb;
+            }
+
+            public Long getDiskMb() {
+                return diskMb;
+            }
+
+            public void setDiskMb(Long diskMb) {
+                this.diskMb = diskMb;
+            }
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+    }
+
+    public static class Snapshot {
+
+        private boolean enabled = false;
+
+        private String file = "snapshot/short-urls.snapshot";
+
+        private long refreshIntervalSeconds = 300;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public long getRefreshIntervalSeconds() {
+            return refreshIntervalSeconds;
+        }
+
+        public void setRefreshIntervalSeconds(long refreshIntervalSeconds) {
+            this.refreshIntervalSeconds = refreshIntervalSeconds;
+        }
+    }
+
+    public static class StaticIndex {
+
+        private boolean enabled = false;
+
+        private String cron = "0 0 4 * * ?";
+
+        private long maxAgeSeconds = 600;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getCron() {
+            return cron;
+        }
+
+        public void setCron(String cron) {
+            this.cron = cron;
+        }
+
+        public long getMaxAgeSeconds() {
+            return maxAgeSeconds;
+        }
+
+        public void setMaxAgeSeconds(long maxAgeSeconds) {
+            this.maxAgeSeconds = maxAgeSeconds;
+        }
+    }
+
+    public static class UrlImport {
+
+        private int batchSize = 10_000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+    public static class Clicks {
+
+        private boolean enabled = true;
+
+        private long flushIntervalSeconds = 10;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getFlushIntervalSeconds() {
+            return flushIntervalSeconds;
+        }
+
+        public void setFlushIntervalSeconds(long flushIntervalSeconds) {
+            this.flushIntervalSeconds = flushIntervalSeconds;
+        }
+    }
+    public static class ClickLog {
+
+        private boolean enabled = false;
+
+        private String directory = "clicks";
+
+        private int segmentEvents = 1 << 20;
+
+        private int retainedSegments = 64;
+
+        private int ringBufferSize = 1 << 16;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getSegmentEvents() {
+            return segmentEvents;
+        }
+
+        public void setSegmentEvents(int segmentEvents) {
+            this.segmentEvents = segmentEvents;
+        }
+
+        public int getRetainedSegments() {
+            return retainedSegments;
+        }
+
+        public void setRetainedSegments(int retainedSegments) {
+            this.retainedSegments = retainedSegments;
+        }
+
+        public int getRingBufferSize() {
+            return ringBufferSize;
+        }
+
+        public void setRingBufferSize(int ringBufferSize) {
+            this.ringBufferSize = ringBufferSize;
+        }
+    }
+
+    public static class HotLinks {
+
+        private boolean enabled = true;
+
+        private int size = 100;
+
+        private int sketchWidth = 4096;
+
+        private int sketchDepth = 4;
+
+        private long decayIntervalSeconds = 60;
+
+        private boolean prewarm = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public void setSize(int size) {
+            this.size = size;
+        }
+
+        public int getSketchWidth() {
+            return sketchWidth;
+        }
+
+        public void setSketchWidth(int sketchWidth) {
+            this.sketchWidth = sketchWidth;
+        }
+
+        public int getSketchDepth() {
+            return sketchDepth;
+        }
+
+        public void setSketchDepth(int sketchDepth) {
+            this.sketchDepth = sketchDepth;
+        }
+
+        public long getDecayIntervalSeconds() {
+            return decayIntervalSeconds;
+        }
+
+        public void setDecayIntervalSeconds(long decayIntervalSeconds) {
+            this.decayIntervalSeconds = decayIntervalSeconds;
+        }
+
+        public boolean isPrewarm() {
+            return prewarm;
+        }
+
+        public void setPrewarm(boolean prewarm) {
+            this.prewarm = prewarm;
+        }
+    }
+
+    public static class Expiration {
+
+        private String cron = "0 0 1 * * ?";
+
+        private int batchSize = 1000;
+
+        public String getCron() {
+            return cron;
+        }
+
+        public void setCron(String cron) {
+            this.cron = cron;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class WriteBehind {
+
+        private boolean enabled = false;
+
+        private String directory = "write-behind";
+
+        private long flushIntervalMillis = 200;
+
+        private int batchSize = 1000;
+
+        private int maxPending = 100_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxPending() {
+            return maxPending;
+        }
+
+        public void setMaxPending(int maxPending) {
+            this.maxPending = maxPending;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -1,11 +1,19 @@
 package com.notarius.shorturl.config;
 
+import java.io.File;
 import java.time.Duration;
+import javax.cache.Caching;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
 import org.hibernate.cache.jcache.ConfigSettings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
@@ -15,28 +23,74 @@ import org.springframework.context.annotation.*;
 import tech.jhipster.config.JHipsterProperties;
 import tech.jhipster.config.cache.PrefixedKeyGenerator;
 
+/**
+ * Configuration of the Ehcache caches.
+ * <p>
+ * Every cache gets the {@code jhipster.cache.ehcache} heap size and time to live, unless it is configured by name under
+ * {@code application.cache.caches}, where it can also get off-heap and disk tiers. Off-heap tiers are bounded by the
+ * JVM {@code -XX:MaxDirectMemorySize}, and disk tiers need {@code application.cache.disk-directory}.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfiguration {
 
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final ApplicationProperties.Cache cacheProperties;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheProperties = applicationProperties.getCache();
+    }
 
-        jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
-            CacheConfigurationBuilder.newCacheConfigurationBuilder(
-                Object.class,
-                Object.class,
-                ResourcePoolsBuilder.heap(ehcache.getMaxEntries())
-            )
-                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
+    /**
+     * Build the configuration of a cache from its {@code application.cache.caches} entry, if any.
+     *
+     * @param cacheName the name of the cache.
+     * @return the cache configuration.
+     */
+    private javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(String cacheName) {
+        ApplicationProperties.Cache.Region region = cacheProperties.getCaches().getOrDefault(cacheName, new ApplicationProperties.Cache.Region());
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.newResourcePoolsBuilder().heap(
+            region.getHeapEntries() != null ? region.getHeapEntries() : ehcache.getMaxEntries(),
+            EntryUnit.ENTRIES
+        );
+        if (region.getOffheapMb() != null) {
+            resourcePools = resourcePools.offheap(region.getOffheapMb(), MemoryUnit.MB);
+        }
+        if (region.getDiskMb() != null) {
+            resourcePools = resourcePools.disk(region.getDiskMb(), MemoryUnit.MB);
+        }
+        long timeToLiveSeconds = region.getTimeToLiveSeconds() != null ? region.getTimeToLiveSeconds() : ehcache.getTimeToLiveSeconds();
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLiveSeconds)))
                 .build()
         );
     }
 
+    /**
+     * Create the cache manager with a persistence directory, needed by disk tiers. Without disk tiers, the cache manager
+     * is created by Spring Boot.
+     *
+     * @return the cache manager.
+     */
+    @Bean
+    @ConditionalOnProperty("application.cache.disk-directory")
+    public javax.cache.CacheManager jCacheCacheManager() {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        javax.cache.CacheManager cacheManager = provider.getCacheManager(
+            provider.getDefaultURI(),
+            new DefaultConfiguration(
+                provider.getDefaultClassLoader(),
+                new DefaultPersistenceConfiguration(new File(cacheProperties.getDiskDirectory()))
+            )
+        );
+        cacheManagerCustomizer().customize(cacheManager);
+        return cacheManager;
+    }
+
     @Bean
     public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
         return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
@@ -51,6 +105,8 @@ public class CacheConfiguration {
             createCache(cm, com.notarius.shorturl.domain.Authority.class.getName());
             createCache(cm, com.notarius.shorturl.domain.User.class.getName() + ".authorities");
             createCache(cm, com.notarius.shorturl.domain.Url.class.getName());
+            createCache(cm, com.notarius.shorturl.repository.UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE);
+            createCache(cm, com.notarius.shorturl.repository.UrlRepository.MISSING_SHORT_URLS_CACHE);
             // jhipster-needle-ehcache-add-entry
         };
     }
@@ -60,7 +116,7 @@ public class CacheConfiguration {
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, jcacheConfiguration(cacheName));
         }
     }
 
@@ -0,0 +1,44 @@
+package com.notarius.shorturl.config;
+
+import com.notarius.shorturl.service.HotLinkService;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint of the hot links of this node: {@code GET /management/hotlinks} reports the most followed short
+ * urls with their decayed redirect counts, {@code POST /management/hotlinks} loads them into the resolved url cache.
+ */
+@Component
+@Endpoint(id = "hotlinks")
+public class HotLinksEndpoint {
+
+    private final HotLinkService hotLinkService;
+
+    public HotLinksEndpoint(HotLinkService hotLinkService) {
+        this.hotLinkService = hotLinkService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> hotLinks() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", hotLinkService.isEnabled());
+        report.put("total", hotLinkService.getTotal());
+        List<Map<String, Object>> hotLinks = hotLinkService
+            .getHotLinks()
+            .stream()
+            .map(hotLink -> Map.<String, Object>of("shortUrl", hotLink.getKey(), "count", hotLink.getCount()))
+            .toList();
+        report.put("hotLinks", hotLinks);
+        return report;
+    }
+
+    @WriteOperation
+    public Map<String, Object> warm() {
+        return Map.of("warmed", hotLinkService.warm());
+    }
+}
@@ -1,5 +1,7 @@
 package com.notarius.shorturl.config;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.Executor;
 import javax.sql.DataSource;
 import liquibase.integration.spring.SpringLiquibase;
@@ -38,7 +40,8 @@ public class LiquibaseConfiguration {
         LiquibaseProperties liquibaseProperties,
         @LiquibaseDataSource ObjectProvider<DataSource> liquibaseDataSource,
         ObjectProvider<DataSource> dataSource,
-        DataSourceProperties dataSourceProperties
+        DataSourceProperties dataSourceProperties,
+        ApplicationProperties applicationProperties
     ) {
         SpringLiquibase liquibase;
         if (Boolean.TRUE.equals(asyncStart)) {
@@ -67,7 +70,14 @@ public class LiquibaseConfiguration {
         liquibase.setDatabaseChangeLogTable(liquibaseProperties.getDatabaseChangeLogTable());
         liquibase.setDropFirst(liquibaseProperties.isDropFirst());
         liquibase.setLabelFilter(liquibaseProperties.getLabelFilter());
-        liquibase.setChangeLogParameters(liquibaseProperties.getParameters());
+        Map<String, String> parameters = new HashMap<>();
+        if (liquibaseProperties.getParameters() != null) {
+            parameters.putAll(liquibaseProperties.getParameters());
+        }
+        // Short urls are converted to codes in the configured alphabet and length
+        parameters.putIfAbsent("shortCodeAlphabet", applicationProperties.getShortCode().getAlphabet());
+        parameters.putIfAbsent("shortCodeLength", String.valueOf(applicationProperties.getShortCode().getLength()));
+        liquibase.setChangeLogParameters(parameters);
         liquibase.setRollbackFile(liquibaseProperties.getRollbackFile());
         liquibase.setTestRollbackOnUpdate(liquibaseProperties.isTestRollbackOnUpdate());
         if (env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_NO_LIQUIBASE))) {
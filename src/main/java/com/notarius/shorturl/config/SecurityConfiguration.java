@@ -4,6 +4,7 @@ import static org.springframework.security.config.Customizer.withDefaults;
 import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
 import com.notarius.shorturl.security.*;
+import com.notarius.shorturl.util.ShortCodeGenerator;
 import com.notarius.shorturl.web.filter.SpaWebFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -34,9 +35,12 @@ public class SecurityConfiguration {
 
     private final JHipsterProperties jHipsterProperties;
 
-    public SecurityConfiguration(Environment env, JHipsterProperties jHipsterProperties) {
+    private final ShortCodeGenerator shortCodeGenerator;
+
+    public SecurityConfiguration(Environment env, JHipsterProperties jHipsterProperties, ShortCodeGenerator shortCodeGenerator) {
         this.env = env;
         this.jHipsterProperties = jHipsterProperties;
+        this.shortCodeGenerator = shortCodeGenerator;
     }
 
     @Bean
@@ -49,7 +53,7 @@ public class SecurityConfiguration {
         http
             .cors(withDefaults())
             .csrf(csrf -> csrf.disable())
-            .addFilterAfter(new SpaWebFilter(), BasicAuthenticationFilter.class)
+            .addFilterAfter(new SpaWebFilter(shortCodeGenerator.getCodeRegex()), BasicAuthenticationFilter.class)
             .headers(
                 headers ->
                     headers
@@ -79,6 +83,7 @@ public class SecurityConfiguration {
                     .requestMatchers(mvc.pattern(HttpMethod.GET, "/api/authenticate")).permitAll()
                     .requestMatchers(mvc.pattern(HttpMethod.POST, "/api/urls")).permitAll()
                     .requestMatchers(mvc.pattern(HttpMethod.GET, "/api/urls/shorturl/**")).permitAll()
+                    .requestMatchers(mvc.pattern(HttpMethod.GET, "/{code:" + shortCodeGenerator.getCodeRegex() + "}")).permitAll()
                     .requestMatchers(mvc.pattern("/api/register")).permitAll()
                     .requestMatchers(mvc.pattern("/api/activate")).permitAll()
                     .requestMatchers(mvc.pattern("/api/account/reset-password/init")).permitAll()
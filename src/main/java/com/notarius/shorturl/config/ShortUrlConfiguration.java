@@ -0,0 +1,33 @@
+package com.notarius.shorturl.config;
+
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import com.notarius.shorturl.util.UrlUtil;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ShortUrlConfiguration {
+
+    /**
+     * Path of redirects, for request mappings: a code of the configured alphabet and length, as matched by
+     * {@link ShortCodeGenerator#getCodeRegex()}, which the security rules and the SPA filter match as well.
+     */
+    public static final String SHORT_CODE_PATH = "/{code:#{@shortCodeGenerator.codeRegex}}";
+
+    @Bean
+    public ShortCodeGenerator shortCodeGenerator(ApplicationProperties applicationProperties) {
+        ApplicationProperties.ShortCode shortCode = applicationProperties.getShortCode();
+        ShortCodeGenerator shortCodeGenerator = new ShortCodeGenerator(UrlUtil.HTTP_SHORT_URL, shortCode.getAlphabet(), shortCode.getLength());
+        // Codes are stored as numbers
+        if (shortCode.getLength() > shortCodeGenerator.getMaxNumericLength()) {
+            throw new IllegalArgumentException(
+                "Short codes of an alphabet of " +
+                shortCode.getAlphabet().length() +
+                " characters must be at most " +
+                shortCodeGenerator.getMaxNumericLength() +
+                " characters long"
+            );
+        }
+        return shortCodeGenerator;
+    }
+}
@@ -0,0 +1,44 @@
+package com.notarius.shorturl.config;
+
+import com.notarius.shorturl.service.StaticUrlIndexService;
+import com.notarius.shorturl.util.StaticUrlIndex;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint of the static url index: {@code GET /management/staticindex} reports its size and memory per
+ * short url, {@code POST /management/staticindex} starts a build.
+ */
+@Component
+@Endpoint(id = "staticindex")
+public class StaticUrlIndexEndpoint {
+
+    private final StaticUrlIndexService staticUrlIndexService;
+
+    public StaticUrlIndexEndpoint(StaticUrlIndexService staticUrlIndexService) {
+        this.staticUrlIndexService = staticUrlIndexService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> staticIndex() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", staticUrlIndexService.isEnabled());
+        StaticUrlIndex index = staticUrlIndexService.getIndex();
+        if (index != null) {
+            report.put("entries", index.size());
+            report.put("hashBitsPerKey", index.getHashBitsPerKey());
+            report.put("bytesPerKey", index.getBytesPerKey());
+            report.put("cacheBytesPerKey", staticUrlIndexService.getCacheBytesPerKey());
+        }
+        return report;
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        return Map.of("started", staticUrlIndexService.scheduleRebuild());
+    }
+}
@@ -0,0 +1,103 @@
+package com.notarius.shorturl.config;
+
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.service.UrlChangedEvent;
+import java.util.List;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes a {@link UrlChangedEvent} for every {@link Url} written through Hibernate.
+ */
+@Configuration
+public class UrlChangedEventConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer urlChangedEventPropertiesCustomizer(ApplicationEventPublisher eventPublisher) {
+        UrlChangedEventListener listener = new UrlChangedEventListener(eventPublisher);
+        return hibernateProperties ->
+            hibernateProperties.put(
+                JpaSettings.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(new UrlChangedEventIntegrator(listener))
+            );
+    }
+
+    private static class UrlChangedEventIntegrator implements Integrator {
+
+        private final UrlChangedEventListener listener;
+
+        UrlChangedEventIntegrator(UrlChangedEventListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+            EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+            registry.appendListeners(EventType.POST_INSERT, listener);
+            registry.appendListeners(EventType.POST_UPDATE, listener);
+            registry.appendListeners(EventType.POST_DELETE, listener);
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            // Nothing to release
+        }
+    }
+
+    private static class UrlChangedEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        private final ApplicationEventPublisher eventPublisher;
+
+        UrlChangedEventListener(ApplicationEventPublisher eventPublisher) {
+            this.eventPublisher = eventPublisher;
+        }
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (event.getEntity() instanceof Url url) {
+                eventPublisher.publishEvent(new UrlChangedEvent(UrlChangedEvent.Type.CREATED, url, url.getShortUrl()));
+            }
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            if (event.getEntity() instanceof Url url) {
+                String previousShortUrl = url.getShortUrl();
+                if (event.getOldState() != null) {
+                    previousShortUrl = (String) event.getOldState()[event.getPersister().getPropertyIndex("shortUrl")];
+                }
+                eventPublisher.publishEvent(new UrlChangedEvent(UrlChangedEvent.Type.UPDATED, url, previousShortUrl));
+            }
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (event.getEntity() instanceof Url url) {
+                eventPublisher.publishEvent(new UrlChangedEvent(UrlChangedEvent.Type.DELETED, url, url.getShortUrl()));
+            }
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.notarius.shorturl.config.liquibase;
+
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import com.notarius.shorturl.util.UrlUtil;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fills the {@code code} column of urls with the number their short url stands for, in the alphabet and length of the
+ * {@code shortCodeAlphabet} and {@code shortCodeLength} changelog parameters.
+ * <p>
+ * Short urls which are not made of such a code are logged, and fail the change: the legacy column is dropped right after,
+ * which would lose them for good. They have to be fixed or deleted, or the parameters changed, before migrating.
+ */
+public class ShortUrlCodeChange implements CustomTaskChange {
+
+    private static final Logger log = LoggerFactory.getLogger(ShortUrlCodeChange.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    /** Unconvertible short urls listed in the failure. */
+    private static final int REPORTED_ROWS = 10;
+
+    private String alphabet;
+
+    private String length;
+
+    private int converted;
+
+    public void setAlphabet(String alphabet) {
+        this.alphabet = alphabet;
+    }
+
+    public void setLength(String length) {
+        this.length = length;
+    }
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        ShortCodeGenerator shortCodeGenerator = new ShortCodeGenerator(UrlUtil.HTTP_SHORT_URL, alphabet, Integer.parseInt(length));
+        JdbcConnection connection = (JdbcConnection) database.getConnection();
+        try (
+            Statement select = connection.createStatement();
+            ResultSet rows = select.executeQuery("select id, short_url from url where short_url is not null");
+            PreparedStatement update = connection.prepareStatement("update url set code = ? where id = ?")
+        ) {
+            int batched = 0;
+            List<String> unconvertible = new ArrayList<>();
+            int unconvertibleCount = 0;
+            while (rows.next()) {
+                long code = shortCodeGenerator.toCode(rows.getString(2));
+                if (code < 0) {
+                    log.error("Url {} has short url {} which is not a code of this application", rows.getLong(1), rows.getString(2));
+                    if (unconvertibleCount++ < REPORTED_ROWS) {
+                        unconvertible.add(rows.getLong(1) + " (" + rows.getString(2) + ")");
+                    }
+                    continue;
+                }
+                update.setLong(1, code);
+                update.setLong(2, rows.getLong(1));
+                update.addBatch();
+                converted++;
+                if (++batched == BATCH_SIZE) {
+                    update.executeBatch();
+                    batched = 0;
+                }
+            }
+            if (unconvertibleCount > 0) {
+                throw new CustomChangeException(
+                    unconvertibleCount +
+                    " urls have short urls which are not codes of " +
+                    length +
+                    " characters of " +
+                    alphabet +
+                    ", e.g. urls " +
+                    String.join(", ", unconvertible) +
+                    ": fix or delete them, or change the shortCodeAlphabet and shortCodeLength changelog parameters"
+                );
+            }
+            if (batched > 0) {
+                update.executeBatch();
+            }
+        } catch (DatabaseException | SQLException e) {
+            throw new CustomChangeException("Could not convert short urls to codes", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Converted " + converted + " short urls to codes";
+    }
+
+    @Override
+    public void setUp() {
+        // Nothing to set up
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+        // No resources needed
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        errors.checkRequiredField("alphabet", alphabet);
+        errors.checkRequiredField("length", length);
+        return errors;
+    }
+}
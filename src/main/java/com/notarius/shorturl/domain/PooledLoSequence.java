@@ -0,0 +1,31 @@
+package com.notarius.shorturl.domain;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Generate ids from a database sequence with the pooled-lo optimizer: each value fetched from the sequence is the first
+ * of a block of {@link #allocationSize()} ids handed out in memory, up to the next value it hands out.
+ * <p>
+ * Unlike the default pooled optimizer, ids are allocated from the value fetched upwards, so they stay unique when other
+ * writers use the sequence values directly.
+ */
+@IdGeneratorType(PooledLoSequenceGenerator.class)
+@Retention(RUNTIME)
+@Target({ FIELD, METHOD })
+public @interface PooledLoSequence {
+    /**
+     * @return the name of the database sequence.
+     */
+    String sequenceName();
+
+    /**
+     * @return the number of ids handed out per value fetched, which must be the increment of the sequence.
+     */
+    int allocationSize();
+}
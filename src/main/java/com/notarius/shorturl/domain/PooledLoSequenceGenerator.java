@@ -0,0 +1,28 @@
+package com.notarius.shorturl.domain;
+
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * The {@link SequenceStyleGenerator} behind {@link PooledLoSequence}, configured from the annotation.
+ */
+public class PooledLoSequenceGenerator extends SequenceStyleGenerator {
+
+    private final PooledLoSequence sequence;
+
+    public PooledLoSequenceGenerator(PooledLoSequence sequence) {
+        this.sequence = sequence;
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        parameters.setProperty(SEQUENCE_PARAM, sequence.sequenceName());
+        parameters.setProperty(INCREMENT_PARAM, Integer.toString(sequence.allocationSize()));
+        parameters.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
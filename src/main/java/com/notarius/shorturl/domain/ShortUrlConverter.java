@@ -0,0 +1,32 @@
+package com.notarius.shorturl.domain;
+
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores short urls as the number their code stands for, rendering the prefix and code back when loading them.
+ * <p>
+ * Strings which are not short urls of the {@link ShortCodeGenerator} are converted to {@code null}: they match nothing
+ * when looked up, and must be rejected before being written.
+ */
+@Converter
+public class ShortUrlConverter implements AttributeConverter<String, Long> {
+
+    private final ShortCodeGenerator shortCodeGenerator;
+
+    public ShortUrlConverter(ShortCodeGenerator shortCodeGenerator) {
+        this.shortCodeGenerator = shortCodeGenerator;
+    }
+
+    @Override
+    public Long convertToDatabaseColumn(String shortUrl) {
+        long code = shortCodeGenerator.toCode(shortUrl);
+        return code < 0 ? null : code;
+    }
+
+    @Override
+    public String convertToEntityAttribute(Long code) {
+        return code == null ? null : shortCodeGenerator.toShortUrl(code);
+    }
+}
@@ -1,5 +1,7 @@
 package com.notarius.shorturl.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.notarius.shorturl.util.UrlUtil;
 import jakarta.persistence.*;
 import java.io.Serializable;
 import java.time.ZonedDateTime;
@@ -17,24 +19,46 @@ public class Url implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Number of ids fetched at once from the {@code url_sequence_generator} sequence, which must be its increment.
+     */
+    public static final int ID_ALLOCATION_SIZE = 1000;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    // Ids are handed out from each value fetched from the sequence upwards, up to the next value it hands out
+    @PooledLoSequence(sequenceName = "url_sequence_generator", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "id")
     private Long id;
 
-    @Column(name = "short_url")
+    /**
+     * Short url, stored as the number its code stands for.
+     */
+    @Column(name = "code")
+    @Convert(converter = ShortUrlConverter.class)
     private String shortUrl;
 
     @Column(name = "full_url")
     private String fullUrl;
 
+    /**
+     * Digest of the full url, indexed for deduplication, set with the full url.
+     */
+    @JsonIgnore
+    @Column(name = "full_url_digest", length = UrlUtil.DIGEST_SIZE)
+    private byte[] fullUrlDigest;
+
     @Column(name = "creation_date_time")
     private ZonedDateTime creationDateTime;
 
     @Column(name = "expiration_date_time")
     private ZonedDateTime expirationDateTime;
 
+    /**
+     * Number of redirects, only written by batched increments of the click counter.
+     */
+    @Column(name = "clicks", insertable = false, updatable = false)
+    private Long clicks;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -74,6 +98,11 @@ public class Url implements Serializable {
 
     public void setFullUrl(String fullUrl) {
         this.fullUrl = fullUrl;
+        this.fullUrlDigest = UrlUtil.digest(fullUrl);
+    }
+
+    public byte[] getFullUrlDigest() {
+        return this.fullUrlDigest;
     }
 
     public ZonedDateTime getCreationDateTime() {
@@ -102,6 +131,19 @@ public class Url implements Serializable {
         this.expirationDateTime = expirationDateTime;
     }
 
+    public Long getClicks() {
+        return this.clicks;
+    }
+
+    public Url clicks(Long clicks) {
+        this.setClicks(clicks);
+        return this;
+    }
+
+    public void setClicks(Long clicks) {
+        this.clicks = clicks;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -130,6 +172,7 @@ public class Url implements Serializable {
             ", fullUrl='" + getFullUrl() + "'" +
             ", creationDateTime='" + getCreationDateTime() + "'" +
             ", expirationDateTime='" + getExpirationDateTime() + "'" +
+            ", clicks=" + getClicks() +
             "}";
     }
 }
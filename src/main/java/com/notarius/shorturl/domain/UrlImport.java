@@ -0,0 +1,165 @@
+package com.notarius.shorturl.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * A UrlImport: the progress of a bulk import of urls, saved with each imported batch so the import can be resumed.
+ */
+@Entity
+@Table(name = "url_import")
+@JsonIgnoreProperties(value = { "new", "id" })
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class UrlImport implements Serializable, Persistable<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    @Size(max = 100)
+    @Id
+    @Column(name = "name", length = 100, nullable = false)
+    private String name;
+
+    @Column(name = "rows_read", nullable = false)
+    private long rowsRead;
+
+    @Column(name = "created_count", nullable = false)
+    private long createdCount;
+
+    @Column(name = "existing_count", nullable = false)
+    private long existingCount;
+
+    @Column(name = "rejected_count", nullable = false)
+    private long rejectedCount;
+
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+
+    @Column(name = "last_modified_date_time")
+    private ZonedDateTime lastModifiedDateTime;
+
+    @Transient
+    private boolean isPersisted;
+
+    // jhipster-needle-entity-add-field - JHipster will add fields here
+
+    public String getName() {
+        return this.name;
+    }
+
+    public UrlImport name(String name) {
+        this.setName(name);
+        return this;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getRowsRead() {
+        return this.rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getCreatedCount() {
+        return this.createdCount;
+    }
+
+    public void setCreatedCount(long createdCount) {
+        this.createdCount = createdCount;
+    }
+
+    public long getExistingCount() {
+        return this.existingCount;
+    }
+
+    public void setExistingCount(long existingCount) {
+        this.existingCount = existingCount;
+    }
+
+    public long getRejectedCount() {
+        return this.rejectedCount;
+    }
+
+    public void setRejectedCount(long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+
+    public boolean isCompleted() {
+        return this.completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public ZonedDateTime getLastModifiedDateTime() {
+        return this.lastModifiedDateTime;
+    }
+
+    public void setLastModifiedDateTime(ZonedDateTime lastModifiedDateTime) {
+        this.lastModifiedDateTime = lastModifiedDateTime;
+    }
+
+    @PostLoad
+    @PostPersist
+    public void updateEntityState() {
+        this.setIsPersisted();
+    }
+
+    @Override
+    public String getId() {
+        return this.name;
+    }
+
+    @Transient
+    @Override
+    public boolean isNew() {
+        return !this.isPersisted;
+    }
+
+    public UrlImport setIsPersisted() {
+        this.isPersisted = true;
+        return this;
+    }
+
+    // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UrlImport)) {
+            return false;
+        }
+        return getName() != null && getName().equals(((UrlImport) o).getName());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getName());
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UrlImport{" +
+            "name=" + getName() +
+            ", rowsRead=" + getRowsRead() +
+            ", createdCount=" + getCreatedCount() +
+            ", existingCount=" + getExistingCount() +
+            ", rejectedCount=" + getRejectedCount() +
+            ", completed=" + isCompleted() +
+            ", lastModifiedDateTime='" + getLastModifiedDateTime() + "'" +
+            "}";
+    }
+}
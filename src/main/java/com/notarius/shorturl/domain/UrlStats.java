@@ -0,0 +1,209 @@
+package com.notarius.shorturl.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.notarius.shorturl.domain.enumeration.StatsGranularity;
+import com.notarius.shorturl.util.HyperLogLog;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A UrlStats: the clicks of a {@link Url} during a minute, an hour or a day.
+ * <p>
+ * Buckets are only written by batched increments of the click counter, and keyed by url, granularity and start, so the
+ * buckets of a url over a time range are a single range scan of the primary key.
+ */
+@Entity
+@Table(name = "url_stats")
+@IdClass(UrlStats.UrlStatsId.class)
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class UrlStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "url_id", nullable = false)
+    private Long urlId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", length = 6, nullable = false)
+    private StatsGranularity granularity;
+
+    @Id
+    @Column(name = "bucket_start", nullable = false)
+    private ZonedDateTime bucketStart;
+
+    @Column(name = "clicks", nullable = false)
+    private long clicks;
+
+    /**
+     * {@link HyperLogLog} sketch of the visitors, kept for hour and day buckets only.
+     */
+    @JsonIgnore
+    @Column(name = "visitors")
+    private byte[] visitors;
+
+    // jhipster-needle-entity-add-field - JHipster will add fields here
+
+    public Long getUrlId() {
+        return this.urlId;
+    }
+
+    public UrlStats urlId(Long urlId) {
+        this.setUrlId(urlId);
+        return this;
+    }
+
+    public void setUrlId(Long urlId) {
+        this.urlId = urlId;
+    }
+
+    public StatsGranularity getGranularity() {
+        return this.granularity;
+    }
+
+    public UrlStats granularity(StatsGranularity granularity) {
+        this.setGranularity(granularity);
+        return this;
+    }
+
+    public void setGranularity(StatsGranularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public ZonedDateTime getBucketStart() {
+        return this.bucketStart;
+    }
+
+    public UrlStats bucketStart(ZonedDateTime bucketStart) {
+        this.setBucketStart(bucketStart);
+        return this;
+    }
+
+    public void setBucketStart(ZonedDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getClicks() {
+        return this.clicks;
+    }
+
+    public UrlStats clicks(long clicks) {
+        this.setClicks(clicks);
+        return this;
+    }
+
+    public void setClicks(long clicks) {
+        this.clicks = clicks;
+    }
+
+    public byte[] getVisitors() {
+        return this.visitors;
+    }
+
+    public UrlStats visitors(byte[] visitors) {
+        this.setVisitors(visitors);
+        return this;
+    }
+
+    public void setVisitors(byte[] visitors) {
+        this.visitors = visitors;
+    }
+
+    /**
+     * @return the estimated number of unique visitors, or {@code null} for buckets without sketch.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Long getUniqueVisitors() {
+        return visitors == null ? null : HyperLogLog.fromBytes(visitors).estimate();
+    }
+
+    // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UrlStats)) {
+            return false;
+        }
+        UrlStats other = (UrlStats) o;
+        return (
+            urlId != null &&
+            granularity != null &&
+            bucketStart != null &&
+            urlId.equals(other.urlId) &&
+            granularity == other.granularity &&
+            bucketStart.toInstant().equals(other.bucketStart == null ? null : other.bucketStart.toInstant())
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UrlStats{" +
+            "urlId=" + getUrlId() +
+            ", granularity='" + getGranularity() + "'" +
+            ", bucketStart='" + getBucketStart() + "'" +
+            ", clicks=" + getClicks() +
+            "}";
+    }
+
+    /**
+     * The primary key of a {@link UrlStats}.
+     */
+    public static class UrlStatsId implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private Long urlId;
+
+        private StatsGranularity granularity;
+
+        private ZonedDateTime bucketStart;
+
+        public UrlStatsId() {
+            // Empty constructor needed for JPA
+        }
+
+        public UrlStatsId(Long urlId, StatsGranularity granularity, ZonedDateTime bucketStart) {
+            this.urlId = urlId;
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof UrlStatsId)) {
+                return false;
+            }
+            UrlStatsId other = (UrlStatsId) o;
+            return (
+                Objects.equals(urlId, other.urlId) &&
+                granularity == other.granularity &&
+                Objects.equals(
+                    bucketStart == null ? null : bucketStart.toInstant(),
+                    other.bucketStart == null ? null : other.bucketStart.toInstant()
+                )
+            );
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(urlId, granularity, bucketStart == null ? null : bucketStart.toInstant());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.notarius.shorturl.domain.enumeration;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The StatsGranularity enumeration: the width of the buckets of {@link com.notarius.shorturl.domain.UrlStats}, in UTC.
+ */
+public enum StatsGranularity {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    StatsGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * @param instant an instant.
+     * @return the start of the bucket holding the instant.
+     */
+    public Instant bucketStart(Instant instant) {
+        return instant.truncatedTo(unit);
+    }
+
+    public Duration getBucketDuration() {
+        return unit.getDuration();
+    }
+}
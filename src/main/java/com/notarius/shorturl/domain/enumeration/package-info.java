@@ -0,0 +1,4 @@
+/**
+ * Domain enumerations.
+ */
+package com.notarius.shorturl.domain.enumeration;
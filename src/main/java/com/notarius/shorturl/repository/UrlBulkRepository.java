@@ -0,0 +1,335 @@
+package com.notarius.shorturl.repository;
+
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.domain.enumeration.StatsGranularity;
+import com.notarius.shorturl.util.HyperLogLog;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import jakarta.persistence.EntityManager;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository inserting or updating many {@link Url}s at once, without going through the persistence context.
+ * <p>
+ * On PostgreSQL, rows are streamed with {@code COPY ... FROM STDIN} through the driver's {@code CopyManager}, reached
+ * reflectively as the driver is only on the classpath of the {@code prod} profile. Other databases get JDBC batches of
+ * {@code hibernate.jdbc.batch_size} inserts. Ids come from the {@link Url} identifier generator, so they never clash with
+ * ids allocated by Hibernate. Date times are stored in UTC, like {@code hibernate.jdbc.time_zone}, and short urls as the
+ * number their code stands for, like the {@link com.notarius.shorturl.domain.ShortUrlConverter}.
+ */
+@Repository
+public class UrlBulkRepository {
+
+    private static final String COPY_SQL =
+        "copy url (id, code, full_url, full_url_digest, creation_date_time, expiration_date_time) from stdin with (format csv)";
+
+    private static final String INSERT_SQL =
+        "insert into url (id, code, full_url, full_url_digest, creation_date_time, expiration_date_time) values (?, ?, ?, ?, ?, ?)";
+
+    private static final String ADD_CLICKS_SQL = "update url set clicks = clicks + ? where code = ?";
+
+    private static final String ADD_STATS_SQL =
+        "update url_stats set clicks = clicks + ? " +
+        "where url_id in (select id from url where code = ?) and granularity = ? and bucket_start = ?";
+
+    private static final String INSERT_STATS_SQL =
+        "insert into url_stats (url_id, granularity, bucket_start, clicks) select id, ?, ?, ? from url where code = ?";
+
+    private static final String UPSERT_STATS_SQL =
+        INSERT_STATS_SQL + " on conflict (url_id, granularity, bucket_start) do update set clicks = url_stats.clicks + excluded.clicks";
+
+    private static final String SELECT_VISITORS_SQL =
+        "select s.url_id, u.code, s.visitors from url_stats s join url u on u.id = s.url_id " +
+        "where s.granularity = ? and s.bucket_start = ? and u.code in (%s)";
+
+    private static final String UPDATE_VISITORS_SQL =
+        "update url_stats set visitors = ? where url_id = ? and granularity = ? and bucket_start = ?";
+
+    /** Granularities of the buckets keeping a sketch of their visitors. */
+    private static final List<StatsGranularity> VISITORS_GRANULARITIES = List.of(StatsGranularity.HOUR, StatsGranularity.DAY);
+
+    private static final int IN_LIST_SIZE = 500;
+
+    private static final String PG_CONNECTION_CLASS = "org.postgresql.PGConnection";
+
+    private final DataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManager entityManager;
+
+    private final ShortCodeGenerator shortCodeGenerator;
+
+    private final int batchSize;
+
+    public UrlBulkRepository(
+        DataSource dataSource,
+        JdbcTemplate jdbcTemplate,
+        EntityManager entityManager,
+        ShortCodeGenerator shortCodeGenerator,
+        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:25}") int batchSize
+    ) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.shortCodeGenerator = shortCodeGenerator;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Assign ids to new urls, in the current transaction. The sequence is only queried when the block of ids of the
+     * generator runs out.
+     *
+     * @param urls the new urls, without id.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void assignIds(Collection<Url> urls) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator idGenerator = (IdentifierGenerator) session
+            .getFactory()
+            .getMappingMetamodel()
+            .getEntityDescriptor(Url.class)
+            .getGenerator();
+        urls.forEach(url -> url.setId((Long) idGenerator.generate(session, url)));
+    }
+
+    /**
+     * Insert new urls, in the current transaction, after assigning ids to those without one.
+     *
+     * @param urls the new urls.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void insertAll(List<Url> urls) {
+        if (urls.isEmpty()) {
+            return;
+        }
+        assignIds(urls.stream().filter(url -> url.getId() == null).toList());
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            Class<?> pgConnectionClass = pgConnectionClass();
+            if (pgConnectionClass != null && connection.isWrapperFor(pgConnectionClass)) {
+                copy(connection.unwrap(pgConnectionClass), pgConnectionClass, urls);
+            } else {
+                jdbcTemplate.batchUpdate(INSERT_SQL, urls, batchSize, (statement, url) -> {
+                    statement.setLong(1, url.getId());
+                    statement.setObject(2, toCode(url.getShortUrl()), Types.BIGINT);
+                    statement.setString(3, url.getFullUrl());
+                    statement.setBytes(4, url.getFullUrlDigest());
+                    statement.setObject(5, toUtc(url.getCreationDateTime()));
+                    statement.setObject(6, toUtc(url.getExpirationDateTime()));
+                });
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Could not insert urls", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Add clicks to urls, in JDBC batches of a single statement, in the current transaction. Urls are updated in code
+     * order, so concurrent calls lock rows in the same order.
+     * <p>
+     * Like any write outside of the persistence context, this leaves the counts of cached entities behind.
+     *
+     * @param clicksByShortUrl the number of clicks to add, by short url. Unknown short urls are ignored.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addClicks(Map<String, Long> clicksByShortUrl) {
+        List<Map.Entry<Long, Long>> clicks = byCode(clicksByShortUrl);
+        jdbcTemplate.batchUpdate(ADD_CLICKS_SQL, clicks, batchSize, (statement, entry) -> {
+            statement.setLong(1, entry.getValue());
+            statement.setLong(2, entry.getKey());
+        });
+    }
+
+    /**
+     * Add clicks to the {@link com.notarius.shorturl.domain.UrlStats} buckets of urls holding an instant, in the current
+     * transaction. On PostgreSQL, buckets are upserted by a batch of {@code insert ... on conflict do update}, so buckets
+     * created concurrently by other nodes are incremented like any other. Elsewhere, existing buckets are incremented by a
+     * batch of updates, and the missing ones created by a batch of inserts: a bucket created concurrently fails the
+     * transaction with a {@link org.springframework.dao.DuplicateKeyException}, and the clicks are meant to be added
+     * again.
+     *
+     * @param clicksByShortUrl the number of clicks to add, by short url. Unknown short urls are ignored.
+     * @param instant the instant of the clicks.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addClickStats(Map<String, Long> clicksByShortUrl, Instant instant) {
+        List<Map.Entry<Long, Long>> clicks = byCode(clicksByShortUrl);
+        boolean upsert = isPostgreSql();
+        for (StatsGranularity granularity : StatsGranularity.values()) {
+            LocalDateTime bucketStart = LocalDateTime.ofInstant(granularity.bucketStart(instant), ZoneOffset.UTC);
+            if (upsert) {
+                jdbcTemplate.batchUpdate(UPSERT_STATS_SQL, clicks, batchSize, (statement, entry) -> {
+                    statement.setString(1, granularity.name());
+                    statement.setObject(2, bucketStart);
+                    statement.setLong(3, entry.getValue());
+                    statement.setLong(4, entry.getKey());
+                });
+                continue;
+            }
+            int[][] updated = jdbcTemplate.batchUpdate(ADD_STATS_SQL, clicks, batchSize, (statement, entry) -> {
+                statement.setLong(1, entry.getValue());
+                statement.setLong(2, entry.getKey());
+                statement.setString(3, granularity.name());
+                statement.setObject(4, bucketStart);
+            });
+            List<Map.Entry<Long, Long>> missing = new ArrayList<>();
+            for (int i = 0; i < clicks.size(); i++) {
+                if (updated[i / batchSize][i % batchSize] == 0) {
+                    missing.add(clicks.get(i));
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_STATS_SQL, missing, batchSize, (statement, entry) -> {
+                statement.setString(1, granularity.name());
+                statement.setObject(2, bucketStart);
+                statement.setLong(3, entry.getValue());
+                statement.setLong(4, entry.getKey());
+            });
+        }
+    }
+
+    /**
+     * Merge visitor sketches into the hour and day {@link com.notarius.shorturl.domain.UrlStats} buckets of urls holding an
+     * instant, in the current transaction. The buckets must exist, which {@link #addClickStats} makes sure of, and are read
+     * after it locked them. Sketches are merged and written back in JDBC batches of updates.
+     *
+     * @param visitorsByShortUrl the visitors to add, by short url. Unknown short urls are ignored.
+     * @param instant the instant of the visits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addVisitors(Map<String, HyperLogLog> visitorsByShortUrl, Instant instant) {
+        List<Long> codes = new ArrayList<>(visitorsByShortUrl.size());
+        Map<Long, HyperLogLog> visitorsByCode = new HashMap<>();
+        for (Map.Entry<Long, HyperLogLog> entry : byCode(visitorsByShortUrl)) {
+            codes.add(entry.getKey());
+            visitorsByCode.put(entry.getKey(), entry.getValue());
+        }
+        for (StatsGranularity granularity : VISITORS_GRANULARITIES) {
+            LocalDateTime bucketStart = LocalDateTime.ofInstant(granularity.bucketStart(instant), ZoneOffset.UTC);
+            for (int from = 0; from < codes.size(); from += IN_LIST_SIZE) {
+                List<Long> chunk = codes.subList(from, Math.min(from + IN_LIST_SIZE, codes.size()));
+                List<Object> arguments = new ArrayList<>(chunk.size() + 2);
+                arguments.add(granularity.name());
+                arguments.add(bucketStart);
+                arguments.addAll(chunk);
+                List<Object[]> updates = jdbcTemplate.query(
+                    String.format(SELECT_VISITORS_SQL, String.join(",", Collections.nCopies(chunk.size(), "?"))),
+                    (resultSet, row) -> {
+                        HyperLogLog visitors = visitorsByCode.get(resultSet.getLong(2));
+                        byte[] stored = resultSet.getBytes(3);
+                        if (stored != null) {
+                            visitors = HyperLogLog.fromBytes(stored).merge(visitors);
+                        }
+                        return new Object[] { visitors.toBytes(), resultSet.getLong(1) };
+                    },
+                    arguments.toArray()
+                );
+                jdbcTemplate.batchUpdate(UPDATE_VISITORS_SQL, updates, batchSize, (statement, update) -> {
+                    statement.setBytes(1, (byte[]) update[0]);
+                    statement.setLong(2, (Long) update[1]);
+                    statement.setString(3, granularity.name());
+                    statement.setObject(4, bucketStart);
+                });
+            }
+        }
+    }
+
+    /**
+     * Get the entries of a map by short url keyed by code instead, in code order, leaving out strings which are not short
+     * urls.
+     */
+    private <T> List<Map.Entry<Long, T>> byCode(Map<String, T> valuesByShortUrl) {
+        List<Map.Entry<Long, T>> entries = new ArrayList<>(valuesByShortUrl.size());
+        valuesByShortUrl.forEach((shortUrl, value) -> {
+            Long code = toCode(shortUrl);
+            if (code != null) {
+                entries.add(Map.entry(code, value));
+            }
+        });
+        entries.sort(Map.Entry.comparingByKey());
+        return entries;
+    }
+
+    private Long toCode(String shortUrl) {
+        long code = shortCodeGenerator.toCode(shortUrl);
+        return code < 0 ? null : code;
+    }
+
+    private void copy(Object pgConnection, Class<?> pgConnectionClass, List<Url> urls) {
+        StringBuilder rows = new StringBuilder(urls.size() * 128);
+        for (Url url : urls) {
+            rows.append(url.getId()).append(',');
+            appendCsv(rows, toCode(url.getShortUrl())).append(',');
+            appendCsv(rows, url.getFullUrl()).append(',');
+            appendCsv(rows, url.getFullUrlDigest() == null ? null : "\\x" + HexFormat.of().formatHex(url.getFullUrlDigest())).append(',');
+            appendCsv(rows, toUtc(url.getCreationDateTime())).append(',');
+            appendCsv(rows, toUtc(url.getExpirationDateTime())).append('\n');
+        }
+        try {
+            Object copyManager = pgConnectionClass.getMethod("getCopyAPI").invoke(pgConnection);
+            copyManager.getClass().getMethod("copyIn", String.class, Reader.class).invoke(copyManager, COPY_SQL, new StringReader(rows.toString()));
+        } catch (InvocationTargetException e) {
+            throw new DataAccessResourceFailureException("Could not copy urls", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unsupported PostgreSQL driver", e);
+        }
+    }
+
+    /**
+     * Append a value as a quoted CSV field, or as an unquoted empty field, which {@code COPY} reads as null.
+     */
+    private static StringBuilder appendCsv(StringBuilder rows, Object value) {
+        if (value != null) {
+            rows.append('"').append(value.toString().replace("\"", "\"\"")).append('"');
+        }
+        return rows;
+    }
+
+    private static LocalDateTime toUtc(ZonedDateTime dateTime) {
+        return dateTime == null ? null : dateTime.withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+    }
+
+    private boolean isPostgreSql() {
+        Class<?> pgConnectionClass = pgConnectionClass();
+        return (
+            pgConnectionClass != null &&
+            Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> connection.isWrapperFor(pgConnectionClass)))
+        );
+    }
+
+    private static Class<?> pgConnectionClass() {
+        try {
+            return Class.forName(PG_CONNECTION_CLASS);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.notarius.shorturl.repository;
+
+import com.notarius.shorturl.domain.UrlImport;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the UrlImport entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface UrlImportRepository extends JpaRepository<UrlImport, String> {}
@@ -1,9 +1,21 @@
 package com.notarius.shorturl.repository;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 import com.notarius.shorturl.domain.Url;
+import jakarta.persistence.QueryHint;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Spring Data JPA repository for the Url entity.
@@ -11,6 +23,85 @@ import org.springframework.stereotype.Repository;
 @SuppressWarnings("unused")
 @Repository
 public interface UrlRepository extends JpaRepository<Url, Long> {
+    String RESOLVED_URLS_BY_SHORT_URL_CACHE = "resolvedUrlsByShortUrl";
+
+    String MISSING_SHORT_URLS_CACHE = "missingShortUrls";
+
     Optional<Url> findByShortUrl(String shortUrl);
     Boolean existsByShortUrl(String shortUrl);
+
+    List<Url> findAllByShortUrlIn(Collection<String> shortUrls);
+
+    List<Url> findAllByFullUrlDigest(byte[] fullUrlDigest);
+
+    List<Url> findAllByFullUrlDigestIn(Collection<byte[]> fullUrlDigests);
+
+    List<Url> findAllByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @QueryHints(
+        {
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE"),
+        }
+    )
+    @Query("select url from Url url order by url.id")
+    Stream<Url> streamAll();
+
+    @Query("select url.shortUrl from Url url where url.shortUrl in :shortUrls")
+    List<String> findExistingShortUrls(@Param("shortUrls") Collection<String> shortUrls);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select url.shortUrl from Url url")
+    Stream<String> streamAllShortUrls();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(
+        "select cast(url.shortUrl as Long) as code, url.fullUrl as fullUrl, url.expirationDateTime as expirationDateTime " +
+        "from Url url where url.shortUrl is not null and url.fullUrl is not null order by url.shortUrl"
+    )
+    Stream<ShortUrlTarget> streamAllShortUrlTargetsOrderByCode();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(
+        "select cast(url.shortUrl as Long) as code, url.fullUrl as fullUrl, url.expirationDateTime as expirationDateTime " +
+        "from Url url where url.shortUrl is not null and url.fullUrl is not null " +
+        "and (url.expirationDateTime is null or url.expirationDateTime > :dateTime)"
+    )
+    Stream<ShortUrlTarget> streamShortUrlTargetsNotExpiredAt(@Param("dateTime") ZonedDateTime dateTime);
+
+    @Query(
+        "select url.id as id, url.shortUrl as shortUrl from Url url " +
+        "where url.expirationDateTime < :dateTime order by url.expirationDateTime, url.id"
+    )
+    List<ExpiredUrl> findAllExpiredBefore(@Param("dateTime") ZonedDateTime dateTime, Limit limit);
+
+    @Modifying
+    @Query("delete from Url url where url.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Query(value = "select nextval('short_code_block_sequence')", nativeQuery = true)
+    long nextShortCodeBlock();
+
+    /**
+     * Projection of an expired {@link Url} on what is needed to forget it.
+     */
+    interface ExpiredUrl {
+        Long getId();
+
+        String getShortUrl();
+    }
+
+    /**
+     * Projection of a {@link Url} on what is needed to follow it, its short url being read as the number its code stands
+     * for, as stored.
+     */
+    interface ShortUrlTarget {
+        Long getCode();
+
+        String getFullUrl();
+
+        ZonedDateTime getExpirationDateTime();
+    }
 }
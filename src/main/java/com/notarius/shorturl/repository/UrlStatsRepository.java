@@ -0,0 +1,28 @@
+package com.notarius.shorturl.repository;
+
+import com.notarius.shorturl.domain.UrlStats;
+import com.notarius.shorturl.domain.enumeration.StatsGranularity;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the UrlStats entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface UrlStatsRepository extends JpaRepository<UrlStats, UrlStats.UrlStatsId> {
+    @Query(
+        "select stats from UrlStats stats " +
+        "where stats.urlId = :urlId and stats.granularity = :granularity and stats.bucketStart >= :from and stats.bucketStart < :to " +
+        "order by stats.bucketStart"
+    )
+    List<UrlStats> findAllInRange(
+        @Param("urlId") Long urlId,
+        @Param("granularity") StatsGranularity granularity,
+        @Param("from") ZonedDateTime from,
+        @Param("to") ZonedDateTime to
+    );
+}
@@ -0,0 +1,213 @@
+package com.notarius.shorturl.service;
+
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.repository.UrlBulkRepository;
+import com.notarius.shorturl.util.ClickEvent;
+import com.notarius.shorturl.util.HyperLogLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service counting the redirects of each short url, without writing to the database on the redirect path.
+ * <p>
+ * A redirect only increments a {@link LongAdder} of its short url, whose cells spread concurrent increments of a hot
+ * short url over several cache lines. Every {@code application.clicks.flush-interval-seconds}, and when the application
+ * stops, the clicks counted since the previous flush are added to {@code url.clicks} with a single batched
+ * {@code update}, and to the minute, hour and day {@link com.notarius.shorturl.domain.UrlStats} buckets of the flush in
+ * the same transaction, so the rollups are maintained incrementally and a bucket may receive clicks from up to one
+ * interval earlier. Counters are never reset: each one remembers how many of its clicks are already written, so clicks
+ * counted during a flush, or by a flush that failed, are written by the next one.
+ * <p>
+ * Each counter also feeds a {@link HyperLogLog} sketch with the hash of the address and user agent of the visitor. Sketches
+ * are merged into those of the hour and day buckets in the same transaction. A sketch is written by two flushes, the one
+ * after which it is replaced and the next one, so visitors counted while it is replaced are not lost; being idempotent,
+ * the merge does not count them twice.
+ * <p>
+ * Counters idle for a whole interval are dropped, after one more flush of what they may have counted meanwhile.
+ */
+@Service
+public class ClickCounterService {
+
+    public static final String CLICKS_METER_PREFIX = "url.clicks.";
+
+    private static final Logger log = LoggerFactory.getLogger(ClickCounterService.class);
+
+    private final UrlBulkRepository urlBulkRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    private final ConcurrentHashMap<String, ClickCount> counts = new ConcurrentHashMap<>();
+
+    /** Counters dropped by the previous flush, only used while flushing. */
+    private List<ClickCount> retired = new ArrayList<>();
+
+    private final Counter flushedClicks;
+
+    public ClickCounterService(
+        UrlBulkRepository urlBulkRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.urlBulkRepository = urlBulkRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = applicationProperties.getClicks().isEnabled();
+        Gauge.builder(CLICKS_METER_PREFIX + "counters", counts, Map::size)
+            .description("Short urls with a click counter in memory")
+            .register(meterRegistry);
+        this.flushedClicks = Counter.builder(CLICKS_METER_PREFIX + "flushed")
+            .description("Clicks written to the database")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Count a redirect of a short url.
+     *
+     * @param shortUrl the followed short url.
+     * @param remoteAddress the address of the visitor, or {@code null} if unknown.
+     * @param userAgent the user agent of the visitor, or {@code null}.
+     */
+    public void record(String shortUrl, String remoteAddress, String userAgent) {
+        if (!enabled) {
+            return;
+        }
+        ClickCount count = counts.get(shortUrl);
+        if (count == null) {
+            count = counts.computeIfAbsent(shortUrl, ClickCount::new);
+        }
+        count.clicks.increment();
+        if (remoteAddress != null) {
+            count.visitors.add(ClickEvent.hash(remoteAddress) ^ Long.rotateLeft(ClickEvent.hash(userAgent), 29));
+        }
+    }
+
+    @Scheduled(
+        fixedDelayString = "${application.clicks.flush-interval-seconds:10}",
+        initialDelayString = "${application.clicks.flush-interval-seconds:10}",
+        timeUnit = TimeUnit.SECONDS
+    )
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void onContextClosed() {
+        flush();
+    }
+
+    /**
+     * Write the clicks counted since the previous flush.
+     *
+     * @return the number of clicks written.
+     */
+    public synchronized long flush() {
+        Instant now = Instant.now();
+        Map<String, Long> clicksByShortUrl = new HashMap<>();
+        Map<String, HyperLogLog> visitorsByShortUrl = new HashMap<>();
+        List<ClickCount> flushed = new ArrayList<>();
+        List<ClickCount> idle = new ArrayList<>();
+        for (ClickCount count : retired) {
+            collect(count, clicksByShortUrl, visitorsByShortUrl, flushed);
+        }
+        for (ClickCount count : counts.values()) {
+            if (!collect(count, clicksByShortUrl, visitorsByShortUrl, flushed)) {
+                idle.add(count);
+            }
+        }
+        long total = clicksByShortUrl.values().stream().mapToLong(Long::longValue).sum();
+        if (total > 0) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    urlBulkRepository.addClicks(clicksByShortUrl);
+                    urlBulkRepository.addClickStats(clicksByShortUrl, now);
+                    urlBulkRepository.addVisitors(visitorsByShortUrl, now);
+                });
+            } catch (RuntimeException e) {
+                log.warn("Could not write {} clicks, they will be written by the next flush", total, e);
+                return 0;
+            }
+            flushed.forEach(count -> {
+                count.flushed = count.collected;
+                count.previousVisitors = count.visitors;
+                count.visitors = new HyperLogLog();
+            });
+            flushedClicks.increment(total);
+            log.debug("Wrote {} clicks of {} short urls", total, clicksByShortUrl.size());
+        }
+        // A redirect may still be incrementing a dropped counter, which is why it is flushed once more
+        List<ClickCount> dropped = new ArrayList<>();
+        for (ClickCount count : idle) {
+            if (counts.remove(count.shortUrl, count)) {
+                dropped.add(count);
+            }
+        }
+        retired = dropped;
+        return total;
+    }
+
+    /**
+     * Add the clicks of a counter not written yet, and its visitors.
+     *
+     * @return {@code false} if there are no clicks.
+     */
+    private static boolean collect(
+        ClickCount count,
+        Map<String, Long> clicksByShortUrl,
+        Map<String, HyperLogLog> visitorsByShortUrl,
+        List<ClickCount> flushed
+    ) {
+        count.collected = count.clicks.sum();
+        long clicks = count.collected - count.flushed;
+        if (clicks == 0) {
+            return false;
+        }
+        clicksByShortUrl.merge(count.shortUrl, clicks, Long::sum);
+        HyperLogLog visitors = visitorsByShortUrl.computeIfAbsent(count.shortUrl, shortUrl -> new HyperLogLog()).merge(count.visitors);
+        if (count.previousVisitors != null) {
+            visitors.merge(count.previousVisitors);
+        }
+        flushed.add(count);
+        return true;
+    }
+
+    /**
+     * Clicks of a short url: incremented by redirects, the rest only used while flushing.
+     */
+    private static class ClickCount {
+
+        private final String shortUrl;
+
+        private final LongAdder clicks = new LongAdder();
+
+        private volatile HyperLogLog visitors = new HyperLogLog();
+
+        private HyperLogLog previousVisitors;
+
+        private long flushed;
+
+        private long collected;
+
+        ClickCount(String shortUrl) {
+            this.shortUrl = shortUrl;
+        }
+    }
+}
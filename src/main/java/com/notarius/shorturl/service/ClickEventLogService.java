@@ -0,0 +1,166 @@
+package com.notarius.shorturl.service;
+
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.util.ClickEvent;
+import com.notarius.shorturl.util.ClickEventLog;
+import com.notarius.shorturl.util.ClickEventRing;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import com.notarius.shorturl.util.UserAgentClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service recording every redirect in the {@link ClickEventLog}, for analytics jobs replaying its segments.
+ * <p>
+ * Redirects only offer their event to a {@link ClickEventRing}, which a dedicated writer thread drains into the memory
+ * mapped segments of {@code application.click-log.directory}, forcing them to disk about once per second. Events are
+ * dropped, and counted, when the ring is full: recording never blocks a redirect.
+ * <p>
+ * Events identify the followed short url by its code, as stored in the url table, so analytics jobs can join them with
+ * urls without any lookup table.
+ */
+@Service
+public class ClickEventLogService {
+
+    public static final String CLICK_LOG_METER_PREFIX = "url.click-log.";
+
+    private static final Logger log = LoggerFactory.getLogger(ClickEventLogService.class);
+
+    private static final int DRAIN_BATCH = 4096;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long FORCE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ApplicationProperties.ClickLog properties;
+
+    private final ShortCodeGenerator shortCodeGenerator;
+
+    private final ClickEventRing ring;
+
+    private final Counter writtenEvents;
+
+    private final Counter droppedEvents;
+
+    private volatile boolean running;
+
+    private volatile Thread writer;
+
+    public ClickEventLogService(ApplicationProperties applicationProperties, ShortCodeGenerator shortCodeGenerator, MeterRegistry meterRegistry) {
+        this.properties = applicationProperties.getClickLog();
+        this.shortCodeGenerator = shortCodeGenerator;
+        this.ring = properties.isEnabled() ? new ClickEventRing(properties.getRingBufferSize()) : null;
+        this.writtenEvents = Counter.builder(CLICK_LOG_METER_PREFIX + "written")
+            .description("Click events written to the click log")
+            .register(meterRegistry);
+        this.droppedEvents = Counter.builder(CLICK_LOG_METER_PREFIX + "dropped")
+            .description("Click events dropped as the click log writer was behind")
+            .register(meterRegistry);
+        Gauge.builder(CLICK_LOG_METER_PREFIX + "pending", this, service -> service.ring == null ? 0 : service.ring.size())
+            .description("Click events waiting for the click log writer")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (ring == null || running) {
+            return;
+        }
+        ClickEventLog clickEventLog;
+        try {
+            clickEventLog = ClickEventLog.open(getDirectory(), properties.getSegmentEvents(), properties.getRetainedSegments());
+        } catch (IOException e) {
+            log.warn("Could not open the click log in {}, redirects are not recorded", getDirectory(), e);
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(() -> write(clickEventLog), "click-log-writer");
+        thread.setDaemon(true);
+        thread.start();
+        writer = thread;
+        log.info("Recording redirects in {}", clickEventLog.getCurrentSegment());
+    }
+
+    /**
+     * Stop the writer once it has written the pending events.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public synchronized void stop() {
+        Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    /**
+     * Record a redirect.
+     *
+     * @param shortUrl the followed short url.
+     * @param referrer the {@code Referer} header, or {@code null}.
+     * @param userAgent the {@code User-Agent} header, or {@code null}.
+     * @param remoteAddress the address of the client.
+     */
+    public void record(String shortUrl, String referrer, String userAgent, String remoteAddress) {
+        if (!running) {
+            return;
+        }
+        boolean offered = ring.offer(
+            System.currentTimeMillis(),
+            shortCodeGenerator.toCode(shortUrl),
+            (int) ClickEvent.hash(referrer),
+            (int) ClickEvent.hash(remoteAddress),
+            UserAgentClass.of(userAgent).getCode()
+        );
+        if (!offered) {
+            droppedEvents.increment();
+        }
+    }
+
+    public Path getDirectory() {
+        return Path.of(properties.getDirectory());
+    }
+
+    private void write(ClickEventLog clickEventLog) {
+        long lastForce = System.nanoTime();
+        try (clickEventLog) {
+            while (true) {
+                // Read before draining, so the last drain sees every event recorded before the stop
+                boolean stopping = !running;
+                int drained = ring.drain(clickEventLog::append, DRAIN_BATCH);
+                writtenEvents.increment(drained);
+                if (System.nanoTime() - lastForce > FORCE_INTERVAL_NANOS) {
+                    clickEventLog.force();
+                    lastForce = System.nanoTime();
+                }
+                if (drained == 0) {
+                    if (stopping) {
+                        return;
+                    }
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        } catch (RuntimeException e) {
+            running = false;
+            log.error("Click log writer failed, redirects are no longer recorded", e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.notarius.shorturl.service;
+
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.util.HeavyHitters;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service tracking the most followed short urls of this node, for cache pre-warming and abuse detection.
+ * <p>
+ * Redirects are counted in the {@link HeavyHitters} count-min sketch, and the {@code application.hot-links.size} short
+ * urls with the highest counts are kept. Every {@code application.hot-links.decay-interval-seconds}, counts are halved,
+ * so the hot links follow the recent traffic, and, when {@code application.hot-links.prewarm} is set, the hot links are
+ * loaded into the resolved url cache, which renews their time to live there and so keeps them cached while they are hot.
+ * <p>
+ * Counts are per node and additive: the hot links of the cluster are the sums of the counts reported by each node.
+ */
+@Service
+public class HotLinkService {
+
+    public static final String HOT_LINKS_METER_PREFIX = "url.hot-links.";
+
+    private static final Logger log = LoggerFactory.getLogger(HotLinkService.class);
+
+    private final UrlResolverService urlResolverService;
+
+    private final boolean enabled;
+
+    private final boolean prewarm;
+
+    private final HeavyHitters heavyHitters;
+
+    public HotLinkService(UrlResolverService urlResolverService, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.urlResolverService = urlResolverService;
+        ApplicationProperties.HotLinks properties = applicationProperties.getHotLinks();
+        this.enabled = properties.isEnabled();
+        this.prewarm = properties.isPrewarm();
+        this.heavyHitters = new HeavyHitters(properties.getSize(), properties.getSketchWidth(), properties.getSketchDepth());
+        Gauge.builder(HOT_LINKS_METER_PREFIX + "top.count", this, service -> {
+            List<HeavyHitters.Entry> top = service.heavyHitters.top();
+            return top.isEmpty() ? 0 : top.get(0).getCount();
+        })
+            .description("Decayed redirect count of the hottest short url")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Count a redirect of a short url.
+     *
+     * @param shortUrl the followed short url.
+     */
+    public void record(String shortUrl) {
+        if (enabled) {
+            heavyHitters.add(shortUrl);
+        }
+    }
+
+    /**
+     * @return the hot links, hottest first, with their decayed redirect counts.
+     */
+    public List<HeavyHitters.Entry> getHotLinks() {
+        return heavyHitters.top();
+    }
+
+    /**
+     * @return the number of redirects counted, with the same decay as the hot link counts.
+     */
+    public long getTotal() {
+        return heavyHitters.getTotal();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Scheduled(
+        fixedDelayString = "${application.hot-links.decay-interval-seconds:60}",
+        initialDelayString = "${application.hot-links.decay-interval-seconds:60}",
+        timeUnit = TimeUnit.SECONDS
+    )
+    public void scheduledDecay() {
+        if (!enabled) {
+            return;
+        }
+        if (prewarm) {
+            warm();
+        }
+        heavyHitters.decay();
+    }
+
+    /**
+     * Load the hot links into the resolved url cache.
+     *
+     * @return the number of hot links loaded.
+     */
+    public int warm() {
+        List<String> shortUrls = heavyHitters.top().stream().map(HeavyHitters.Entry::getKey).toList();
+        if (shortUrls.isEmpty()) {
+            return 0;
+        }
+        int warmed = urlResolverService.warm(shortUrls);
+        log.debug("Loaded {} of {} hot links into the resolved url cache", warmed, shortUrls.size());
+        return warmed;
+    }
+}
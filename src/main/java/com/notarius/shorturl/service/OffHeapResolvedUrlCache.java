@@ -0,0 +1,193 @@
+package com.notarius.shorturl.service;
+
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.service.dto.ResolvedUrl;
+import com.notarius.shorturl.util.OffHeapLongMap;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.stereotype.Service;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * The {@link UrlRepository#RESOLVED_URLS_BY_SHORT_URL_CACHE} cache kept in an {@link OffHeapLongMap} instead of the
+ * cache manager, when {@code application.resolver.off-heap.enabled} is set.
+ * <p>
+ * Keys are the {@code Long} codes of short urls, and values the expiration and the end of the time to live, as epoch
+ * milliseconds, followed by the UTF-8 bytes of the target. Entries live for the time to live of the
+ * {@link UrlRepository#RESOLVED_URLS_BY_SHORT_URL_CACHE} cache: later ones are no longer served, and are evicted by the
+ * {@link ResolvedUrlExpiryService}. Once {@code application.resolver.off-heap.max-entries} are held, every new entry evicts
+ * another one at random, as counted by the {@code evicted} meter.
+ * <p>
+ * This service is not itself a {@link Cache}: a {@code Cache} bean would make Spring Boot configure a generic cache
+ * manager in place of the JCache one.
+ */
+@Service
+public class OffHeapResolvedUrlCache {
+
+    public static final String OFF_HEAP_METER_PREFIX = "url.resolved-urls.off-heap.";
+
+    private static final long NO_EXPIRATION = Long.MIN_VALUE;
+
+    private final long timeToLiveMillis;
+
+    private final OffHeapCache cache;
+
+    public OffHeapResolvedUrlCache(
+        ApplicationProperties applicationProperties,
+        JHipsterProperties jHipsterProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.Cache.Region region = applicationProperties.getCache().getCaches().get(UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE);
+        this.timeToLiveMillis =
+            (region != null && region.getTimeToLiveSeconds() != null
+                    ? region.getTimeToLiveSeconds()
+                    : jHipsterProperties.getCache().getEhcache().getTimeToLiveSeconds()) *
+            1000L;
+        ApplicationProperties.Resolver.OffHeap offHeap = applicationProperties.getResolver().getOffHeap();
+        if (!offHeap.isEnabled()) {
+            this.cache = null;
+            return;
+        }
+        OffHeapLongMap map = new OffHeapLongMap(
+            offHeap.getStripes(),
+            offHeap.getInitialCapacity(),
+            offHeap.getChunkBytes(),
+            offHeap.getMaxEntries()
+        );
+        this.cache = new OffHeapCache(map, timeToLiveMillis);
+        Gauge.builder(OFF_HEAP_METER_PREFIX + "entries", map, OffHeapLongMap::size)
+            .description("Resolved urls held off-heap")
+            .register(meterRegistry);
+        Gauge.builder(OFF_HEAP_METER_PREFIX + "memory", map, OffHeapLongMap::getOffHeapBytes)
+            .description("Off-heap memory allocated for resolved urls")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        FunctionCounter.builder(OFF_HEAP_METER_PREFIX + "evicted", map, OffHeapLongMap::getEvictions)
+            .description("Resolved urls evicted as the off-heap map was full")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * @return the time to live of resolved urls in the cache, whichever it is.
+     */
+    public long getTimeToLiveMillis() {
+        return timeToLiveMillis;
+    }
+
+    /**
+     * Get the cache of resolved urls: the off-heap one when enabled, otherwise the one of the cache manager.
+     *
+     * @param cacheManager the cache manager.
+     * @return the cache of resolved urls.
+     */
+    public Cache resolvedUrls(CacheManager cacheManager) {
+        return isEnabled() ? cache : Objects.requireNonNull(cacheManager.getCache(UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE));
+    }
+
+    /**
+     * The cache adapter of the map.
+     */
+    private static final class OffHeapCache extends AbstractValueAdaptingCache {
+
+        private final OffHeapLongMap map;
+
+        private final long timeToLiveMillis;
+
+        OffHeapCache(OffHeapLongMap map, long timeToLiveMillis) {
+            super(false);
+            this.map = map;
+            this.timeToLiveMillis = timeToLiveMillis;
+        }
+
+        @Override
+        public String getName() {
+            return UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE;
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return map;
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+            if (!(key instanceof Long code) || code < 0 || code == Long.MAX_VALUE) {
+                return null;
+            }
+            byte[] value = map.get(code);
+            if (value == null) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(value);
+            long expiration = buffer.getLong();
+            if (buffer.getLong() <= System.currentTimeMillis()) {
+                // At worst, this drops the entry of a concurrent put
+                map.remove(code);
+                return null;
+            }
+            String fullUrl = new String(value, 2 * Long.BYTES, value.length - 2 * Long.BYTES, StandardCharsets.UTF_8);
+            return new ResolvedUrl(
+                fullUrl,
+                expiration == NO_EXPIRATION ? null : ZonedDateTime.ofInstant(Instant.ofEpochMilli(expiration), ZoneId.systemDefault())
+            );
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized <T> T get(Object key, Callable<T> valueLoader) {
+            Object value = lookup(key);
+            if (value == null) {
+                try {
+                    value = valueLoader.call();
+                } catch (Exception e) {
+                    throw new ValueRetrievalException(key, valueLoader, e);
+                }
+                put(key, value);
+            }
+            return (T) value;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            ResolvedUrl resolvedUrl = (ResolvedUrl) value;
+            byte[] fullUrl = resolvedUrl.getFullUrl().getBytes(StandardCharsets.UTF_8);
+            ZonedDateTime expirationDateTime = resolvedUrl.getExpirationDateTime();
+            map.put(
+                (Long) key,
+                ByteBuffer.allocate(2 * Long.BYTES + fullUrl.length)
+                    .putLong(expirationDateTime == null ? NO_EXPIRATION : expirationDateTime.toInstant().toEpochMilli())
+                    .putLong(System.currentTimeMillis() + timeToLiveMillis)
+                    .put(fullUrl)
+                    .array()
+            );
+        }
+
+        @Override
+        public void evict(Object key) {
+            if (key instanceof Long code && code >= 0 && code != Long.MAX_VALUE) {
+                map.remove(code);
+            }
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+    }
+}
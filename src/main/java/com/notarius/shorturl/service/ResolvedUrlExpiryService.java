@@ -0,0 +1,109 @@
+package com.notarius.shorturl.service;
+
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.service.dto.ResolvedUrl;
+import com.notarius.shorturl.util.TimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.ZonedDateTime;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service evicting resolved urls from the {@link UrlRepository#RESOLVED_URLS_BY_SHORT_URL_CACHE} cache when they expire,
+ * rather than when the time to live of the cache ends, so expired targets do not hold cache entries.
+ * <p>
+ * Cached targets with an expiration are scheduled in a {@link TimingWheel} of {@code application.resolver.expiry-tick-millis}
+ * ticks, unless the time to live of the cache ends first. The {@link OffHeapResolvedUrlCache} does not evict entries at
+ * the end of their time to live by itself, so each of its targets is scheduled then, when it does not expire earlier.
+ * Resolver threads only enqueue them: the wheel is owned by the scheduled tick, which schedules the queued targets, then
+ * evicts the fired codes whose cached target is expired. A code cached again with a later expiration is left in the
+ * cache.
+ */
+@Service
+public class ResolvedUrlExpiryService {
+
+    public static final String EXPIRY_METER_PREFIX = "url.resolved-urls.expiry.";
+
+    private final Cache resolvedUrls;
+
+    private final long timeToLiveMillis;
+
+    private final boolean offHeap;
+
+    private final TimingWheel<Long> timingWheel;
+
+    private final Queue<Deadline> pending = new ConcurrentLinkedQueue<>();
+
+    private final Counter evictedCounter;
+
+    public ResolvedUrlExpiryService(
+        CacheManager cacheManager,
+        OffHeapResolvedUrlCache offHeapResolvedUrlCache,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.resolvedUrls = offHeapResolvedUrlCache.resolvedUrls(cacheManager);
+        this.timeToLiveMillis = offHeapResolvedUrlCache.getTimeToLiveMillis();
+        this.offHeap = offHeapResolvedUrlCache.isEnabled();
+        this.timingWheel = new TimingWheel<>(applicationProperties.getResolver().getExpiryTickMillis(), System.currentTimeMillis());
+        Gauge.builder(EXPIRY_METER_PREFIX + "scheduled", timingWheel, TimingWheel::size)
+            .description("Cached resolved urls waiting for their expiration")
+            .register(meterRegistry);
+        this.evictedCounter = Counter.builder(EXPIRY_METER_PREFIX + "evicted")
+            .description("Cached resolved urls evicted when they expired")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Evict a cached target when it expires, from any thread.
+     *
+     * @param code the code of the short url of the target, its key in the cache.
+     * @param resolvedUrl the cached target.
+     */
+    public void schedule(long code, ResolvedUrl resolvedUrl) {
+        ZonedDateTime expirationDateTime = resolvedUrl.getExpirationDateTime();
+        long now = System.currentTimeMillis();
+        long deadline = expirationDateTime == null ? Long.MAX_VALUE : expirationDateTime.toInstant().toEpochMilli();
+        if (deadline - now < timeToLiveMillis) {
+            pending.add(new Deadline(code, deadline));
+        } else if (offHeap) {
+            // Evicted by the lookup once its time to live ended
+            pending.add(new Deadline(code, now + timeToLiveMillis));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${application.resolver.expiry-tick-millis:1000}")
+    public synchronized void tick() {
+        for (Deadline deadline = pending.poll(); deadline != null; deadline = pending.poll()) {
+            timingWheel.schedule(deadline.code, deadline.millis);
+        }
+        timingWheel.advance(System.currentTimeMillis(), this::evictIfExpired);
+    }
+
+    private void evictIfExpired(Long code) {
+        ResolvedUrl cached = resolvedUrls.get(code, ResolvedUrl.class);
+        if (cached != null && cached.isExpired()) {
+            resolvedUrls.evict(code);
+            evictedCounter.increment();
+        }
+    }
+
+    private static class Deadline {
+
+        private final long code;
+
+        private final long millis;
+
+        Deadline(long code, long millis) {
+            this.code = code;
+            this.millis = millis;
+        }
+    }
+}
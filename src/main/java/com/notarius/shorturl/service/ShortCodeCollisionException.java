@@ -0,0 +1,10 @@
+package com.notarius.shorturl.service;
+
+public class ShortCodeCollisionException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ShortCodeCollisionException(int probes) {
+        super("No free short code found after " + probes + " probes!");
+    }
+}
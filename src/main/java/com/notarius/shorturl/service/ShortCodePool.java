@@ -0,0 +1,124 @@
+package com.notarius.shorturl.service;
+
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Pool of pre-allocated short urls.
+ * <p>
+ * Every node reserves blocks of sequence numbers from the database, turns them into codes and keeps them in a
+ * lock-free queue, so handing out a code is a queue poll. Codes that happen to be already used (e.g. by a hashed
+ * code) are dropped when the block is loaded. The pool is refilled on the task executor when it runs low.
+ */
+@Service
+public class ShortCodePool {
+
+    private static final Logger log = LoggerFactory.getLogger(ShortCodePool.class);
+
+    private static final int EXISTENCE_CHECK_BATCH_SIZE = 1000;
+
+    private final UrlRepository urlRepository;
+
+    private final ShortCodeGenerator shortCodeGenerator;
+
+    private final Executor taskExecutor;
+
+    private final int blockSize;
+
+    private final int refillThreshold;
+
+    private final Queue<String> shortUrls = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger available = new AtomicInteger();
+
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    public ShortCodePool(
+        UrlRepository urlRepository,
+        ShortCodeGenerator shortCodeGenerator,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        ApplicationProperties applicationProperties
+    ) {
+        this.urlRepository = urlRepository;
+        this.shortCodeGenerator = shortCodeGenerator;
+        this.taskExecutor = taskExecutor;
+        this.blockSize = applicationProperties.getShortCode().getKeyPool().getBlockSize();
+        this.refillThreshold = applicationProperties.getShortCode().getKeyPool().getRefillThreshold();
+    }
+
+    /**
+     * Take a free short url from the pool. Only blocks, to load a block on the caller thread, if the pool is empty.
+     *
+     * @return a short url no other url uses.
+     */
+    public String poll() {
+        String shortUrl = shortUrls.poll();
+        while (shortUrl == null) {
+            log.debug("Short code pool is empty, loading a block synchronously");
+            loadBlock();
+            shortUrl = shortUrls.poll();
+        }
+        if (available.decrementAndGet() < refillThreshold && refilling.compareAndSet(false, true)) {
+            taskExecutor.execute(this::refill);
+        }
+        return shortUrl;
+    }
+
+    /**
+     * Number of short urls currently in the pool.
+     *
+     * @return the number of available short urls.
+     */
+    public int available() {
+        return Math.max(available.get(), 0);
+    }
+
+    private void refill() {
+        try {
+            loadBlock();
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    private void loadBlock() {
+        long block = urlRepository.nextShortCodeBlock();
+        log.debug("Loading short code block {}", block);
+        List<String> candidates = new ArrayList<>(EXISTENCE_CHECK_BATCH_SIZE);
+        for (long sequence = block * blockSize; sequence < (block + 1) * blockSize; sequence++) {
+            candidates.add(shortCodeGenerator.generate(sequence % shortCodeGenerator.getSequenceSpace()));
+            if (candidates.size() == EXISTENCE_CHECK_BATCH_SIZE) {
+                offerFree(candidates);
+                candidates.clear();
+            }
+        }
+        offerFree(candidates);
+    }
+
+    private void offerFree(List<String> candidates) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Set<String> existing = new HashSet<>(urlRepository.findExistingShortUrls(candidates));
+        for (String candidate : candidates) {
+            if (!existing.contains(candidate)) {
+                shortUrls.offer(candidate);
+                available.incrementAndGet();
+            }
+        }
+    }
+}
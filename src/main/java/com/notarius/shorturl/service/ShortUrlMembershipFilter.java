@@ -0,0 +1,212 @@
+package com.notarius.shorturl.service;
+
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service telling which short urls definitely do not exist, so lookups of unknown codes never reach the database.
+ * <p>
+ * It holds a {@link BloomFilter} of every short url, built from a streaming scan of the url table when the application
+ * starts, and kept up to date through {@link UrlChangedEvent}s, when they are flushed and once more after commit, as the
+ * scan of a rebuild may not see them. Until the first build completes, every short url is reported as possibly existing.
+ * Bloom filters cannot forget, so deleted short urls stay in the filter: the filter is rebuilt in the background once
+ * deletions or insertions make it too inaccurate.
+ * <p>
+ * Urls created on other nodes only reach the filter when it is rebuilt, which it also is every
+ * {@code application.bloom-filter.rebuild-interval-seconds}: they are rejected by this node for at most that long plus
+ * the duration of a scan. Only redirects rely on the filter; {@link UrlResolverService#mightExist(String)} does not.
+ */
+@Service
+public class ShortUrlMembershipFilter {
+
+    public static final String BLOOM_FILTER_METER_PREFIX = "url.bloom-filter.";
+
+    private static final Logger log = LoggerFactory.getLogger(ShortUrlMembershipFilter.class);
+
+    private final UrlRepository urlRepository;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final Executor taskExecutor;
+
+    private final boolean enabled;
+
+    private final double falsePositiveRate;
+
+    private final long minExpectedInsertions;
+
+    private final Counter rejectionCounter;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final AtomicLong deletions = new AtomicLong();
+
+    private volatile BloomFilter filter;
+
+    private volatile BloomFilter nextFilter;
+
+    public ShortUrlMembershipFilter(
+        UrlRepository urlRepository,
+        PlatformTransactionManager transactionManager,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.urlRepository = urlRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.taskExecutor = taskExecutor;
+        ApplicationProperties.BloomFilter properties = applicationProperties.getBloomFilter();
+        this.enabled = properties.isEnabled();
+        this.falsePositiveRate = properties.getFalsePositiveRate();
+        this.minExpectedInsertions = properties.getMinExpectedInsertions();
+        this.rejectionCounter = Counter.builder(BLOOM_FILTER_METER_PREFIX + "rejections")
+            .description("Short url lookups answered as not found without querying the database")
+            .register(meterRegistry);
+        Gauge.builder(BLOOM_FILTER_METER_PREFIX + "size", this, service -> service.filter == null ? 0 : service.filter.getBitSize() / 8)
+            .description("Memory used by the short url Bloom filter")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder(
+            BLOOM_FILTER_METER_PREFIX + "false-positive-rate",
+            this,
+            service -> service.filter == null ? 1 : service.filter.getFalsePositiveRate()
+        )
+            .description("Estimated false positive rate of the short url Bloom filter")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild();
+    }
+
+    /**
+     * Check whether a short url might exist, counting a rejection when it definitely does not.
+     *
+     * @param shortUrl the short url to check.
+     * @return {@code false} if the short url definitely does not exist, {@code true} if it might.
+     */
+    public boolean mightExist(String shortUrl) {
+        BloomFilter current = filter;
+        if (current == null || current.mightContain(shortUrl)) {
+            return true;
+        }
+        rejectionCounter.increment();
+        return false;
+    }
+
+    @Scheduled(
+        fixedDelayString = "${application.bloom-filter.rebuild-interval-seconds:60}",
+        initialDelayString = "${application.bloom-filter.rebuild-interval-seconds:60}",
+        timeUnit = TimeUnit.SECONDS
+    )
+    public void refresh() {
+        scheduleRebuild();
+    }
+
+    @EventListener
+    public void onUrlChanged(UrlChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        String shortUrl = event.getUrl().getShortUrl();
+        switch (event.getType()) {
+            case CREATED -> putAndPutAfterCommit(shortUrl);
+            case UPDATED -> {
+                putAndPutAfterCommit(shortUrl);
+                if (!Objects.equals(shortUrl, event.getPreviousShortUrl())) {
+                    deletions.incrementAndGet();
+                }
+            }
+            case DELETED -> deletions.incrementAndGet();
+        }
+        BloomFilter current = filter;
+        if (
+            current != null &&
+            (current.getInsertions() > current.getExpectedInsertions() || deletions.get() > current.getExpectedInsertions() / 10)
+        ) {
+            scheduleRebuild();
+        }
+    }
+
+    private void putAndPutAfterCommit(String shortUrl) {
+        put(shortUrl);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        put(shortUrl);
+                    }
+                }
+            );
+        }
+    }
+
+    private void put(String shortUrl) {
+        if (shortUrl == null) {
+            return;
+        }
+        // The next filter is read first, as it replaces the current one once the rebuild completes
+        BloomFilter next = nextFilter;
+        if (next != null) {
+            next.put(shortUrl);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(shortUrl);
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (enabled && rebuilding.compareAndSet(false, true)) {
+            taskExecutor.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        try {
+            long count = urlRepository.count();
+            BloomFilter next = new BloomFilter(Math.max(minExpectedInsertions, count * 2), falsePositiveRate);
+            // Urls committed from now on are added by onUrlChanged, as the scan may not see them
+            nextFilter = next;
+            long deletionsBeforeScan = deletions.get();
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> shortUrls = urlRepository.streamAllShortUrls()) {
+                    shortUrls.forEach(next::put);
+                }
+            });
+            filter = next;
+            nextFilter = null;
+            deletions.addAndGet(-deletionsBeforeScan);
+            log.debug("Built short url Bloom filter of {} urls, {} bytes", next.getInsertions(), next.getBitSize() / 8);
+        } catch (RuntimeException e) {
+            nextFilter = null;
+            log.warn("Could not build short url Bloom filter", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.notarius.shorturl.service;
+
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.service.dto.ResolvedUrl;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import com.notarius.shorturl.util.ShortUrlSnapshot;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service serving redirect targets from a memory-mapped {@link ShortUrlSnapshot} of the url table, so a node can answer
+ * almost every redirect without the database or the heap caches, including right after a restart.
+ * <p>
+ * The snapshot file is rewritten from a streaming scan of the url table every
+ * {@code application.snapshot.refresh-interval-seconds}, and reloaded at startup unless it is older than that, in which
+ * case it is only served once rebuilt. Urls written on this node since the scan are overlaid from an in-memory delta,
+ * kept up to date through committed {@link UrlChangedEvent}s. Deleted and {@link #invalidate(String) invalidated} short
+ * urls are not served from the snapshot, and left to the regular lookup. Changes made on other nodes are only seen at the
+ * next refresh, so they are served stale for at most the refresh interval plus the duration of a scan.
+ */
+@Service
+public class ShortUrlSnapshotService {
+
+    public static final String SNAPSHOT_METER_PREFIX = "url.snapshot.";
+
+    private static final Logger log = LoggerFactory.getLogger(ShortUrlSnapshotService.class);
+
+    private static final ResolvedUrl DELETED = new ResolvedUrl(null, null);
+
+    private final UrlRepository urlRepository;
+
+    private final ShortCodeGenerator shortCodeGenerator;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final Executor taskExecutor;
+
+    private final boolean enabled;
+
+    private final Path file;
+
+    private final Duration refreshInterval;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile ShortUrlSnapshot snapshot;
+
+    private volatile Map<Long, ResolvedUrl> delta = new ConcurrentHashMap<>();
+
+    private volatile Map<Long, ResolvedUrl> nextDelta;
+
+    public ShortUrlSnapshotService(
+        UrlRepository urlRepository,
+        ShortCodeGenerator shortCodeGenerator,
+        PlatformTransactionManager transactionManager,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.urlRepository = urlRepository;
+        this.shortCodeGenerator = shortCodeGenerator;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.taskExecutor = taskExecutor;
+        this.enabled = applicationProperties.getSnapshot().isEnabled();
+        this.file = Paths.get(applicationProperties.getSnapshot().getFile());
+        this.refreshInterval = Duration.ofSeconds(applicationProperties.getSnapshot().getRefreshIntervalSeconds());
+        Gauge.builder(SNAPSHOT_METER_PREFIX + "entries", this, service -> service.snapshot == null ? 0 : service.snapshot.size())
+            .description("Short urls in the memory-mapped snapshot")
+            .register(meterRegistry);
+        Gauge.builder(SNAPSHOT_METER_PREFIX + "size", this, service -> service.snapshot == null ? 0 : service.snapshot.getByteSize())
+            .description("Size of the memory-mapped snapshot")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder(SNAPSHOT_METER_PREFIX + "delta.entries", this, service -> service.delta.size())
+            .description("Short urls written since the snapshot")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        if (Files.exists(file)) {
+            try {
+                Instant writtenAt = Files.getLastModifiedTime(file).toInstant();
+                // Changes made since are not in the delta, only a recent snapshot is served before it is rebuilt
+                if (writtenAt.plus(refreshInterval).isAfter(Instant.now())) {
+                    snapshot = ShortUrlSnapshot.open(file);
+                    log.debug("Loaded short url snapshot of {} urls from {}", snapshot.size(), file);
+                    return;
+                }
+                log.debug("Short url snapshot {} was written at {}, rebuilding it", file, writtenAt);
+            } catch (IOException e) {
+                log.warn("Could not load short url snapshot from {}, rebuilding it", file, e);
+            }
+        }
+        scheduleRebuild();
+    }
+
+    @Scheduled(
+        fixedDelayString = "${application.snapshot.refresh-interval-seconds:300}",
+        initialDelayString = "${application.snapshot.refresh-interval-seconds:300}",
+        timeUnit = TimeUnit.SECONDS
+    )
+    public void refresh() {
+        scheduleRebuild();
+    }
+
+    /**
+     * Look up a short url in the delta, then in the snapshot.
+     *
+     * @param code the code of the short url to resolve, see {@link ShortCodeGenerator#toCode(String)}.
+     * @return the resolved target, or empty if the short url is not served by the snapshot and must be looked up.
+     */
+    public Optional<ResolvedUrl> resolve(long code) {
+        ResolvedUrl written = delta.get(code);
+        if (written != null) {
+            return written == DELETED ? Optional.empty() : Optional.of(written);
+        }
+        ShortUrlSnapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.get(code)).map(entry -> new ResolvedUrl(entry.getFullUrl(), entry.getExpirationDateTime()));
+    }
+
+    /**
+     * Stop serving a short url from the snapshot until the next refresh, for changes made without {@link UrlChangedEvent}s.
+     *
+     * @param shortUrl the short url to leave to the regular lookup.
+     */
+    public void invalidate(String shortUrl) {
+        if (enabled) {
+            put(shortUrl, DELETED);
+        }
+    }
+
+    @EventListener
+    public void onUrlChanged(UrlChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        String shortUrl = event.getUrl().getShortUrl();
+        String previousShortUrl = event.getPreviousShortUrl();
+        ResolvedUrl resolvedUrl = event.getUrl().getFullUrl() == null ? DELETED : new ResolvedUrl(event.getUrl());
+        Runnable write =
+            switch (event.getType()) {
+                case CREATED -> () -> put(shortUrl, resolvedUrl);
+                case UPDATED -> () -> {
+                    if (!Objects.equals(shortUrl, previousShortUrl)) {
+                        put(previousShortUrl, DELETED);
+                    }
+                    put(shortUrl, resolvedUrl);
+                };
+                case DELETED -> () -> put(shortUrl, DELETED);
+            };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        write.run();
+                    }
+                }
+            );
+        } else {
+            write.run();
+        }
+    }
+
+    private void put(String shortUrl, ResolvedUrl resolvedUrl) {
+        long code = shortCodeGenerator.toCode(shortUrl);
+        if (code < 0) {
+            return;
+        }
+        // The next delta is read first, as it replaces the current one once the rebuild completes
+        Map<Long, ResolvedUrl> next = nextDelta;
+        if (next != null) {
+            next.put(code, resolvedUrl);
+        }
+        delta.put(code, resolvedUrl);
+    }
+
+    private void scheduleRebuild() {
+        if (enabled && rebuilding.compareAndSet(false, true)) {
+            taskExecutor.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        try {
+            // Urls written during the scan are overlaid by onUrlChanged, as the scan may not see them
+            nextDelta = new ConcurrentHashMap<>();
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                    try (
+                        ShortUrlSnapshot.Writer writer = ShortUrlSnapshot.writer(temporaryFile);
+                        Stream<UrlRepository.ShortUrlTarget> targets = urlRepository.streamAllShortUrlTargetsOrderByCode()
+                    ) {
+                        for (UrlRepository.ShortUrlTarget target : (Iterable<UrlRepository.ShortUrlTarget>) targets::iterator) {
+                            writer.add(target.getCode(), target.getFullUrl(), target.getExpirationDateTime());
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                // Lookups still reading the previous file keep their mapping of it
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+            snapshot = ShortUrlSnapshot.open(file);
+            delta = nextDelta;
+            log.debug("Built short url snapshot of {} urls, {} bytes", snapshot.size(), snapshot.getByteSize());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not build short url snapshot", e);
+        } finally {
+            nextDelta = null;
+            rebuilding.set(false);
+        }
+    }
+}
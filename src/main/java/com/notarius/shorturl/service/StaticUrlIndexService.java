@@ -0,0 +1,255 @@
+package com.notarius.shorturl.service;
+
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.service.dto.ResolvedUrl;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import com.notarius.shorturl.util.StaticUrlIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service serving redirect targets from a {@link StaticUrlIndex} of every url not expired at build time, a tier between
+ * the resolved url cache and the database holding each url in a few bytes more than its target.
+ * <p>
+ * The index is built at startup, on the {@code application.static-index.cron} schedule and on demand. Urls are mostly
+ * immutable once created: short urls updated or deleted on this node since the build are no longer served from the index,
+ * and urls created since then are left to the regular lookup, until the next build.
+ * <p>
+ * Changes made on other nodes are not seen until the next build, so the index is only served for
+ * {@code application.static-index.max-age-seconds} after the scan of its build started, and rebuilt once half that age
+ * is reached: a url updated or deleted on another node is served stale from this node for at most that long.
+ * <p>
+ * Its memory per short url is reported next to an estimate of what the same urls use in the resolved url cache.
+ */
+@Service
+public class StaticUrlIndexService {
+
+    public static final String STATIC_INDEX_METER_PREFIX = "url.static-index.";
+
+    private static final Logger log = LoggerFactory.getLogger(StaticUrlIndexService.class);
+
+    private final UrlRepository urlRepository;
+
+    private final ShortCodeGenerator shortCodeGenerator;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final Executor taskExecutor;
+
+    private final boolean enabled;
+
+    private final long maxAgeNanos;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /** {@link System#nanoTime()} after which the index is rebuilt, and after which it is no longer served. */
+    private volatile long refreshAtNanos;
+
+    private volatile long staleAtNanos;
+
+    private volatile StaticUrlIndex index;
+
+    private volatile double cacheBytesPerKey;
+
+    private volatile Set<Long> changedCodes = ConcurrentHashMap.newKeySet();
+
+    private volatile Set<Long> nextChangedCodes;
+
+    public StaticUrlIndexService(
+        UrlRepository urlRepository,
+        ShortCodeGenerator shortCodeGenerator,
+        PlatformTransactionManager transactionManager,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.urlRepository = urlRepository;
+        this.shortCodeGenerator = shortCodeGenerator;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.taskExecutor = taskExecutor;
+        this.enabled = applicationProperties.getStaticIndex().isEnabled();
+        this.maxAgeNanos = TimeUnit.SECONDS.toNanos(applicationProperties.getStaticIndex().getMaxAgeSeconds());
+        Gauge.builder(STATIC_INDEX_METER_PREFIX + "entries", this, service -> service.index == null ? 0 : service.index.size())
+            .description("Short urls in the static index")
+            .register(meterRegistry);
+        Gauge.builder(
+            STATIC_INDEX_METER_PREFIX + "hash.bits-per-key",
+            this,
+            service -> service.index == null ? 0 : service.index.getHashBitsPerKey()
+        )
+            .description("Memory used by the minimal perfect hash of the static index, per short url")
+            .baseUnit("bits")
+            .register(meterRegistry);
+        Gauge.builder(STATIC_INDEX_METER_PREFIX + "bytes-per-key", this, service -> service.index == null ? 0 : service.index.getBytesPerKey())
+            .description("Memory used by the static index, per short url")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder(STATIC_INDEX_METER_PREFIX + "cache.bytes-per-key", this, service -> service.cacheBytesPerKey)
+            .description("Estimated heap used by the same short urls in the resolved url cache, per short url")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild();
+    }
+
+    @Scheduled(cron = "${application.static-index.cron:0 0 4 * * ?}")
+    public void refresh() {
+        scheduleRebuild();
+    }
+
+    /**
+     * Look up a short url in the index.
+     *
+     * @param code the code of the short url to resolve, see {@link ShortCodeGenerator#toCode(String)}.
+     * @return the resolved target, or empty if the short url is not served by the index and must be looked up.
+     */
+    public Optional<ResolvedUrl> resolve(long code) {
+        StaticUrlIndex current = index;
+        if (current == null || changedCodes.contains(code)) {
+            return Optional.empty();
+        }
+        long now = System.nanoTime();
+        boolean stale = now - staleAtNanos >= 0;
+        if (now - refreshAtNanos >= 0) {
+            refreshAtNanos = now + maxAgeNanos / 2;
+            scheduleRebuild();
+        }
+        if (stale) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.get(code)).map(entry -> new ResolvedUrl(entry.getFullUrl(), entry.getExpirationDateTime()));
+    }
+
+    /**
+     * Start building the index in the background, unless a build is already running.
+     *
+     * @return {@code true} if a build was started.
+     */
+    public boolean scheduleRebuild() {
+        if (enabled && rebuilding.compareAndSet(false, true)) {
+            taskExecutor.execute(this::rebuild);
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the current index, or {@code null} until the first build completes.
+     */
+    public StaticUrlIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the estimated heap used per short url of the index when held by the resolved url cache instead.
+     */
+    public double getCacheBytesPerKey() {
+        return cacheBytesPerKey;
+    }
+
+    @EventListener
+    public void onUrlChanged(UrlChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        switch (event.getType()) {
+            case CREATED -> {}
+            case UPDATED -> {
+                markChanged(event.getPreviousShortUrl());
+                markChanged(event.getUrl().getShortUrl());
+            }
+            case DELETED -> markChanged(event.getUrl().getShortUrl());
+        }
+    }
+
+    private void markChanged(String shortUrl) {
+        long code = shortCodeGenerator.toCode(shortUrl);
+        if (code < 0) {
+            return;
+        }
+        // The next set is written first, as it replaces the current one once the rebuild completes
+        Set<Long> next = nextChangedCodes;
+        if (next != null) {
+            next.add(code);
+        }
+        changedCodes.add(code);
+    }
+
+    private void rebuild() {
+        try {
+            // Urls changed during the scan are excluded by onUrlChanged, as the scan may not see the change
+            nextChangedCodes = ConcurrentHashMap.newKeySet();
+            long scanStartNanos = System.nanoTime();
+            StaticUrlIndex.Builder builder = StaticUrlIndex.builder();
+            long[] cacheBytes = new long[1];
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                try (Stream<UrlRepository.ShortUrlTarget> targets = urlRepository.streamShortUrlTargetsNotExpiredAt(ZonedDateTime.now())) {
+                    targets.forEach(target -> {
+                        builder.add(target.getCode(), target.getFullUrl(), target.getExpirationDateTime());
+                        cacheBytes[0] += estimateCacheBytes(target);
+                    });
+                }
+            });
+            StaticUrlIndex next = builder.build();
+            staleAtNanos = scanStartNanos + maxAgeNanos;
+            refreshAtNanos = scanStartNanos + maxAgeNanos / 2;
+            index = next;
+            cacheBytesPerKey = next.size() == 0 ? 0 : (double) cacheBytes[0] / next.size();
+            changedCodes = nextChangedCodes;
+            log.info(
+                "Built static url index of {} urls: {} bits per url for the hash, {} bytes per url in total, against about {} in the cache",
+                next.size(),
+                String.format("%.2f", next.getHashBitsPerKey()),
+                String.format("%.1f", next.getBytesPerKey()),
+                String.format("%.0f", cacheBytesPerKey)
+            );
+        } catch (RuntimeException e) {
+            log.warn("Could not build static url index", e);
+        } finally {
+            nextChangedCodes = null;
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Estimate the heap used by a resolved url cache entry on a 64-bit JVM with compressed pointers: the {@code Long}
+     * key, the target string, the {@link ResolvedUrl}, its expiration if any, and about 80 bytes of cache and map entry.
+     */
+    private static long estimateCacheBytes(UrlRepository.ShortUrlTarget target) {
+        long bytes = 16 + 24 + stringBytes(target.getFullUrl()) + 80;
+        if (target.getExpirationDateTime() != null) {
+            bytes += 96;
+        }
+        return bytes;
+    }
+
+    private static long stringBytes(String value) {
+        return 24 + ((16 + value.length() + 7) & ~7);
+    }
+}
@@ -0,0 +1,57 @@
+package com.notarius.shorturl.service;
+
+import com.notarius.shorturl.domain.Url;
+
+/**
+ * Application event published whenever a {@link Url} row is inserted, updated or deleted through JPA, so in-memory
+ * views of the url table can follow every write path.
+ * <p>
+ * It is published synchronously, while the persistence context is flushed.
+ */
+public class UrlChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+    }
+
+    private final Type type;
+
+    private final Url url;
+
+    private final String previousShortUrl;
+
+    public UrlChangedEvent(Type type, Url url, String previousShortUrl) {
+        this.type = type;
+        this.url = url;
+        this.previousShortUrl = previousShortUrl;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Url getUrl() {
+        return url;
+    }
+
+    /**
+     * The short url before the change: the same as the current one, except for updates changing it.
+     *
+     * @return the previous short url.
+     */
+    public String getPreviousShortUrl() {
+        return previousShortUrl;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UrlChangedEvent{" +
+            "type=" + type +
+            ", url=" + url +
+            ", previousShortUrl='" + previousShortUrl + "'" +
+            "}";
+    }
+}
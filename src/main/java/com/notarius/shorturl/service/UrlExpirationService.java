@@ -0,0 +1,95 @@
+package com.notarius.shorturl.service;
+
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.repository.UrlRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service deleting expired urls.
+ * <p>
+ * Expired urls are read in expiration order through the {@code idx_url__expiration_date_time} index, and deleted with a
+ * single statement per batch of {@code application.expiration.batch-size} urls, each batch in its own transaction, so
+ * locks are held briefly and an interrupted sweep keeps what it deleted. Their clicks and stats go with them. A
+ * {@link UrlChangedEvent} is published for each deleted url, which evicts it from the caches and counts it as a deletion
+ * of the membership filter, as when it is deleted through JPA.
+ */
+@Service
+public class UrlExpirationService {
+
+    public static final String EXPIRATION_METER_PREFIX = "url.expiration.";
+
+    private static final Logger log = LoggerFactory.getLogger(UrlExpirationService.class);
+
+    private final UrlRepository urlRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final Counter deletedCounter;
+
+    public UrlExpirationService(
+        UrlRepository urlRepository,
+        ApplicationEventPublisher eventPublisher,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.urlRepository = urlRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = applicationProperties.getExpiration().getBatchSize();
+        this.deletedCounter = Counter.builder(EXPIRATION_METER_PREFIX + "deleted")
+            .description("Expired urls deleted by the sweeper")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Expired urls should be automatically deleted.
+     * <p>
+     * This is scheduled to get fired everyday, at 01:00 (am), unless {@code application.expiration.cron} says otherwise.
+     */
+    @Scheduled(cron = "${application.expiration.cron:0 0 1 * * ?}")
+    public void removeExpiredUrls() {
+        ZonedDateTime now = ZonedDateTime.now();
+        long deleted = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> removeExpiredUrls(now));
+            deleted += batch;
+        } while (batch == batchSize);
+        if (deleted > 0) {
+            log.info("Deleted {} urls expired before {}", deleted, now);
+        }
+    }
+
+    private int removeExpiredUrls(ZonedDateTime now) {
+        List<UrlRepository.ExpiredUrl> expiredUrls = urlRepository.findAllExpiredBefore(now, Limit.of(batchSize));
+        if (expiredUrls.isEmpty()) {
+            return 0;
+        }
+        log.debug("Deleting {} expired urls", expiredUrls.size());
+        urlRepository.deleteAllByIdIn(expiredUrls.stream().map(UrlRepository.ExpiredUrl::getId).toList());
+        expiredUrls.forEach(expiredUrl ->
+            eventPublisher.publishEvent(
+                new UrlChangedEvent(UrlChangedEvent.Type.DELETED, new Url().id(expiredUrl.getId()).shortUrl(expiredUrl.getShortUrl()), expiredUrl.getShortUrl())
+            )
+        );
+        deletedCounter.increment(expiredUrls.size());
+        return expiredUrls.size();
+    }
+}
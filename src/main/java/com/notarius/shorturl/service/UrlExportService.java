@@ -0,0 +1,89 @@
+package com.notarius.shorturl.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.repository.UrlRepository;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service exporting every url as NDJSON, one JSON object per line, in bounded memory.
+ * <p>
+ * Urls are read through a database cursor of {@code hibernate.fetchSize} rows, as read-only entities bypassing the
+ * second-level cache, and each one is detached once written, so neither the persistence context nor the cache grows with
+ * the table.
+ */
+@Service
+public class UrlExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UrlExportService.class);
+
+    private final UrlRepository urlRepository;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter urlWriter;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public UrlExportService(
+        UrlRepository urlRepository,
+        EntityManager entityManager,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.urlRepository = urlRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.urlWriter = objectMapper.writerFor(Url.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Write every url, ordered by id, to a stream left open.
+     *
+     * @param output the stream to write to.
+     * @return the number of exported urls.
+     * @throws IOException if the urls cannot be written.
+     */
+    public long exportUrls(OutputStream output) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            long count = readOnlyTransactionTemplate.execute(status -> {
+                long exported = 0;
+                try (Stream<Url> urls = urlRepository.streamAll()) {
+                    for (Iterator<Url> iterator = urls.iterator(); iterator.hasNext();) {
+                        Url url = iterator.next();
+                        urlWriter.writeValue(generator, url);
+                        generator.writeRaw('\n');
+                        entityManager.detach(url);
+                        exported++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return exported;
+            });
+            log.debug("Exported {} urls", count);
+            return count;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.notarius.shorturl.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.domain.UrlImport;
+import com.notarius.shorturl.repository.UrlBulkRepository;
+import com.notarius.shorturl.repository.UrlImportRepository;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service importing large numbers of urls from a stream, in bounded memory.
+ * <p>
+ * Rows are read incrementally, either as CSV ({@code full_url[,expiration_date_time]}, with an optional header) or as
+ * NDJSON ({@code {"fullUrl": ..., "expirationDateTime": ...}}), and imported in batches of
+ * {@code application.url-import.batch-size} rows. Each batch gets its short urls from
+ * {@link UrlShortenerService#assignShortUrls}, and its new urls are written by the {@link UrlBulkRepository}, bypassing
+ * the persistence context. The {@link UrlImport} checkpoint is saved in the same transaction, so an interrupted import
+ * resumes after its last imported batch when the same input is sent again under the same name. Rows without a valid full
+ * url or expiration are counted as rejected.
+ */
+@Service
+public class UrlImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UrlImportService.class);
+
+    public enum Format {
+        CSV,
+        NDJSON,
+    }
+
+    private final UrlImportRepository urlImportRepository;
+
+    private final UrlBulkRepository urlBulkRepository;
+
+    private final UrlShortenerService urlShortenerService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    public UrlImportService(
+        UrlImportRepository urlImportRepository,
+        UrlBulkRepository urlBulkRepository,
+        UrlShortenerService urlShortenerService,
+        ApplicationEventPublisher eventPublisher,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.urlImportRepository = urlImportRepository;
+        this.urlBulkRepository = urlBulkRepository;
+        this.urlShortenerService = urlShortenerService;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = applicationProperties.getUrlImport().getBatchSize();
+    }
+
+    /**
+     * Import urls, or resume their import.
+     *
+     * @param name the name of the import, under which its progress is saved.
+     * @param input the rows to import.
+     * @param format the format of the rows.
+     * @return the progress of the import, completed.
+     * @throws IOException if the input cannot be read.
+     */
+    public UrlImport importUrls(String name, InputStream input, Format format) throws IOException {
+        UrlImport urlImport = urlImportRepository.findById(name).orElseGet(() -> new UrlImport().name(name));
+        if (urlImport.isCompleted()) {
+            log.debug("Url import {} is already completed", name);
+            return urlImport;
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        RowReader rows = format == Format.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+        for (long skipped = 0; skipped < urlImport.getRowsRead() && rows.next() != null; skipped++) {
+            // Already imported
+        }
+        if (urlImport.getRowsRead() > 0) {
+            log.info("Resuming url import {} after {} rows", name, urlImport.getRowsRead());
+        }
+        List<Url> batch = new ArrayList<>(batchSize);
+        Url row;
+        do {
+            row = rows.next();
+            if (row != null) {
+                batch.add(row);
+            }
+            if (batch.size() == batchSize || (row == null && !batch.isEmpty())) {
+                UrlImport progress = urlImport;
+                urlImport = transactionTemplate.execute(status -> importBatch(progress, batch));
+                log.info(
+                    "Url import {}: {} rows read, {} created, {} existing, {} rejected",
+                    name,
+                    urlImport.getRowsRead(),
+                    urlImport.getCreatedCount(),
+                    urlImport.getExistingCount(),
+                    urlImport.getRejectedCount()
+                );
+                batch.clear();
+            }
+        } while (row != null);
+        urlImport.setCompleted(true);
+        urlImport.setLastModifiedDateTime(ZonedDateTime.now());
+        return urlImportRepository.save(urlImport);
+    }
+
+    private UrlImport importBatch(UrlImport urlImport, List<Url> batch) {
+        Map<String, ZonedDateTime> expirationDateTimes = new HashMap<>();
+        List<String> fullUrls = new ArrayList<>(batch.size());
+        for (Url row : batch) {
+            if (row.getFullUrl() != null) {
+                fullUrls.add(row.getFullUrl());
+                expirationDateTimes.putIfAbsent(row.getFullUrl(), row.getExpirationDateTime());
+            }
+        }
+        List<Url> newUrls = urlShortenerService
+            .assignShortUrls(fullUrls)
+            .values()
+            .stream()
+            .filter(url -> url.getId() == null)
+            .toList();
+        newUrls.forEach(url -> url.setExpirationDateTime(expirationDateTimes.get(url.getFullUrl())));
+        urlBulkRepository.insertAll(newUrls);
+        urlShortenerService.countCreated(newUrls.size());
+        // The caches and the membership filter learn about the new urls as if they were created through JPA
+        newUrls.forEach(url -> eventPublisher.publishEvent(new UrlChangedEvent(UrlChangedEvent.Type.CREATED, url, null)));
+        urlImport.setRowsRead(urlImport.getRowsRead() + batch.size());
+        urlImport.setCreatedCount(urlImport.getCreatedCount() + newUrls.size());
+        urlImport.setExistingCount(urlImport.getExistingCount() + fullUrls.size() - newUrls.size());
+        urlImport.setRejectedCount(urlImport.getRejectedCount() + batch.size() - fullUrls.size());
+        urlImport.setLastModifiedDateTime(ZonedDateTime.now());
+        return urlImportRepository.save(urlImport);
+    }
+
+    /**
+     * Get the url to import from a row, or a url without full url when the row is rejected.
+     */
+    private static Url toUrl(String fullUrl, String expirationDateTime) {
+        if (fullUrl == null || fullUrl.isBlank()) {
+            return new Url();
+        }
+        try {
+            return new Url()
+                .fullUrl(fullUrl.strip())
+                .expirationDateTime(
+                    expirationDateTime == null || expirationDateTime.isBlank() ? null : ZonedDateTime.parse(expirationDateTime.strip())
+                );
+        } catch (DateTimeParseException e) {
+            return new Url();
+        }
+    }
+
+    /**
+     * Reader of the rows of an import.
+     */
+    private interface RowReader {
+        /**
+         * @return the url of the next row, without full url if the row is rejected, or {@code null} at the end of the input.
+         */
+        Url next() throws IOException;
+    }
+
+    /**
+     * Reader of CSV rows: full url, then optional expiration, each field optionally quoted. Quoted fields cannot span
+     * lines.
+     */
+    private static class CsvRowReader implements RowReader {
+
+        private final BufferedReader reader;
+
+        private boolean firstLine = true;
+
+        CsvRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Url next() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            List<String> fields = parse(line);
+            if (firstLine) {
+                firstLine = false;
+                if (fields.get(0).equalsIgnoreCase("full_url") || fields.get(0).equalsIgnoreCase("fullUrl")) {
+                    return next();
+                }
+            }
+            return toUrl(fields.get(0), fields.size() > 1 ? fields.get(1) : null);
+        }
+
+        private static List<String> parse(String line) {
+            List<String> fields = new ArrayList<>(2);
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    /**
+     * Reader of NDJSON rows, one JSON object per line.
+     */
+    private class NdjsonRowReader implements RowReader {
+
+        private final BufferedReader reader;
+
+        NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Url next() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            try {
+                JsonNode row = objectMapper.readTree(line);
+                JsonNode fullUrl = row.path("fullUrl");
+                JsonNode expirationDateTime = row.path("expirationDateTime");
+                return toUrl(fullUrl.isTextual() ? fullUrl.asText() : null, expirationDateTime.isTextual() ? expirationDateTime.asText() : null);
+            } catch (JsonProcessingException e) {
+                return new Url();
+            }
+        }
+    }
+}
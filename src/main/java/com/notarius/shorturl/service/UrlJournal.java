@@ -0,0 +1,273 @@
+package com.notarius.shorturl.service;
+
+import com.notarius.shorturl.domain.Url;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * A write-ahead journal of new {@link Url}s, made of segment files forced to the storage device before an append
+ * returns.
+ * <p>
+ * A segment is named {@code urls-<number>.journal}, numbers growing with each segment, and holds records made of the
+ * length and CRC-32 of their content, then the content: id, creation and expiration times as epoch milliseconds
+ * ({@code Long.MIN_VALUE} for none), and the UTF-8 short url and full url, each preceded by its length. Reading a
+ * segment stops at its first incomplete or corrupt record: the tail of an append interrupted by a crash, which was never
+ * acknowledged.
+ * <p>
+ * Appends are thread-safe, and concurrent appends share a single force of the segment. {@link #roll()} starts a new
+ * segment and returns the previous one, to be deleted once its urls are stored elsewhere. A new segment is also started
+ * when the journal is opened again, leaving the existing ones to be replayed with {@link #read(Path, Consumer)}.
+ */
+public class UrlJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "urls-";
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private static final long NO_DATE_TIME = Long.MIN_VALUE;
+
+    private final Path directory;
+
+    /** Held to force the current segment, before {@link #writeLock}. */
+    private final Object forceLock = new Object();
+
+    private final Object writeLock = new Object();
+
+    private long segmentNumber;
+
+    private FileChannel segment;
+
+    private boolean segmentEmpty;
+
+    /** Bytes appended to all segments, and those known to be forced. */
+    private long written;
+
+    private long forced;
+
+    private UrlJournal(Path directory, long segmentNumber) {
+        this.directory = directory;
+        this.segmentNumber = segmentNumber;
+    }
+
+    /**
+     * Open a journal for writing, in a new segment.
+     *
+     * @param directory the directory of the segments, created if needed.
+     * @return the journal.
+     * @throws IOException if the first segment cannot be created.
+     */
+    public static UrlJournal open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments = segments(directory);
+        long lastNumber = segments.isEmpty() ? -1 : segmentNumber(segments.get(segments.size() - 1));
+        UrlJournal journal = new UrlJournal(directory, lastNumber + 1);
+        journal.startSegment();
+        return journal;
+    }
+
+    /**
+     * Append a url, and force it to the storage device.
+     *
+     * @param url the url, with its id, short url and full url set.
+     * @throws IOException if the url cannot be written or forced.
+     */
+    public void append(Url url) throws IOException {
+        ByteBuffer record = encode(url);
+        long end;
+        synchronized (writeLock) {
+            while (record.hasRemaining()) {
+                segment.write(record);
+            }
+            segmentEmpty = false;
+            written += record.capacity();
+            end = written;
+        }
+        synchronized (forceLock) {
+            // A concurrent append may have forced this record already
+            if (forced >= end) {
+                return;
+            }
+            FileChannel current;
+            long upTo;
+            synchronized (writeLock) {
+                current = segment;
+                upTo = written;
+            }
+            current.force(false);
+            forced = upTo;
+        }
+    }
+
+    /**
+     * Start a new segment, unless the current one is empty.
+     *
+     * @return the previous segment, forced and closed, or {@code null} if the current segment is empty.
+     * @throws IOException if the current segment cannot be forced or the new one created.
+     */
+    public Path roll() throws IOException {
+        synchronized (forceLock) {
+            synchronized (writeLock) {
+                if (segmentEmpty) {
+                    return null;
+                }
+                Path previous = getCurrentSegment();
+                segment.force(false);
+                segment.close();
+                forced = written;
+                segmentNumber++;
+                startSegment();
+                return previous;
+            }
+        }
+    }
+
+    /**
+     * @return the file of the segment being written.
+     */
+    public Path getCurrentSegment() {
+        synchronized (writeLock) {
+            return segmentFile(segmentNumber);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (forceLock) {
+            synchronized (writeLock) {
+                segment.force(false);
+                segment.close();
+            }
+        }
+    }
+
+    /**
+     * List the segments of a journal.
+     *
+     * @param directory the directory of the segments.
+     * @return the segment files, oldest first.
+     * @throws IOException if the directory cannot be listed.
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> segmentNumber(file) >= 0)
+                .sorted((first, second) -> Long.compare(segmentNumber(first), segmentNumber(second)))
+                .toList();
+        }
+    }
+
+    /**
+     * Read the urls of a segment, in order, up to its first incomplete or corrupt record.
+     *
+     * @param segment the segment file.
+     * @param consumer the consumer of the urls.
+     * @return the number of urls read.
+     * @throws IOException if the file cannot be read.
+     */
+    public static long read(Path segment, Consumer<Url> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        CRC32 crc = new CRC32();
+        long count = 0;
+        while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                break;
+            }
+            ByteBuffer content = buffer.slice(buffer.position(), length);
+            crc.reset();
+            crc.update(content.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            consumer.accept(decode(content));
+            buffer.position(buffer.position() + length);
+            count++;
+        }
+        return count;
+    }
+
+    private static ByteBuffer encode(Url url) {
+        byte[] shortUrl = url.getShortUrl().getBytes(StandardCharsets.UTF_8);
+        byte[] fullUrl = url.getFullUrl().getBytes(StandardCharsets.UTF_8);
+        int length = 3 * Long.BYTES + 2 * Integer.BYTES + shortUrl.length + fullUrl.length;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+        record
+            .position(RECORD_HEADER_SIZE)
+            .putLong(url.getId())
+            .putLong(toEpochMilli(url.getCreationDateTime()))
+            .putLong(toEpochMilli(url.getExpirationDateTime()))
+            .putInt(shortUrl.length)
+            .put(shortUrl)
+            .putInt(fullUrl.length)
+            .put(fullUrl);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER_SIZE, length);
+        return record.putInt(0, length).putInt(Integer.BYTES, (int) crc.getValue()).flip();
+    }
+
+    private static Url decode(ByteBuffer content) {
+        Url url = new Url()
+            .id(content.getLong())
+            .creationDateTime(toDateTime(content.getLong()))
+            .expirationDateTime(toDateTime(content.getLong()));
+        byte[] shortUrl = new byte[content.getInt()];
+        content.get(shortUrl);
+        byte[] fullUrl = new byte[content.getInt()];
+        content.get(fullUrl);
+        return url.shortUrl(new String(shortUrl, StandardCharsets.UTF_8)).fullUrl(new String(fullUrl, StandardCharsets.UTF_8));
+    }
+
+    private static long toEpochMilli(ZonedDateTime dateTime) {
+        return dateTime == null ? NO_DATE_TIME : dateTime.toInstant().toEpochMilli();
+    }
+
+    private static ZonedDateTime toDateTime(long epochMilli) {
+        return epochMilli == NO_DATE_TIME ? null : ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+    }
+
+    private void startSegment() throws IOException {
+        segment = FileChannel.open(segmentFile(segmentNumber), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentEmpty = true;
+        // Make the new file itself durable
+        try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform
+        }
+    }
+
+    private Path segmentFile(long number) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%012d", number) + SEGMENT_SUFFIX);
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
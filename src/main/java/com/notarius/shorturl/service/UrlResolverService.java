@@ -0,0 +1,222 @@
+package com.notarius.shorturl.service;
+
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.service.dto.ResolvedUrl;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service resolving short urls to their target on the redirect hot path.
+ * <p>
+ * Resolved targets are kept in the {@link UrlRepository#RESOLVED_URLS_BY_SHORT_URL_CACHE} cache in front of
+ * {@link UrlRepository#findByShortUrl(String)}, keyed by the code of the short url as a {@code Long} and sized
+ * independently of the entity caches, so a warm lookup costs a single cache probe on a primitive key: no transaction, no
+ * persistence context and no entity serialization. Strings which are not short urls of the {@link ShortCodeGenerator}
+ * are resolved as unknown without any lookup. The {@link OffHeapResolvedUrlCache} takes the place of this cache when
+ * enabled.
+ * <p>
+ * Short urls rejected by the {@link ShortUrlMembershipFilter} are not looked up at all, and short urls recently looked
+ * up without success are remembered for a short while, by code, in the {@link UrlRepository#MISSING_SHORT_URLS_CACHE}
+ * cache, until they expire or get created.
+ * <p>
+ * When enabled, the memory-mapped {@link ShortUrlSnapshotService} is consulted before the caches, unless the short url
+ * was recently found missing, and the {@link StaticUrlIndexService} after the resolved url cache; urls served by either
+ * are not cached. Urls created
+ * write-behind are served by the {@link UrlWriteBehindService} until they are inserted.
+ * <p>
+ * Expired urls are resolved as unknown, whichever tier serves them. Cached targets are evicted when they expire by the
+ * {@link ResolvedUrlExpiryService}.
+ * <p>
+ * Both caches follow writes through {@link UrlChangedEvent}s. Entries are evicted when the change is flushed, and once
+ * more after commit, as a concurrent lookup may cache the previous state in between.
+ */
+@Service
+public class UrlResolverService {
+
+    private final UrlRepository urlRepository;
+
+    private final ShortUrlMembershipFilter shortUrlMembershipFilter;
+
+    private final ShortUrlSnapshotService shortUrlSnapshotService;
+
+    private final StaticUrlIndexService staticUrlIndexService;
+
+    private final ResolvedUrlExpiryService resolvedUrlExpiryService;
+
+    private final UrlWriteBehindService urlWriteBehindService;
+
+    private final ShortCodeGenerator shortCodeGenerator;
+
+    private final Cache resolvedUrls;
+
+    private final Cache missingShortUrls;
+
+    public UrlResolverService(
+        UrlRepository urlRepository,
+        ShortUrlMembershipFilter shortUrlMembershipFilter,
+        ShortUrlSnapshotService shortUrlSnapshotService,
+        StaticUrlIndexService staticUrlIndexService,
+        ResolvedUrlExpiryService resolvedUrlExpiryService,
+        UrlWriteBehindService urlWriteBehindService,
+        ShortCodeGenerator shortCodeGenerator,
+        OffHeapResolvedUrlCache offHeapResolvedUrlCache,
+        CacheManager cacheManager
+    ) {
+        this.urlRepository = urlRepository;
+        this.shortUrlMembershipFilter = shortUrlMembershipFilter;
+        this.shortUrlSnapshotService = shortUrlSnapshotService;
+        this.staticUrlIndexService = staticUrlIndexService;
+        this.resolvedUrlExpiryService = resolvedUrlExpiryService;
+        this.urlWriteBehindService = urlWriteBehindService;
+        this.shortCodeGenerator = shortCodeGenerator;
+        this.resolvedUrls = offHeapResolvedUrlCache.resolvedUrls(cacheManager);
+        this.missingShortUrls = Objects.requireNonNull(cacheManager.getCache(UrlRepository.MISSING_SHORT_URLS_CACHE));
+    }
+
+    /**
+     * Resolve a short url to its target.
+     *
+     * @param shortUrl the short url to resolve.
+     * @return the resolved target, or empty if the short url is unknown or expired.
+     */
+    public Optional<ResolvedUrl> resolve(String shortUrl) {
+        return lookup(shortUrl).filter(resolvedUrl -> !resolvedUrl.isExpired());
+    }
+
+    private Optional<ResolvedUrl> lookup(String shortUrl) {
+        long code = shortCodeGenerator.toCode(shortUrl);
+        if (code < 0) {
+            return Optional.empty();
+        }
+        Optional<ResolvedUrl> snapshotted = shortUrlSnapshotService.resolve(code);
+        // The database may have found it missing since the snapshot was written
+        if (snapshotted.isPresent() && missingShortUrls.get(code) == null) {
+            return snapshotted;
+        }
+        ResolvedUrl resolvedUrl = resolvedUrls.get(code, ResolvedUrl.class);
+        if (resolvedUrl != null) {
+            return Optional.of(resolvedUrl);
+        }
+        Optional<ResolvedUrl> indexed = staticUrlIndexService.resolve(code);
+        if (indexed.isPresent()) {
+            return indexed;
+        }
+        Optional<ResolvedUrl> pending = urlWriteBehindService.resolve(code);
+        if (pending.isPresent()) {
+            return pending;
+        }
+        if (!shortUrlMembershipFilter.mightExist(shortUrl) || missingShortUrls.get(code) != null) {
+            return Optional.empty();
+        }
+        Optional<ResolvedUrl> loaded = urlRepository.findByShortUrl(shortUrl).map(ResolvedUrl::new);
+        if (loaded.isPresent()) {
+            cache(code, loaded.orElseThrow());
+        } else {
+            missingShortUrls.put(code, Boolean.TRUE);
+        }
+        return loaded;
+    }
+
+    /**
+     * Check whether a short url is worth looking up in the database. Unlike redirects, this does not rely on the
+     * {@link ShortUrlMembershipFilter}, which learns about urls created on other nodes only when it is rebuilt.
+     *
+     * @param shortUrl the short url to check.
+     * @return {@code false} if the short url is known not to exist.
+     */
+    public boolean mightExist(String shortUrl) {
+        long code = shortCodeGenerator.toCode(shortUrl);
+        return code >= 0 && missingShortUrls.get(code) == null;
+    }
+
+    /**
+     * Remember that a short url does not exist, after a database lookup found nothing.
+     *
+     * @param shortUrl the missing short url.
+     */
+    public void recordMissing(String shortUrl) {
+        long code = shortCodeGenerator.toCode(shortUrl);
+        if (code >= 0) {
+            missingShortUrls.put(code, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Load short urls into the resolved url cache, replacing their cached targets, if any.
+     *
+     * @param shortUrls the short urls to load.
+     * @return the number of short urls found.
+     */
+    public int warm(Collection<String> shortUrls) {
+        List<Url> urls = urlRepository.findAllByShortUrlIn(shortUrls);
+        urls.forEach(url -> cache(shortCodeGenerator.toCode(url.getShortUrl()), new ResolvedUrl(url)));
+        return urls.size();
+    }
+
+    /**
+     * Drop the cached target of a short url, and stop serving it from the snapshot, for changes made without going
+     * through JPA entities.
+     *
+     * @param shortUrl the short url to evict.
+     */
+    public void evict(String shortUrl) {
+        evictResolved(shortUrl);
+        shortUrlSnapshotService.invalidate(shortUrl);
+    }
+
+    @EventListener
+    public void onUrlChanged(UrlChangedEvent event) {
+        String shortUrl = event.getUrl().getShortUrl();
+        String previousShortUrl = event.getPreviousShortUrl();
+        Runnable eviction =
+            switch (event.getType()) {
+                case CREATED -> () -> evictMissing(shortUrl);
+                case UPDATED -> () -> {
+                    evictResolved(previousShortUrl);
+                    evictResolved(shortUrl);
+                    evictMissing(shortUrl);
+                };
+                case DELETED -> () -> evictResolved(shortUrl);
+            };
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        eviction.run();
+                    }
+                }
+            );
+        }
+    }
+
+    private void cache(long code, ResolvedUrl resolvedUrl) {
+        resolvedUrls.put(code, resolvedUrl);
+        resolvedUrlExpiryService.schedule(code, resolvedUrl);
+    }
+
+    private void evictResolved(String shortUrl) {
+        long code = shortCodeGenerator.toCode(shortUrl);
+        if (code >= 0) {
+            resolvedUrls.evict(code);
+        }
+    }
+
+    private void evictMissing(String shortUrl) {
+        long code = shortCodeGenerator.toCode(shortUrl);
+        if (code >= 0) {
+            missingShortUrls.evict(code);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.notarius.shorturl.service;
+
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.service.dto.ShortenedUrlDTO;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import com.notarius.shorturl.util.UrlUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service assigning short codes to full urls.
+ * <p>
+ * With the {@code hash} strategy, a code is derived from the hash of the full url. When that code is already used by a
+ * different full url, the collision is counted and the code is re-derived from a salted hash, until a free code or the
+ * same full url is found. The first probe also looks up the hexadecimal code the full url was given before codes were
+ * base62, so urls shortened then are reused rather than shortened again.
+ * <p>
+ * With the {@code key-pool} strategy, full urls are looked up by their indexed digest, and those not shortened yet get a
+ * new code taken from the {@link ShortCodePool}.
+ * <p>
+ * Batches of full urls are probed together: each probe looks up the codes, or digests, of the whole batch with
+ * {@code IN} queries of {@value #LOOKUP_BATCH_SIZE} values, and the new urls are inserted together, in JDBC batches of
+ * {@code hibernate.jdbc.batch_size}.
+ */
+@Service
+@Transactional
+public class UrlShortenerService {
+
+    public static final String SHORT_CODES_METER_NAME = "url.short-codes";
+    public static final String SHORT_CODES_METER_RESULT_DIMENSION = "result";
+
+    private static final int LOOKUP_BATCH_SIZE = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(UrlShortenerService.class);
+
+    private final UrlRepository urlRepository;
+
+    private final ShortCodeGenerator shortCodeGenerator;
+
+    private final ShortCodePool shortCodePool;
+
+    private final boolean useKeyPool;
+
+    private final int maxProbes;
+
+    private final Counter createdCounter;
+
+    private final Counter existingCounter;
+
+    private final Counter collisionCounter;
+
+    public UrlShortenerService(
+        UrlRepository urlRepository,
+        ShortCodeGenerator shortCodeGenerator,
+        ShortCodePool shortCodePool,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.urlRepository = urlRepository;
+        this.shortCodeGenerator = shortCodeGenerator;
+        this.shortCodePool = shortCodePool;
+        this.useKeyPool = applicationProperties.getShortCode().getStrategy() == ApplicationProperties.ShortCode.Strategy.KEY_POOL;
+        this.maxProbes = applicationProperties.getShortCode().getMaxProbes();
+        this.createdCounter = shortCodesCounterForResult("created").register(meterRegistry);
+        this.existingCounter = shortCodesCounterForResult("existing").register(meterRegistry);
+        this.collisionCounter = shortCodesCounterForResult("collision").register(meterRegistry);
+    }
+
+    private Counter.Builder shortCodesCounterForResult(String result) {
+        return Counter.builder(SHORT_CODES_METER_NAME)
+            .description("Short code probes, by outcome: the collision rate is collision / (created + existing).")
+            .tag(SHORT_CODES_METER_RESULT_DIMENSION, result);
+    }
+
+    /**
+     * Shorten a full url. The existing short url is reused if this full url was already shortened.
+     *
+     * @param url the url to shorten, with its full url set.
+     * @return the persisted url, either existing or new.
+     * @throws ShortCodeCollisionException if every probe hit a code used by another full url.
+     */
+    public Url shorten(Url url) {
+        if (useKeyPool) {
+            Optional<Url> existingUrl = urlRepository
+                .findAllByFullUrlDigest(UrlUtil.digest(url.getFullUrl()))
+                .stream()
+                .filter(candidate -> Objects.equals(candidate.getFullUrl(), url.getFullUrl()))
+                .findFirst();
+            if (existingUrl.isPresent()) {
+                existingCounter.increment();
+                return existingUrl.orElseThrow();
+            }
+            return create(url, shortCodePool.poll());
+        }
+        String fullUrl = url.getFullUrl();
+        for (int probe = 0; probe < maxProbes; probe++) {
+            String shortUrl = shortCodeGenerator.generate(fullUrl, probe);
+            Optional<Url> existingUrl;
+            if (probe == 0) {
+                Map<String, Url> existingUrls = findAllByShortUrl(withLegacyShortUrls(List.of(shortUrl), List.of(fullUrl)));
+                Url legacyUrl = existingUrls.get(UrlUtil.generateLegacyShortUrl(fullUrl));
+                if (legacyUrl != null && Objects.equals(legacyUrl.getFullUrl(), fullUrl)) {
+                    existingCounter.increment();
+                    return legacyUrl;
+                }
+                existingUrl = Optional.ofNullable(existingUrls.get(shortUrl));
+            } else {
+                existingUrl = urlRepository.findByShortUrl(shortUrl);
+            }
+            if (existingUrl.isEmpty()) {
+                return create(url, shortUrl);
+            }
+            if (Objects.equals(existingUrl.orElseThrow().getFullUrl(), fullUrl)) {
+                existingCounter.increment();
+                return existingUrl.orElseThrow();
+            }
+            log.debug("Short url {} is already used by another full url, probing again", shortUrl);
+            collisionCounter.increment();
+        }
+        throw new ShortCodeCollisionException(maxProbes);
+    }
+
+    /**
+     * Shorten full urls, creating only those not already shortened.
+     *
+     * @param fullUrls the full urls to shorten.
+     * @return the outcome for each full url, in the same order.
+     * @throws ShortCodeCollisionException if every probe hit a code used by another full url, for any of the full urls.
+     */
+    public List<ShortenedUrlDTO> shortenAll(List<String> fullUrls) {
+        Map<String, Url> urlsByFullUrl = assignShortUrls(fullUrls);
+        List<Url> newUrls = urlsByFullUrl.values().stream().filter(url -> url.getId() == null).toList();
+        Set<String> createdFullUrls = newUrls.stream().map(Url::getFullUrl).collect(Collectors.toSet());
+        saveAll(newUrls);
+        return fullUrls
+            .stream()
+            .map(fullUrl -> new ShortenedUrlDTO(urlsByFullUrl.get(fullUrl), createdFullUrls.contains(fullUrl)))
+            .toList();
+    }
+
+    /**
+     * Find or assign the short url of each distinct full url, without saving anything.
+     *
+     * @param fullUrls the full urls to shorten.
+     * @return for each distinct full url, in order, either its existing url or a new unsaved url, without id.
+     * @throws ShortCodeCollisionException if every probe hit a code used by another full url, for any of the full urls.
+     */
+    public Map<String, Url> assignShortUrls(Collection<String> fullUrls) {
+        Map<String, Url> urlsByFullUrl = new LinkedHashMap<>();
+        if (useKeyPool) {
+            Map<String, Url> existingUrls = findAllByFullUrl(new LinkedHashSet<>(fullUrls));
+            for (String fullUrl : fullUrls) {
+                urlsByFullUrl.computeIfAbsent(fullUrl, key -> {
+                    Url existingUrl = existingUrls.get(key);
+                    if (existingUrl != null) {
+                        existingCounter.increment();
+                        return existingUrl;
+                    }
+                    return newUrl(key, shortCodePool.poll());
+                });
+            }
+            return urlsByFullUrl;
+        }
+        // Every code handed out in the batch, new or existing, so no probe can hand it out twice
+        Set<String> batchShortUrls = new HashSet<>();
+        Collection<String> pending = new LinkedHashSet<>(fullUrls);
+        // Assigned in input order once all probes are done
+        Map<String, Url> assigned = new HashMap<>();
+        for (int probe = 0; probe < maxProbes && !pending.isEmpty(); probe++) {
+            Map<String, String> fullUrlsByShortUrl = new LinkedHashMap<>();
+            List<String> colliding = new ArrayList<>();
+            for (String fullUrl : pending) {
+                String shortUrl = shortCodeGenerator.generate(fullUrl, probe);
+                // Two full urls of the batch may also get the same code
+                if (batchShortUrls.contains(shortUrl) || fullUrlsByShortUrl.putIfAbsent(shortUrl, fullUrl) != null) {
+                    collisionCounter.increment();
+                    colliding.add(fullUrl);
+                }
+            }
+            Map<String, Url> existingUrls;
+            if (probe == 0) {
+                existingUrls = findAllByShortUrl(withLegacyShortUrls(fullUrlsByShortUrl.keySet(), pending));
+                for (String fullUrl : pending) {
+                    Url legacyUrl = existingUrls.get(UrlUtil.generateLegacyShortUrl(fullUrl));
+                    if (legacyUrl != null && Objects.equals(legacyUrl.getFullUrl(), fullUrl)) {
+                        existingCounter.increment();
+                        assigned.put(fullUrl, legacyUrl);
+                        batchShortUrls.add(legacyUrl.getShortUrl());
+                    }
+                }
+                colliding.removeIf(assigned::containsKey);
+            } else {
+                existingUrls = findAllByShortUrl(fullUrlsByShortUrl.keySet());
+            }
+            for (Map.Entry<String, String> candidate : fullUrlsByShortUrl.entrySet()) {
+                String shortUrl = candidate.getKey();
+                String fullUrl = candidate.getValue();
+                if (assigned.containsKey(fullUrl)) {
+                    continue;
+                }
+                Url existingUrl = existingUrls.get(shortUrl);
+                if (existingUrl == null) {
+                    assigned.put(fullUrl, newUrl(fullUrl, shortUrl));
+                    batchShortUrls.add(shortUrl);
+                } else if (Objects.equals(existingUrl.getFullUrl(), fullUrl)) {
+                    existingCounter.increment();
+                    assigned.put(fullUrl, existingUrl);
+                    batchShortUrls.add(shortUrl);
+                } else {
+                    log.debug("Short url {} is already used by another full url, probing again", shortUrl);
+                    collisionCounter.increment();
+                    colliding.add(fullUrl);
+                }
+            }
+            pending = colliding;
+        }
+        if (!pending.isEmpty()) {
+            throw new ShortCodeCollisionException(maxProbes);
+        }
+        fullUrls.forEach(fullUrl -> urlsByFullUrl.putIfAbsent(fullUrl, assigned.get(fullUrl)));
+        return urlsByFullUrl;
+    }
+
+    /**
+     * @return {@code true} if codes are taken from the {@link ShortCodePool}, so they are unique without any lookup.
+     */
+    public boolean usesKeyPool() {
+        return useKeyPool;
+    }
+
+    /**
+     * Count urls created without {@link #shorten(Url)} or {@link #shortenAll(List)}.
+     *
+     * @param count the number of created urls.
+     */
+    public void countCreated(long count) {
+        createdCounter.increment(count);
+    }
+
+    /**
+     * Add the legacy hexadecimal short urls of full urls to short urls to look up, as urls shortened before codes were
+     * base62 keep them. Those the configured codes cannot represent are left out, as no url can have them.
+     */
+    private Set<String> withLegacyShortUrls(Collection<String> shortUrls, Collection<String> fullUrls) {
+        Set<String> lookedUp = new LinkedHashSet<>(shortUrls);
+        for (String fullUrl : fullUrls) {
+            String legacyShortUrl = UrlUtil.generateLegacyShortUrl(fullUrl);
+            if (shortCodeGenerator.toCode(legacyShortUrl) >= 0) {
+                lookedUp.add(legacyShortUrl);
+            }
+        }
+        return lookedUp;
+    }
+
+    private Map<String, Url> findAllByShortUrl(Collection<String> shortUrls) {
+        Map<String, Url> urls = new HashMap<>();
+        List<String> batch = new ArrayList<>(LOOKUP_BATCH_SIZE);
+        for (String shortUrl : shortUrls) {
+            batch.add(shortUrl);
+            if (batch.size() == LOOKUP_BATCH_SIZE) {
+                urlRepository.findAllByShortUrlIn(batch).forEach(url -> urls.put(url.getShortUrl(), url));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            urlRepository.findAllByShortUrlIn(batch).forEach(url -> urls.put(url.getShortUrl(), url));
+        }
+        return urls;
+    }
+
+    private Map<String, Url> findAllByFullUrl(Collection<String> fullUrls) {
+        Map<String, Url> urls = new HashMap<>();
+        List<byte[]> batch = new ArrayList<>(LOOKUP_BATCH_SIZE);
+        for (String fullUrl : fullUrls) {
+            batch.add(UrlUtil.digest(fullUrl));
+            if (batch.size() == LOOKUP_BATCH_SIZE) {
+                urlRepository.findAllByFullUrlDigestIn(batch).forEach(url -> urls.putIfAbsent(url.getFullUrl(), url));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            urlRepository.findAllByFullUrlDigestIn(batch).forEach(url -> urls.putIfAbsent(url.getFullUrl(), url));
+        }
+        return urls;
+    }
+
+    private void saveAll(Collection<Url> newUrls) {
+        urlRepository.saveAll(newUrls);
+        createdCounter.increment(newUrls.size());
+    }
+
+    private Url newUrl(String fullUrl, String shortUrl) {
+        return new Url().fullUrl(fullUrl).shortUrl(shortUrl).creationDateTime(ZonedDateTime.now());
+    }
+
+    private Url create(Url url, String shortUrl) {
+        url.setShortUrl(shortUrl);
+        url.setCreationDateTime(ZonedDateTime.now());
+        createdCounter.increment();
+        return urlRepository.save(url);
+    }
+}
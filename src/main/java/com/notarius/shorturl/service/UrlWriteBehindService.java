@@ -0,0 +1,354 @@
+package com.notarius.shorturl.service;
+
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.repository.UrlBulkRepository;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.service.dto.ResolvedUrl;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service creating urls write-behind, when {@code application.write-behind.enabled} is set.
+ * <p>
+ * A new url gets its code from the {@link ShortCodePool} and its id from the identifier generator, then is forced to the
+ * {@link UrlJournal} of {@code application.write-behind.directory} and kept pending in memory, where the
+ * {@link UrlResolverService} finds it, before it is returned. Pending urls are inserted by the {@link UrlBulkRepository}
+ * on {@code application.write-behind.flush-interval-millis}, in transactions of {@code application.write-behind.batch-size}
+ * urls, and publish their {@link UrlChangedEvent} then; the journal segments they were written to are deleted once they
+ * are all inserted. Segments left by a crash are replayed at startup, skipping urls already inserted. Closing the
+ * journal waits for the appends in flight.
+ * <p>
+ * Write-behind needs the {@code key-pool} strategy: hashed codes would be probed against the database only, missing the
+ * pending urls. Urls are created synchronously by the {@link UrlShortenerService} while write-behind is disabled, before
+ * the journal is opened, and once {@code application.write-behind.max-pending} urls are pending, as they pile up while the
+ * database is down, unless their full url is pending already.
+ */
+@Service
+public class UrlWriteBehindService {
+
+    public static final String WRITE_BEHIND_METER_PREFIX = "url.write-behind.";
+
+    private static final Logger log = LoggerFactory.getLogger(UrlWriteBehindService.class);
+
+    private final ApplicationProperties.WriteBehind properties;
+
+    private final boolean enabled;
+
+    private final UrlShortenerService urlShortenerService;
+
+    private final UrlBulkRepository urlBulkRepository;
+
+    private final UrlRepository urlRepository;
+
+    private final ShortCodeGenerator shortCodeGenerator;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter flushedCounter;
+
+    /** Urls not inserted yet, by code, by full url and by id. */
+    private final Map<Long, Url> pendingByCode = new ConcurrentHashMap<>();
+
+    private final Map<String, Url> pendingByFullUrl = new ConcurrentHashMap<>();
+
+    private final Map<Long, Url> pendingById = new ConcurrentHashMap<>();
+
+    /** Read-held while appending to the journal, write-held while closing it. */
+    private final ReadWriteLock journalLock = new ReentrantReadWriteLock();
+
+    /** Segments no longer written, deleted once their urls are inserted. */
+    private final List<Path> sealedSegments = new ArrayList<>();
+
+    private volatile UrlJournal journal;
+
+    public UrlWriteBehindService(
+        UrlShortenerService urlShortenerService,
+        UrlBulkRepository urlBulkRepository,
+        UrlRepository urlRepository,
+        ShortCodeGenerator shortCodeGenerator,
+        ApplicationEventPublisher eventPublisher,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.properties = applicationProperties.getWriteBehind();
+        this.urlShortenerService = urlShortenerService;
+        this.urlBulkRepository = urlBulkRepository;
+        this.urlRepository = urlRepository;
+        this.shortCodeGenerator = shortCodeGenerator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        if (properties.isEnabled() && !urlShortenerService.usesKeyPool()) {
+            log.warn("Write-behind url creation needs the key-pool short code strategy, urls are created synchronously");
+        }
+        this.enabled = properties.isEnabled() && urlShortenerService.usesKeyPool();
+        this.flushedCounter = Counter.builder(WRITE_BEHIND_METER_PREFIX + "flushed")
+            .description("Urls created write-behind and inserted in the database")
+            .register(meterRegistry);
+        Gauge.builder(WRITE_BEHIND_METER_PREFIX + "pending", pendingByCode, Map::size)
+            .description("Urls created write-behind and not inserted in the database yet")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Replay the segments left by the previous run, then open the journal.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || journal != null) {
+            return;
+        }
+        Path directory = getDirectory();
+        try {
+            long replayed = 0;
+            for (Path segment : UrlJournal.segments(directory)) {
+                replayed += UrlJournal.read(segment, this::addPending);
+                sealedSegments.add(segment);
+            }
+            if (replayed > 0) {
+                log.info("Replaying {} urls from the write-behind journal in {}", replayed, directory);
+            }
+            journal = UrlJournal.open(directory);
+        } catch (IOException e) {
+            log.warn("Could not open the write-behind journal in {}, urls are created synchronously", directory, e);
+            return;
+        }
+        flush();
+    }
+
+    /**
+     * Insert the pending urls, then close the journal.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public synchronized void stop() {
+        Lock lock = journalLock.writeLock();
+        lock.lock();
+        try {
+            UrlJournal current = journal;
+            if (current == null) {
+                return;
+            }
+            flush();
+            journal = null;
+            try {
+                current.close();
+            } catch (IOException e) {
+                log.warn("Could not close the write-behind journal", e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code true} if urls are created write-behind.
+     */
+    public boolean isEnabled() {
+        return journal != null;
+    }
+
+    /**
+     * Shorten a full url, write-behind when enabled. The existing short url is reused if this full url was already
+     * shortened, even if it is still pending.
+     *
+     * @param url the url to shorten, with its full url set.
+     * @return the url, either existing, pending or new, with its id.
+     * @throws UncheckedIOException if the new url cannot be written to the journal.
+     */
+    public Url shorten(Url url) {
+        Url pending = pendingByFullUrl.get(url.getFullUrl());
+        if (pending != null) {
+            return pending;
+        }
+        Lock lock = journalLock.readLock();
+        lock.lock();
+        try {
+            UrlJournal current = journal;
+            if (current != null && pendingByCode.size() < properties.getMaxPending()) {
+                return shortenWriteBehind(url, current);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return urlShortenerService.shorten(url);
+    }
+
+    /**
+     * Resolve a short url among the pending urls.
+     *
+     * @param code the code of the short url.
+     * @return the target of the pending url, or empty if no url with this code is pending.
+     */
+    public Optional<ResolvedUrl> resolve(long code) {
+        Url url = pendingByCode.get(code);
+        return url == null ? Optional.empty() : Optional.of(new ResolvedUrl(url));
+    }
+
+    /**
+     * Find a pending url.
+     *
+     * @param shortUrl the short url.
+     * @return the pending url, or empty if it is not pending.
+     */
+    public Optional<Url> findPending(String shortUrl) {
+        long code = shortCodeGenerator.toCode(shortUrl);
+        return code < 0 ? Optional.empty() : Optional.ofNullable(pendingByCode.get(code));
+    }
+
+    /**
+     * Find a pending url.
+     *
+     * @param id the id of the url.
+     * @return the pending url, or empty if it is not pending.
+     */
+    public Optional<Url> findPending(long id) {
+        return Optional.ofNullable(pendingById.get(id));
+    }
+
+    @Scheduled(
+        fixedDelayString = "${application.write-behind.flush-interval-millis:200}",
+        initialDelayString = "${application.write-behind.flush-interval-millis:200}",
+        timeUnit = TimeUnit.MILLISECONDS
+    )
+    public void scheduledFlush() {
+        if (journal != null) {
+            flush();
+        }
+    }
+
+    /**
+     * Insert the pending urls, and delete the journal segments holding them.
+     *
+     * @return the number of urls inserted, or -1 if they could not all be inserted, in which case they are tried again on
+     * the next flush.
+     */
+    public synchronized long flush() {
+        UrlJournal current = journal;
+        if (current == null) {
+            return 0;
+        }
+        try {
+            Path sealed = current.roll();
+            if (sealed != null) {
+                sealedSegments.add(sealed);
+            }
+        } catch (IOException e) {
+            log.warn("Could not roll the write-behind journal", e);
+        }
+        List<Url> urls = new ArrayList<>(pendingByCode.values());
+        urls.sort(Comparator.comparing(Url::getId));
+        long inserted = 0;
+        try {
+            for (int from = 0; from < urls.size(); from += properties.getBatchSize()) {
+                List<Url> batch = urls.subList(from, Math.min(urls.size(), from + properties.getBatchSize()));
+                inserted += transactionTemplate.execute(status -> insert(batch));
+                batch.forEach(this::removePending);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not insert {} urls created write-behind, trying again later", urls.size() - inserted, e);
+            return -1;
+        }
+        // Every url of the sealed segments was pending, and is inserted now
+        for (Path segment : sealedSegments) {
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                log.warn("Could not delete write-behind journal segment {}", segment, e);
+            }
+        }
+        sealedSegments.clear();
+        if (inserted > 0) {
+            log.debug("Inserted {} urls created write-behind", inserted);
+        }
+        return inserted;
+    }
+
+    public Path getDirectory() {
+        return Path.of(properties.getDirectory());
+    }
+
+    /**
+     * Create a url write-behind, holding the read lock of the journal.
+     */
+    private Url shortenWriteBehind(Url url, UrlJournal current) {
+        String fullUrl = url.getFullUrl();
+        Url assigned = urlShortenerService.assignShortUrls(List.of(fullUrl)).get(fullUrl);
+        if (assigned.getId() != null) {
+            return assigned;
+        }
+        assigned.setExpirationDateTime(url.getExpirationDateTime());
+        transactionTemplate.executeWithoutResult(status -> urlBulkRepository.assignIds(List.of(assigned)));
+        // Pending before it is journaled, so that a concurrent flush sealing its segment inserts it
+        Url pending = pendingByFullUrl.putIfAbsent(fullUrl, assigned);
+        if (pending != null) {
+            return pending;
+        }
+        pendingByCode.put(shortCodeGenerator.toCode(assigned.getShortUrl()), assigned);
+        pendingById.put(assigned.getId(), assigned);
+        try {
+            current.append(assigned);
+        } catch (IOException e) {
+            removePending(assigned);
+            throw new UncheckedIOException("Could not write url " + assigned.getShortUrl() + " to the write-behind journal", e);
+        }
+        return assigned;
+    }
+
+    /**
+     * Insert urls, skipping those already inserted before a crash.
+     */
+    private long insert(List<Url> batch) {
+        Set<Long> existingIds = new HashSet<>();
+        urlRepository.findAllById(batch.stream().map(Url::getId).toList()).forEach(url -> existingIds.add(url.getId()));
+        List<Url> newUrls = batch.stream().filter(url -> !existingIds.contains(url.getId())).toList();
+        urlBulkRepository.insertAll(newUrls);
+        urlShortenerService.countCreated(newUrls.size());
+        flushedCounter.increment(newUrls.size());
+        // The caches and the membership filter learn about the new urls as if they were created through JPA
+        newUrls.forEach(url -> eventPublisher.publishEvent(new UrlChangedEvent(UrlChangedEvent.Type.CREATED, url, null)));
+        return newUrls.size();
+    }
+
+    private void addPending(Url url) {
+        pendingByFullUrl.putIfAbsent(url.getFullUrl(), url);
+        pendingByCode.put(shortCodeGenerator.toCode(url.getShortUrl()), url);
+        pendingById.put(url.getId(), url);
+    }
+
+    private void removePending(Url url) {
+        pendingByCode.remove(shortCodeGenerator.toCode(url.getShortUrl()), url);
+        pendingByFullUrl.remove(url.getFullUrl(), url);
+        pendingById.remove(url.getId(), url);
+    }
+}
@@ -0,0 +1,51 @@
+package com.notarius.shorturl.service.dto;
+
+import com.notarius.shorturl.domain.Url;
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+
+/**
+ * The minimal view of a {@link Url} needed to serve a redirect: the target and when it stops being valid.
+ */
+public class ResolvedUrl implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String fullUrl;
+
+    private final ZonedDateTime expirationDateTime;
+
+    public ResolvedUrl(String fullUrl, ZonedDateTime expirationDateTime) {
+        this.fullUrl = fullUrl;
+        this.expirationDateTime = expirationDateTime;
+    }
+
+    public ResolvedUrl(Url url) {
+        this(url.getFullUrl(), url.getExpirationDateTime());
+    }
+
+    public String getFullUrl() {
+        return fullUrl;
+    }
+
+    public ZonedDateTime getExpirationDateTime() {
+        return expirationDateTime;
+    }
+
+    /**
+     * @return {@code true} if the target is no longer valid.
+     */
+    public boolean isExpired() {
+        return expirationDateTime != null && !expirationDateTime.toInstant().isAfter(Instant.now());
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ResolvedUrl{" +
+            "fullUrl='" + fullUrl + "'" +
+            ", expirationDateTime='" + expirationDateTime + "'" +
+            "}";
+    }
+}
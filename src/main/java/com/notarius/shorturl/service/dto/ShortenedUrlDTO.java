@@ -0,0 +1,74 @@
+package com.notarius.shorturl.service.dto;
+
+import com.notarius.shorturl.domain.Url;
+import java.io.Serializable;
+
+/**
+ * A DTO representing the outcome of shortening a full url: its url, and whether it was created or already existed.
+ */
+public class ShortenedUrlDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String fullUrl;
+
+    private String shortUrl;
+
+    private boolean created;
+
+    public ShortenedUrlDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public ShortenedUrlDTO(Url url, boolean created) {
+        this.id = url.getId();
+        this.fullUrl = url.getFullUrl();
+        this.shortUrl = url.getShortUrl();
+        this.created = created;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getFullUrl() {
+        return fullUrl;
+    }
+
+    public void setFullUrl(String fullUrl) {
+        this.fullUrl = fullUrl;
+    }
+
+    public String getShortUrl() {
+        return shortUrl;
+    }
+
+    public void setShortUrl(String shortUrl) {
+        this.shortUrl = shortUrl;
+    }
+
+    public boolean isCreated() {
+        return created;
+    }
+
+    public void setCreated(boolean created) {
+        this.created = created;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ShortenedUrlDTO{" +
+            "id=" + id +
+            ", fullUrl='" + fullUrl + "'" +
+            ", shortUrl='" + shortUrl + "'" +
+            ", created=" + created +
+            "}";
+    }
+}
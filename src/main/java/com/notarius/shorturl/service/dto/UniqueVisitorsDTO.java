@@ -0,0 +1,54 @@
+package com.notarius.shorturl.service.dto;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+/**
+ * The estimated number of unique visitors of a url over a time range.
+ */
+public class UniqueVisitorsDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long urlId;
+
+    private final ZonedDateTime from;
+
+    private final ZonedDateTime to;
+
+    private final long uniqueVisitors;
+
+    public UniqueVisitorsDTO(Long urlId, ZonedDateTime from, ZonedDateTime to, long uniqueVisitors) {
+        this.urlId = urlId;
+        this.from = from;
+        this.to = to;
+        this.uniqueVisitors = uniqueVisitors;
+    }
+
+    public Long getUrlId() {
+        return urlId;
+    }
+
+    public ZonedDateTime getFrom() {
+        return from;
+    }
+
+    public ZonedDateTime getTo() {
+        return to;
+    }
+
+    public long getUniqueVisitors() {
+        return uniqueVisitors;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UniqueVisitorsDTO{" +
+            "urlId=" + urlId +
+            ", from='" + from + "'" +
+            ", to='" + to + "'" +
+            ", uniqueVisitors=" + uniqueVisitors +
+            "}";
+    }
+}
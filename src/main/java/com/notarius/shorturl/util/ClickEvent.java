@@ -0,0 +1,128 @@
+package com.notarius.shorturl.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A redirect, as recorded in the {@link ClickEventLog}: a fixed-width record of {@value #SIZE} bytes made of the
+ * timestamp in epoch milliseconds, the 64-bit code id, the 32-bit hashes of the referrer and of the client address, the
+ * {@link UserAgentClass} code and reserved bytes, all big-endian.
+ * <p>
+ * The code id is the number the short url stands for in its {@link ShortCodeGenerator}, as stored in the url table. Other
+ * values are {@link #hash(String) hashed}, and a hash of 0 stands for a missing value.
+ */
+public class ClickEvent {
+
+    public static final int SIZE = 32;
+
+    static final int TIMESTAMP_OFFSET = 0;
+
+    static final int CODE_ID_OFFSET = 8;
+
+    static final int REFERRER_HASH_OFFSET = 16;
+
+    static final int IP_HASH_OFFSET = 20;
+
+    static final int USER_AGENT_CLASS_OFFSET = 24;
+
+    private final long timestamp;
+
+    private final long codeId;
+
+    private final int referrerHash;
+
+    private final int ipHash;
+
+    private final UserAgentClass userAgentClass;
+
+    public ClickEvent(long timestamp, long codeId, int referrerHash, int ipHash, UserAgentClass userAgentClass) {
+        this.timestamp = timestamp;
+        this.codeId = codeId;
+        this.referrerHash = referrerHash;
+        this.ipHash = ipHash;
+        this.userAgentClass = userAgentClass;
+    }
+
+    /**
+     * Read an event.
+     *
+     * @param buffer the buffer holding the event.
+     * @param position the position of the event in the buffer.
+     * @return the event.
+     */
+    public static ClickEvent read(ByteBuffer buffer, int position) {
+        return new ClickEvent(
+            buffer.getLong(position + TIMESTAMP_OFFSET),
+            buffer.getLong(position + CODE_ID_OFFSET),
+            buffer.getInt(position + REFERRER_HASH_OFFSET),
+            buffer.getInt(position + IP_HASH_OFFSET),
+            UserAgentClass.fromCode(buffer.get(position + USER_AGENT_CLASS_OFFSET))
+        );
+    }
+
+    /**
+     * Write an event.
+     *
+     * @param buffer the buffer to write to.
+     * @param position the position of the event in the buffer.
+     */
+    static void write(ByteBuffer buffer, int position, long timestamp, long codeId, int referrerHash, int ipHash, byte userAgentClass) {
+        buffer.putLong(position + CODE_ID_OFFSET, codeId);
+        buffer.putInt(position + REFERRER_HASH_OFFSET, referrerHash);
+        buffer.putInt(position + IP_HASH_OFFSET, ipHash);
+        buffer.put(position + USER_AGENT_CLASS_OFFSET, userAgentClass);
+        // Written last: readers stop at the first event without timestamp
+        buffer.putLong(position + TIMESTAMP_OFFSET, timestamp);
+    }
+
+    /**
+     * Hash a value of an event, such as a referrer.
+     *
+     * @param value the value, or {@code null}.
+     * @return the 64-bit hash of the value, or 0 for {@code null}; the low 32 bits make the 32-bit hash.
+     */
+    public static long hash(String value) {
+        if (value == null) {
+            return 0;
+        }
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getCodeId() {
+        return codeId;
+    }
+
+    public int getReferrerHash() {
+        return referrerHash;
+    }
+
+    public int getIpHash() {
+        return ipHash;
+    }
+
+    public UserAgentClass getUserAgentClass() {
+        return userAgentClass;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ClickEvent{" +
+            "timestamp=" + timestamp +
+            ", codeId=" + codeId +
+            ", referrerHash=" + referrerHash +
+            ", ipHash=" + ipHash +
+            ", userAgentClass=" + userAgentClass +
+            "}";
+    }
+}
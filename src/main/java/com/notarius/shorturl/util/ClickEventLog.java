@@ -0,0 +1,224 @@
+package com.notarius.shorturl.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * An append-only log of {@link ClickEvent}s, made of rolling memory-mapped segment files.
+ * <p>
+ * A segment is named {@code clicks-<number>.seg}, numbers growing with each segment, and holds a header (magic, version,
+ * event size and creation time) followed by up to {@code segmentEvents} fixed-width events. Segments are created at
+ * their full size, and events are written straight to the mapping: the end of a segment is its first event without
+ * timestamp. A new segment is started when the current one is full and when the log is opened again, and the oldest
+ * segments are deleted beyond {@code retainedSegments}.
+ * <p>
+ * Appending is not thread-safe: the log has a single writer, usually draining a {@link ClickEventRing}. Segments are
+ * read with {@link #read(Path, Consumer)} or {@link #replay(Path, Consumer)}, from any process, the last segment being
+ * possibly still written.
+ */
+public class ClickEventLog implements Closeable {
+
+    private static final int MAGIC = 0x434C4B31;
+
+    // Segments of version 1 held hashes of the short urls instead of their codes
+    private static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 16;
+
+    private static final String SEGMENT_PREFIX = "clicks-";
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+
+    private final int segmentEvents;
+
+    private final int retainedSegments;
+
+    private long segmentNumber;
+
+    private MappedByteBuffer segment;
+
+    private int position;
+
+    private boolean dirty;
+
+    private ClickEventLog(Path directory, int segmentEvents, int retainedSegments, long segmentNumber) {
+        this.directory = directory;
+        this.segmentEvents = segmentEvents;
+        this.retainedSegments = retainedSegments;
+        this.segmentNumber = segmentNumber;
+    }
+
+    /**
+     * Open a log for writing, in a new segment.
+     *
+     * @param directory the directory of the segments, created if needed.
+     * @param segmentEvents the number of events of a segment.
+     * @param retainedSegments the number of segments kept, at least 1.
+     * @return the log.
+     * @throws IOException if the first segment cannot be created.
+     */
+    public static ClickEventLog open(Path directory, int segmentEvents, int retainedSegments) throws IOException {
+        if (segmentEvents < 1 || (long) segmentEvents * ClickEvent.SIZE + HEADER_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A click event segment must hold between 1 event and 2 GB: " + segmentEvents);
+        }
+        Files.createDirectories(directory);
+        List<Path> segments = segments(directory);
+        long lastNumber = segments.isEmpty() ? -1 : segmentNumber(segments.get(segments.size() - 1));
+        ClickEventLog log = new ClickEventLog(directory, segmentEvents, Math.max(1, retainedSegments), lastNumber + 1);
+        log.startSegment();
+        return log;
+    }
+
+    /**
+     * Append an event.
+     *
+     * @throws UncheckedIOException if a new segment is needed and cannot be created.
+     */
+    public void append(long timestamp, long codeId, int referrerHash, int ipHash, byte userAgentClass) {
+        if (position == segment.capacity()) {
+            try {
+                segment.force();
+                segmentNumber++;
+                startSegment();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start click event segment " + segmentNumber, e);
+            }
+        }
+        ClickEvent.write(segment, position, timestamp, codeId, referrerHash, ipHash, userAgentClass);
+        position += ClickEvent.SIZE;
+        dirty = true;
+    }
+
+    /**
+     * Write the events appended since the previous call to the storage device.
+     */
+    public void force() {
+        if (dirty) {
+            segment.force();
+            dirty = false;
+        }
+    }
+
+    /**
+     * @return the file of the segment being written.
+     */
+    public Path getCurrentSegment() {
+        return segmentFile(segmentNumber);
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    /**
+     * List the segments of a log.
+     *
+     * @param directory the directory of the segments.
+     * @return the segment files, oldest first.
+     * @throws IOException if the directory cannot be listed.
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> segmentNumber(file) >= 0)
+                .sorted((first, second) -> Long.compare(segmentNumber(first), segmentNumber(second)))
+                .toList();
+        }
+    }
+
+    /**
+     * Read the events of a segment, in order.
+     *
+     * @param segment the segment file.
+     * @param consumer the consumer of the events.
+     * @return the number of events read.
+     * @throws IOException if the file cannot be read or is not a click event segment.
+     */
+    public static long read(Path segment, Consumer<ClickEvent> consumer) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Click event segment larger than 2 GB: " + segment);
+            }
+            // The mapping outlives the channel
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+            throw new IOException("Not a click event segment: " + segment);
+        }
+        if (buffer.getShort(6) != ClickEvent.SIZE) {
+            throw new IOException("Unsupported click event size in " + segment);
+        }
+        long count = 0;
+        for (int i = HEADER_SIZE; i + ClickEvent.SIZE <= buffer.capacity(); i += ClickEvent.SIZE) {
+            if (buffer.getLong(i + ClickEvent.TIMESTAMP_OFFSET) == 0) {
+                break;
+            }
+            consumer.accept(ClickEvent.read(buffer, i));
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Read the events of every segment of a log, oldest first.
+     *
+     * @param directory the directory of the segments.
+     * @param consumer the consumer of the events.
+     * @return the number of events read.
+     * @throws IOException if a segment cannot be read.
+     */
+    public static long replay(Path directory, Consumer<ClickEvent> consumer) throws IOException {
+        long count = 0;
+        for (Path segment : segments(directory)) {
+            count += read(segment, consumer);
+        }
+        return count;
+    }
+
+    private void startSegment() throws IOException {
+        Path file = segmentFile(segmentNumber);
+        int size = HEADER_SIZE + segmentEvents * ClickEvent.SIZE;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        segment.putInt(0, MAGIC).putShort(4, (short) VERSION).putShort(6, (short) ClickEvent.SIZE).putLong(8, System.currentTimeMillis());
+        position = HEADER_SIZE;
+        dirty = true;
+        List<Path> segments = segments(directory);
+        for (int i = 0; i < segments.size() - retainedSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private Path segmentFile(long number) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%012d", number) + SEGMENT_SUFFIX);
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.notarius.shorturl.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded ring buffer of click events, offered by any number of threads and drained by a single writer thread.
+ * <p>
+ * Producers claim a sequence with a compare-and-set on the head, write the event in the slot of that sequence and then
+ * publish the slot with a release store of its sequence. The writer reads published slots in sequence order with acquire
+ * loads, so a producer paused between claim and publication only delays the events after its own. Nothing blocks: when
+ * the ring is full, events are refused.
+ */
+public class ClickEventRing {
+
+    private static final int SLOT_LONGS = 4;
+
+    private final int mask;
+
+    private final long[] slots;
+
+    private final AtomicLongArray published;
+
+    private final AtomicLong head = new AtomicLong();
+
+    /** Next sequence to drain, only written by the writer thread. */
+    private volatile long tail;
+
+    /**
+     * Handler of drained events.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void onEvent(long timestamp, long codeId, int referrerHash, int ipHash, byte userAgentClass);
+    }
+
+    /**
+     * @param capacity the number of events the ring holds, a power of 2.
+     */
+    public ClickEventRing(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity of a ring must be a power of 2: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.slots = new long[capacity * SLOT_LONGS];
+        this.published = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Add an event, from any thread.
+     *
+     * @return {@code false} if the ring is full and the event was not added.
+     */
+    public boolean offer(long timestamp, long codeId, int referrerHash, int ipHash, byte userAgentClass) {
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail > mask) {
+                return false;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+        int slot = (int) sequence & mask;
+        int base = slot * SLOT_LONGS;
+        slots[base] = timestamp;
+        slots[base + 1] = codeId;
+        slots[base + 2] = ((long) referrerHash << 32) | (ipHash & 0xFFFFFFFFL);
+        slots[base + 3] = userAgentClass;
+        published.setRelease(slot, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Hand published events over to a handler, in order. Must only be called by the writer thread.
+     *
+     * @param handler the handler of the events.
+     * @param max the maximum number of events to drain.
+     * @return the number of drained events.
+     */
+    public int drain(Handler handler, int max) {
+        long sequence = tail;
+        int count = 0;
+        while (count < max) {
+            int slot = (int) sequence & mask;
+            if (published.getAcquire(slot) != sequence + 1) {
+                break;
+            }
+            int base = slot * SLOT_LONGS;
+            long hashes = slots[base + 2];
+            handler.onEvent(slots[base], slots[base + 1], (int) (hashes >>> 32), (int) hashes, (byte) slots[base + 3]);
+            sequence++;
+            count++;
+            // Frees the slot for producers
+            tail = sequence;
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of events claimed and not drained yet.
+     */
+    public long size() {
+        return head.get() - tail;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
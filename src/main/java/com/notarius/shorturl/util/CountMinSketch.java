@@ -0,0 +1,96 @@
+package com.notarius.shorturl.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe count-min sketch (Cormode and Muthukrishnan) of 64-bit hashes, estimating how many times each hash was
+ * added in {@code depth} rows of {@code width} counters.
+ * <p>
+ * Estimates never undercount; they overcount by at most {@code e / width} of all additions with probability
+ * {@code 1 - exp(-depth)}. Counters of a row are derived from the hash by double hashing, so callers hash their keys once.
+ * {@link #decay()} halves every counter, so that estimates follow recent additions rather than all time.
+ */
+public class CountMinSketch {
+
+    private final AtomicLongArray counters;
+
+    private final int depth;
+
+    private final int widthMask;
+
+    private final AtomicLong total = new AtomicLong();
+
+    /**
+     * @param width the number of counters per row, rounded up to a power of 2.
+     * @param depth the number of rows.
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || width > 1 << 24 || depth < 1 || depth > 16) {
+            throw new IllegalArgumentException("A count-min sketch needs a width between 1 and 2^24 and a depth between 1 and 16");
+        }
+        this.widthMask = (width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1) - 1;
+        this.depth = depth;
+        this.counters = new AtomicLongArray(depth * (widthMask + 1));
+    }
+
+    /**
+     * Count a hash once more.
+     *
+     * @param hash a well-mixed 64-bit hash.
+     * @return the estimated count of the hash, including this addition.
+     */
+    public long add(long hash) {
+        total.incrementAndGet();
+        long estimate = Long.MAX_VALUE;
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            int index = row * (widthMask + 1) + ((hash1 + row * hash2) & widthMask);
+            estimate = Math.min(estimate, counters.incrementAndGet(index));
+        }
+        return estimate;
+    }
+
+    /**
+     * @param hash a well-mixed 64-bit hash.
+     * @return the estimated count of the hash.
+     */
+    public long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(row * (widthMask + 1) + ((hash1 + row * hash2) & widthMask)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Halve every count. Additions made concurrently may be halved or not.
+     */
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            long current = counters.get(i);
+            while (current != 0 && !counters.compareAndSet(i, current, current >>> 1)) {
+                current = counters.get(i);
+            }
+        }
+        total.updateAndGet(value -> value >>> 1);
+    }
+
+    /**
+     * @return the number of additions, halved by each decay.
+     */
+    public long getTotal() {
+        return total.get();
+    }
+
+    public int getWidth() {
+        return widthMask + 1;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
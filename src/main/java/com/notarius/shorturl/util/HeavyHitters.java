@@ -0,0 +1,140 @@
+package com.notarius.shorturl.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracker of the {@code capacity} most frequent strings of a stream, in memory independent of the number of distinct
+ * strings: every string is counted by a {@link CountMinSketch}, and the strings with the highest estimates are kept.
+ * <p>
+ * Strings already kept have their count raised without locking. Other strings are only considered, under a lock, when
+ * their estimate exceeds the lowest count kept, which most of the stream does not. {@link #decay()} halves all counts,
+ * so the tracked strings follow the recent stream.
+ */
+public class HeavyHitters {
+
+    private final CountMinSketch sketch;
+
+    private final int capacity;
+
+    private final Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    /** The lowest count kept when last admitting a string; counts only grow until the next decay. */
+    private volatile long threshold;
+
+    /**
+     * @param capacity the number of strings kept.
+     * @param width the width of the sketch.
+     * @param depth the depth of the sketch.
+     */
+    public HeavyHitters(int capacity, int width, int depth) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Heavy hitters need a positive capacity");
+        }
+        this.sketch = new CountMinSketch(width, depth);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Count a string once more.
+     *
+     * @param key the string.
+     */
+    public void add(String key) {
+        long estimate = sketch.add(ClickEvent.hash(key));
+        AtomicLong count = counts.get(key);
+        if (count != null) {
+            count.accumulateAndGet(estimate, Math::max);
+        } else if (counts.size() < capacity || estimate > threshold) {
+            admit(key, estimate);
+        }
+    }
+
+    private synchronized void admit(String key, long estimate) {
+        AtomicLong count = counts.get(key);
+        if (count != null) {
+            count.accumulateAndGet(estimate, Math::max);
+            return;
+        }
+        if (counts.size() >= capacity) {
+            Map.Entry<String, AtomicLong> lowest = lowest();
+            if (estimate <= lowest.getValue().get()) {
+                threshold = lowest.getValue().get();
+                return;
+            }
+            counts.remove(lowest.getKey());
+        }
+        counts.put(key, new AtomicLong(estimate));
+        threshold = counts.size() < capacity ? 0 : lowest().getValue().get();
+    }
+
+    private Map.Entry<String, AtomicLong> lowest() {
+        return counts.entrySet().stream().min(Comparator.comparingLong(entry -> entry.getValue().get())).orElseThrow();
+    }
+
+    /**
+     * Halve every count.
+     */
+    public synchronized void decay() {
+        sketch.decay();
+        counts.values().forEach(count -> count.updateAndGet(value -> value >>> 1));
+        counts.values().removeIf(count -> count.get() == 0);
+        threshold = threshold >>> 1;
+    }
+
+    /**
+     * @return the strings kept, most frequent first.
+     */
+    public List<Entry> top() {
+        List<Entry> top = new ArrayList<>(capacity);
+        counts.forEach((key, count) -> top.add(new Entry(key, count.get())));
+        top.sort(Comparator.comparingLong(Entry::getCount).reversed().thenComparing(Entry::getKey));
+        return top;
+    }
+
+    /**
+     * @return the number of strings counted, halved by each decay.
+     */
+    public long getTotal() {
+        return sketch.getTotal();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * A string and the highest estimate of its count, which may exceed its true count.
+     */
+    public static class Entry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String key;
+
+        private final long count;
+
+        public Entry(String key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + count;
+        }
+    }
+}
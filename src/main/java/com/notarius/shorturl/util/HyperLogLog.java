@@ -0,0 +1,137 @@
+package com.notarius.shorturl.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A HyperLogLog sketch (Flajolet et al.) estimating the number of distinct 64-bit hashes added to it, within about 2.3%
+ * with its {@value #REGISTERS} registers.
+ * <p>
+ * Each hash updates one register, selected by its top {@value #PRECISION} bits, to the maximum rank of its remaining
+ * bits. Adding is thread-safe and lock-free. Sketches merge by taking the maximum of each register, which is idempotent,
+ * so the same sketch can be merged again without counting its hashes twice. They serialize to {@value #SERIALIZED_SIZE}
+ * bytes: a precision byte, then the 6-bit registers packed.
+ */
+public class HyperLogLog {
+
+    public static final int PRECISION = 11;
+
+    public static final int REGISTERS = 1 << PRECISION;
+
+    public static final int SERIALIZED_SIZE = 1 + REGISTERS * 6 / 8;
+
+    private static final VarHandle REGISTER = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * Add a hash, from any thread.
+     *
+     * @param hash a well-mixed 64-bit hash.
+     */
+    public void add(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        byte current;
+        do {
+            current = (byte) REGISTER.getVolatile(registers, index);
+            if (current >= rank) {
+                return;
+            }
+        } while (!REGISTER.compareAndSet(registers, index, current, rank));
+    }
+
+    /**
+     * Merge another sketch into this one.
+     *
+     * @param other the other sketch, left unchanged.
+     * @return this sketch.
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            byte rank = (byte) REGISTER.getVolatile(other.registers, i);
+            byte current;
+            do {
+                current = (byte) REGISTER.getVolatile(registers, i);
+                if (current >= rank) {
+                    break;
+                }
+            } while (!REGISTER.compareAndSet(registers, i, current, rank));
+        }
+        return this;
+    }
+
+    /**
+     * @return the estimated number of distinct hashes added.
+     */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < REGISTERS; i++) {
+            byte rank = (byte) REGISTER.getVolatile(registers, i);
+            sum += 1.0 / (1L << rank);
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // Linear counting is more accurate for small cardinalities
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * @return the sketch in {@value #SERIALIZED_SIZE} bytes.
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[SERIALIZED_SIZE];
+        bytes[0] = PRECISION;
+        for (int i = 0; i < REGISTERS; i += 4) {
+            // 4 registers of 6 bits in 3 bytes
+            int packed = 0;
+            for (int j = 0; j < 4; j++) {
+                packed = (packed << 6) | ((byte) REGISTER.getVolatile(registers, i + j) & 0x3F);
+            }
+            int position = 1 + i / 4 * 3;
+            bytes[position] = (byte) (packed >>> 16);
+            bytes[position + 1] = (byte) (packed >>> 8);
+            bytes[position + 2] = (byte) packed;
+        }
+        return bytes;
+    }
+
+    /**
+     * Read a sketch written by {@link #toBytes()}.
+     *
+     * @param bytes the serialized sketch.
+     * @return the sketch.
+     * @throws IllegalArgumentException if the bytes are not a sketch of the same precision.
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length != SERIALIZED_SIZE || bytes[0] != PRECISION) {
+            throw new IllegalArgumentException("Not a HyperLogLog sketch of precision " + PRECISION);
+        }
+        byte[] registers = new byte[REGISTERS];
+        for (int i = 0; i < REGISTERS; i += 4) {
+            int position = 1 + i / 4 * 3;
+            int packed = ((bytes[position] & 0xFF) << 16) | ((bytes[position + 1] & 0xFF) << 8) | (bytes[position + 2] & 0xFF);
+            for (int j = 3; j >= 0; j--) {
+                registers[i + j] = (byte) (packed & 0x3F);
+                packed >>>= 6;
+            }
+        }
+        return new HyperLogLog(registers);
+    }
+}
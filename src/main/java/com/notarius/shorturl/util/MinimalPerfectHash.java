@@ -0,0 +1,146 @@
+package com.notarius.shorturl.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A minimal perfect hash function of a static set of distinct 64-bit keys, mapping each of the {@code n} keys to its own
+ * index in {@code [0, n)} in about 3 bits per key.
+ * <p>
+ * This follows BBHash (Limasset et al.): each level is a bit array of as many bits as keys left, where the bit a key
+ * hashes to is set when no other key hashes there. Keys colliding at a level move on to the next one. The index of a key
+ * is the rank of its bit among all levels. Keys still colliding after the last level, which only happens with
+ * vanishingly small probability, are kept in a map.
+ * <p>
+ * Keys outside the set also get an index (or -1): callers must check the key stored at that index.
+ */
+public class MinimalPerfectHash {
+
+    private static final int MAX_LEVELS = 32;
+
+    /** Bits per rank sample: one cumulative count every 8 words. */
+    private static final int RANK_SAMPLE_SHIFT = 9;
+
+    private final long[] bits;
+
+    private final int[] ranks;
+
+    private final int[] levelOffsets;
+
+    private final int[] levelSizes;
+
+    private final Map<Long, Integer> fallback;
+
+    private final int size;
+
+    public MinimalPerfectHash(long[] keys) {
+        long[] words = new long[0];
+        int[] offsets = new int[MAX_LEVELS];
+        int[] sizes = new int[MAX_LEVELS];
+        long[] remaining = keys.clone();
+        int remainingCount = remaining.length;
+        int levels = 0;
+        while (remainingCount > 0 && levels < MAX_LEVELS) {
+            int levelWords = (int) ((remainingCount + 63L) >>> 6);
+            long[] hit = new long[levelWords];
+            long[] collision = new long[levelWords];
+            int levelSize = levelWords << 6;
+            for (int i = 0; i < remainingCount; i++) {
+                int position = position(remaining[i], levels, levelSize);
+                long mask = 1L << position;
+                if ((hit[position >>> 6] & mask) != 0) {
+                    collision[position >>> 6] |= mask;
+                } else {
+                    hit[position >>> 6] |= mask;
+                }
+            }
+            int next = 0;
+            for (int i = 0; i < remainingCount; i++) {
+                int position = position(remaining[i], levels, levelSize);
+                if ((collision[position >>> 6] & (1L << position)) != 0) {
+                    remaining[next++] = remaining[i];
+                }
+            }
+            offsets[levels] = words.length;
+            sizes[levels] = levelSize;
+            words = Arrays.copyOf(words, words.length + levelWords);
+            for (int i = 0; i < levelWords; i++) {
+                words[offsets[levels] + i] = hit[i] & ~collision[i];
+            }
+            remainingCount = next;
+            levels++;
+        }
+        this.bits = words;
+        this.levelOffsets = Arrays.copyOf(offsets, levels);
+        this.levelSizes = Arrays.copyOf(sizes, levels);
+        this.ranks = new int[(bits.length >>> (RANK_SAMPLE_SHIFT - 6)) + 1];
+        int rank = 0;
+        for (int i = 0; i < bits.length; i++) {
+            if ((i & ((1 << (RANK_SAMPLE_SHIFT - 6)) - 1)) == 0) {
+                ranks[i >>> (RANK_SAMPLE_SHIFT - 6)] = rank;
+            }
+            rank += Long.bitCount(bits[i]);
+        }
+        this.fallback = new HashMap<>();
+        for (int i = 0; i < remainingCount; i++) {
+            if (fallback.putIfAbsent(remaining[i], rank) == null) {
+                rank++;
+            }
+        }
+        if (rank != keys.length) {
+            throw new IllegalArgumentException("The keys of a minimal perfect hash must be distinct");
+        }
+        this.size = keys.length;
+    }
+
+    /**
+     * Get the index of a key.
+     *
+     * @param key the key.
+     * @return the index of the key if it belongs to the set; otherwise, an arbitrary index or -1.
+     */
+    public int get(long key) {
+        for (int level = 0; level < levelOffsets.length; level++) {
+            int position = position(key, level, levelSizes[level]);
+            int word = levelOffsets[level] + (position >>> 6);
+            long mask = 1L << position;
+            if ((bits[word] & mask) != 0) {
+                return rank(word, mask);
+            }
+        }
+        Integer index = fallback.get(key);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return the number of keys.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the memory used by the function, in bits.
+     */
+    public long getBitSize() {
+        return (long) bits.length * Long.SIZE + (long) ranks.length * Integer.SIZE + fallback.size() * 2L * Long.SIZE;
+    }
+
+    private int rank(int word, long mask) {
+        int sample = word >>> (RANK_SAMPLE_SHIFT - 6);
+        int rank = ranks[sample];
+        for (int i = sample << (RANK_SAMPLE_SHIFT - 6); i < word; i++) {
+            rank += Long.bitCount(bits[i]);
+        }
+        return rank + Long.bitCount(bits[word] & (mask - 1));
+    }
+
+    private static int position(long key, int level, int levelSize) {
+        long hash = key + (level + 1) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return (int) (((hash >>> 32) * levelSize) >>> 32);
+    }
+}
@@ -0,0 +1,424 @@
+package com.notarius.shorturl.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map of non-negative {@code long} keys to byte values, both held off-heap in direct
+ * {@link ByteBuffer}s, so that millions of entries cost neither object headers nor garbage collection work.
+ * <p>
+ * Keys are spread over stripes, each owning a table of 16-byte slots probed linearly, and an append-only arena of
+ * length-prefixed values in fixed-size chunks. A slot holds the key plus one, so that zeroed memory is empty, and the
+ * offset of its value in the arena.
+ * <p>
+ * Reads take no lock: a value is written before the release store of its offset, and a new slot gets its offset before
+ * its key, while readers load both with acquire semantics. Writes lock their stripe. Removed keys leave a tombstone
+ * which is never reused, so a slot only ever holds one key, and replaced or removed values stay in the arena. Both are
+ * dropped when the stripe is rebuilt into a new table, and a new arena once garbage makes up half of it. Readers still
+ * holding the previous table see consistent, if stale, entries.
+ * <p>
+ * The number of entries can be bounded: a stripe holding its share of the bound evicts one of its keys for each new key,
+ * the next live one in slot order after the last eviction, which amounts to evicting keys at random.
+ */
+public class OffHeapLongMap {
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final int SLOT_BYTES = 2 * Long.BYTES;
+
+    /** Largest table of a stripe: its slots must fit in a single buffer. */
+    private static final int MAX_TABLE_CAPACITY = 1 << 26;
+
+    private static final int MIN_TABLE_CAPACITY = 16;
+
+    /** Bits of the hash above those which can address a slot, picking the stripe. */
+    private static final int STRIPE_SHIFT = 32;
+
+    private static final long EMPTY = 0;
+
+    private static final long TOMBSTONE = -1;
+
+    private final Stripe[] stripes;
+
+    private final int chunkBytes;
+
+    private final long maxStripeSize;
+
+    /**
+     * @param stripeCount the number of stripes, a power of 2, bounding the number of concurrent writers.
+     * @param initialCapacity the number of entries held without rebuilding any table.
+     * @param chunkBytes the size of the buffers values are appended to.
+     */
+    public OffHeapLongMap(int stripeCount, long initialCapacity, int chunkBytes) {
+        this(stripeCount, initialCapacity, chunkBytes, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param stripeCount the number of stripes, a power of 2, bounding the number of concurrent writers.
+     * @param initialCapacity the number of entries held without rebuilding any table.
+     * @param chunkBytes the size of the buffers values are appended to.
+     * @param maxEntries the number of entries above which keys are evicted, spread evenly over the stripes.
+     */
+    public OffHeapLongMap(int stripeCount, long initialCapacity, int chunkBytes, long maxEntries) {
+        if (stripeCount < 1 || Integer.bitCount(stripeCount) != 1 || stripeCount > (1 << 16)) {
+            throw new IllegalArgumentException("The number of stripes must be a power of 2 up to 65536");
+        }
+        if (chunkBytes < 64) {
+            throw new IllegalArgumentException("Chunks must be at least 64 bytes");
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The map must hold at least one entry");
+        }
+        this.chunkBytes = chunkBytes;
+        this.maxStripeSize = maxEntries == Long.MAX_VALUE ? Long.MAX_VALUE : (maxEntries + stripeCount - 1) / stripeCount;
+        int tableCapacity = tableCapacity((initialCapacity + stripeCount - 1) / stripeCount);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(tableCapacity);
+        }
+    }
+
+    /**
+     * Get the value of a key, without locking.
+     *
+     * @param key the key, between 0 and {@code Long.MAX_VALUE - 1}.
+     * @return a copy of the value, or {@code null} if the key is absent.
+     */
+    public byte[] get(long key) {
+        checkKey(key);
+        long hash = hash(key);
+        Table table = stripe(hash).table;
+        int slot = table.find(key + 1, hash);
+        if (slot < 0) {
+            return null;
+        }
+        return table.arena.read((long) LONGS.getAcquire(table.slots, slot * SLOT_BYTES + Long.BYTES));
+    }
+
+    /**
+     * Set the value of a key.
+     *
+     * @param key the key, between 0 and {@code Long.MAX_VALUE - 1}.
+     * @param value the value.
+     */
+    public void put(long key, byte[] value) {
+        checkKey(key);
+        long hash = hash(key);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            stripe.put(key + 1, hash, value);
+        }
+    }
+
+    /**
+     * Remove a key.
+     *
+     * @param key the key.
+     * @return {@code true} if the key was present.
+     */
+    public boolean remove(long key) {
+        checkKey(key);
+        long hash = hash(key);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            return stripe.remove(key + 1, hash);
+        }
+    }
+
+    /**
+     * Remove all keys, releasing the memory of the values.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * @return the number of keys.
+     */
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of keys evicted to keep the map within its maximum number of entries.
+     */
+    public long getEvictions() {
+        long evictions = 0;
+        for (Stripe stripe : stripes) {
+            evictions += stripe.evictions;
+        }
+        return evictions;
+    }
+
+    /**
+     * @return the off-heap memory allocated by the tables and arenas, in bytes.
+     */
+    public long getOffHeapBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            Table table = stripe.table;
+            bytes += (long) table.capacity * SLOT_BYTES + table.arena.allocatedBytes;
+        }
+        return bytes;
+    }
+
+    private Stripe stripe(long hash) {
+        return stripes[(int) (hash >>> STRIPE_SHIFT) & (stripes.length - 1)];
+    }
+
+    private static void checkKey(long key) {
+        if (key < 0 || key == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("Keys must be between 0 and " + (Long.MAX_VALUE - 1) + ": " + key);
+        }
+    }
+
+    /**
+     * Get the smallest table capacity keeping the given number of entries under the load factor of 3/4.
+     */
+    private static int tableCapacity(long entries) {
+        long capacity = Math.max(MIN_TABLE_CAPACITY, Long.highestOneBit(Math.max(1, entries * 4 / 3)) << 1);
+        if (capacity > MAX_TABLE_CAPACITY) {
+            throw new IllegalStateException("A stripe cannot hold " + entries + " entries, more stripes are needed");
+        }
+        return (int) capacity;
+    }
+
+    private static long hash(long key) {
+        key = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        key = (key ^ (key >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return key ^ (key >>> 33);
+    }
+
+    private static ByteBuffer allocate(long bytes) {
+        // Aligned for the long views
+        return ByteBuffer.allocateDirect(Math.toIntExact(bytes + Long.BYTES - 1)).alignedSlice(Long.BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * A table of slots and the arena of their values, only modified by the writer holding its stripe.
+     */
+    private static final class Table {
+
+        private final ByteBuffer slots;
+
+        private final int capacity;
+
+        private final Arena arena;
+
+        Table(int capacity, Arena arena) {
+            this.slots = allocate((long) capacity * SLOT_BYTES);
+            this.capacity = capacity;
+            this.arena = arena;
+        }
+
+        /**
+         * @return the slot of a stored key, or -1.
+         */
+        int find(long storedKey, long hash) {
+            int mask = capacity - 1;
+            int slot = (int) hash & mask;
+            for (int probes = 0; probes < capacity; probes++) {
+                long current = (long) LONGS.getAcquire(slots, slot * SLOT_BYTES);
+                if (current == storedKey) {
+                    return slot;
+                }
+                if (current == EMPTY) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Publish a key absent from the table in its first empty slot, which must exist.
+         */
+        void insert(long storedKey, long hash, long offset) {
+            int mask = capacity - 1;
+            int slot = (int) hash & mask;
+            while ((long) LONGS.get(slots, slot * SLOT_BYTES) != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            LONGS.setRelease(slots, slot * SLOT_BYTES + Long.BYTES, offset);
+            LONGS.setRelease(slots, slot * SLOT_BYTES, storedKey);
+        }
+
+        long key(int slot) {
+            return (long) LONGS.get(slots, slot * SLOT_BYTES);
+        }
+
+        long offset(int slot) {
+            return (long) LONGS.get(slots, slot * SLOT_BYTES + Long.BYTES);
+        }
+    }
+
+    /**
+     * Append-only storage of values, in chunks published before the offsets pointing to them.
+     */
+    private final class Arena {
+
+        private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+
+        private int position;
+
+        private long allocatedBytes;
+
+        private long usedBytes;
+
+        long append(byte[] value) {
+            int recordBytes = Integer.BYTES + value.length;
+            ByteBuffer[] current = chunks;
+            if (current.length == 0 || position + recordBytes > current[current.length - 1].capacity()) {
+                ByteBuffer chunk = allocate(Math.max(chunkBytes, recordBytes));
+                current = Arrays.copyOf(current, current.length + 1);
+                current[current.length - 1] = chunk;
+                chunks = current;
+                position = 0;
+                allocatedBytes += chunk.capacity();
+            }
+            ByteBuffer chunk = current[current.length - 1];
+            chunk.putInt(position, value.length);
+            chunk.put(position + Integer.BYTES, value);
+            long offset = ((long) (current.length - 1) << 32) | position;
+            position += recordBytes;
+            usedBytes += recordBytes;
+            return offset;
+        }
+
+        byte[] read(long offset) {
+            ByteBuffer chunk = chunks[(int) (offset >>> 32)];
+            int position = (int) offset;
+            byte[] value = new byte[chunk.getInt(position)];
+            chunk.get(position + Integer.BYTES, value);
+            return value;
+        }
+
+        int recordBytes(long offset) {
+            return Integer.BYTES + chunks[(int) (offset >>> 32)].getInt((int) offset);
+        }
+    }
+
+    private final class Stripe {
+
+        private volatile Table table;
+
+        /** Live keys, read without lock for statistics only. */
+        private volatile int size;
+
+        /** Slots holding a key or a tombstone. */
+        private int used;
+
+        private long garbageBytes;
+
+        /** Keys evicted, read without lock for statistics only. */
+        private volatile long evictions;
+
+        /** Slot after the last evicted key. */
+        private int evictionHand;
+
+        Stripe(int capacity) {
+            this.table = new Table(capacity, new Arena());
+        }
+
+        void put(long storedKey, long hash, byte[] value) {
+            Table current = table;
+            int slot = current.find(storedKey, hash);
+            if (slot >= 0) {
+                long previous = current.offset(slot);
+                LONGS.setRelease(current.slots, slot * SLOT_BYTES + Long.BYTES, current.arena.append(value));
+                garbageBytes += current.arena.recordBytes(previous);
+                compactIfNeeded();
+                return;
+            }
+            if (size >= maxStripeSize) {
+                evictOne();
+                current = table;
+            }
+            if ((used + 1L) * 4 > (long) current.capacity * 3) {
+                // With room for a quarter more keys, so that a stripe replacing keys does not rebuild at every insertion
+                rebuild(tableCapacity(size + 1L + size / 4), garbageBytes * 2 > current.arena.usedBytes);
+                current = table;
+            }
+            current.insert(storedKey, hash, current.arena.append(value));
+            used++;
+            size++;
+        }
+
+        boolean remove(long storedKey, long hash) {
+            Table current = table;
+            int slot = current.find(storedKey, hash);
+            if (slot < 0) {
+                return false;
+            }
+            LONGS.setRelease(current.slots, slot * SLOT_BYTES, TOMBSTONE);
+            garbageBytes += current.arena.recordBytes(current.offset(slot));
+            size--;
+            compactIfNeeded();
+            return true;
+        }
+
+        private void evictOne() {
+            Table current = table;
+            int mask = current.capacity - 1;
+            for (int probes = 0; probes < current.capacity; probes++) {
+                int slot = evictionHand & mask;
+                evictionHand = slot + 1;
+                long storedKey = current.key(slot);
+                if (storedKey != EMPTY && storedKey != TOMBSTONE) {
+                    LONGS.setRelease(current.slots, slot * SLOT_BYTES, TOMBSTONE);
+                    garbageBytes += current.arena.recordBytes(current.offset(slot));
+                    size--;
+                    evictions++;
+                    compactIfNeeded();
+                    return;
+                }
+            }
+        }
+
+        void clear() {
+            table = new Table(MIN_TABLE_CAPACITY, new Arena());
+            size = 0;
+            used = 0;
+            garbageBytes = 0;
+        }
+
+        private void compactIfNeeded() {
+            Table current = table;
+            if (current.arena.allocatedBytes > chunkBytes && garbageBytes * 2 > current.arena.usedBytes) {
+                rebuild(current.capacity, true);
+            }
+        }
+
+        /**
+         * Copy the live entries into a new table, and into a new arena when compacting, then publish it.
+         */
+        private void rebuild(int capacity, boolean compact) {
+            Table current = table;
+            Arena arena = compact ? new Arena() : current.arena;
+            Table next = new Table(capacity, arena);
+            for (int slot = 0; slot < current.capacity; slot++) {
+                long storedKey = current.key(slot);
+                if (storedKey != EMPTY && storedKey != TOMBSTONE) {
+                    long offset = current.offset(slot);
+                    next.insert(storedKey, hash(storedKey - 1), compact ? arena.append(current.arena.read(offset)) : offset);
+                }
+            }
+            table = next;
+            used = size;
+            if (compact) {
+                garbageBytes = 0;
+            }
+        }
+    }
+}
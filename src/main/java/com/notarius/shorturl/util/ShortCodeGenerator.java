@@ -0,0 +1,300 @@
+package com.notarius.shorturl.util;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Derives fixed-length short codes from the SHA-256 digest of a full url, or from a sequence number.
+ * <p>
+ * Every thread owns its {@link MessageDigest} and scratch buffers, so generating a code only allocates the resulting
+ * {@link String} (and the UTF-8 bytes of urls containing non-ASCII characters). The digest is read as 63-bit words
+ * which are written in the configured alphabet straight into a preallocated char buffer, right after the prefix.
+ * <p>
+ * Sequence numbers are scrambled by an affine permutation of the code space, so consecutive numbers give unrelated
+ * but still unique codes.
+ * <p>
+ * Codes of at most {@link #getMaxNumericLength()} characters are also numbers written in the alphabet, most significant
+ * digit first, and convert to and from non-negative {@code long}s with {@link #toCode(String)} and
+ * {@link #toShortUrl(long)}.
+ */
+public class ShortCodeGenerator {
+
+    public static final String BASE62_ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    /**
+     * Characters allowed in an alphabet: they must be usable as-is in a single url path segment.
+     */
+    public static final String ALLOWED_CHARACTERS = BASE62_ALPHABET + "-_";
+
+    private static final int DIGEST_LENGTH = 32;
+
+    private static final int INITIAL_INPUT_CAPACITY = 256;
+
+    private static final BigInteger SEQUENCE_MULTIPLIER = BigInteger.valueOf(0x5DEECE66DL);
+
+    private final String prefix;
+
+    private final char[] alphabet;
+
+    private final int length;
+
+    private final int digitsPerWord;
+
+    private final ThreadLocal<State> state;
+
+    private final BigInteger sequenceSpace;
+
+    private final BigInteger sequenceMultiplier;
+
+    private final int sequenceDigits;
+
+    private final byte[] digitValues = new byte[128];
+
+    public ShortCodeGenerator(String prefix, String alphabet, int length) {
+        if (alphabet == null || alphabet.length() < 2) {
+            throw new IllegalArgumentException("A short code alphabet needs at least 2 characters");
+        }
+        if (alphabet.chars().distinct().count() != alphabet.length() || !alphabet.chars().allMatch(c -> ALLOWED_CHARACTERS.indexOf(c) >= 0)) {
+            throw new IllegalArgumentException("A short code alphabet must be made of distinct characters among " + ALLOWED_CHARACTERS);
+        }
+        this.prefix = prefix;
+        this.alphabet = alphabet.toCharArray();
+        this.length = length;
+        this.digitsPerWord = (int) Math.floor(63 / (Math.log(alphabet.length()) / Math.log(2)));
+        if (length < 1 || length > digitsPerWord * (DIGEST_LENGTH / Long.BYTES)) {
+            throw new IllegalArgumentException(
+                "A short code must be between 1 and " + digitsPerWord * (DIGEST_LENGTH / Long.BYTES) + " characters long"
+            );
+        }
+        Arrays.fill(digitValues, (byte) -1);
+        for (int i = 0; i < this.alphabet.length; i++) {
+            digitValues[this.alphabet[i]] = (byte) i;
+        }
+        this.state = ThreadLocal.withInitial(State::new);
+        this.sequenceDigits = Math.min(length, digitsPerWord);
+        this.sequenceSpace = BigInteger.valueOf(alphabet.length()).pow(sequenceDigits);
+        BigInteger multiplier = SEQUENCE_MULTIPLIER.mod(sequenceSpace);
+        while (!multiplier.gcd(sequenceSpace).equals(BigInteger.ONE)) {
+            multiplier = multiplier.add(BigInteger.ONE).mod(sequenceSpace);
+        }
+        this.sequenceMultiplier = multiplier;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Regular expression matching exactly the codes this generator can produce, without the prefix.
+     *
+     * @return the regular expression.
+     */
+    public String getCodeRegex() {
+        StringBuilder regex = new StringBuilder("[");
+        for (char c : alphabet) {
+            if (c == '-') {
+                regex.append('\\');
+            }
+            regex.append(c);
+        }
+        return regex.append("]{").append(length).append('}').toString();
+    }
+
+    /**
+     * Generate the short code of a full url.
+     *
+     * @param fullUrl the url to shorten, must not be {@code null}.
+     * @return the prefix followed by the short code, which is {@link #getLength()} characters long.
+     */
+    public String generate(String fullUrl) {
+        return generate(fullUrl, 0);
+    }
+
+    /**
+     * Generate an alternative short code of a full url, used to re-probe when the regular code is already taken by
+     * another url.
+     *
+     * @param fullUrl the url to shorten, must not be {@code null}.
+     * @param salt the probe number, {@code 0} giving the same code as {@link #generate(String)}.
+     * @return the prefix followed by the short code, which is {@link #getLength()} characters long.
+     */
+    public String generate(String fullUrl, int salt) {
+        State current = state.get();
+        MessageDigest digest = current.digest;
+        int asciiLength = current.fillAscii(fullUrl);
+        if (asciiLength < 0) {
+            digest.update(fullUrl.getBytes(StandardCharsets.UTF_8));
+        } else {
+            digest.update(current.input, 0, asciiLength);
+        }
+        if (salt != 0) {
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                digest.update((byte) (salt >>> shift));
+            }
+        }
+        byte[] hash = current.hash;
+        try {
+            digest.digest(hash, 0, DIGEST_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException("Unable to compute SHA-256 digest", e);
+        }
+        char[] code = current.code;
+        int radix = alphabet.length;
+        int position = prefix.length();
+        for (int offset = 0; position < code.length; offset += Long.BYTES) {
+            long word = readLong(hash, offset) & Long.MAX_VALUE;
+            for (int i = 0; i < digitsPerWord && position < code.length; i++) {
+                code[position++] = alphabet[(int) (word % radix)];
+                word /= radix;
+            }
+        }
+        return new String(code);
+    }
+
+    /**
+     * Number of distinct codes {@link #generate(long)} can produce.
+     *
+     * @return the size of the sequence code space.
+     */
+    public long getSequenceSpace() {
+        return sequenceSpace.longValueExact();
+    }
+
+    /**
+     * Generate the short code of a sequence number. Distinct numbers below {@link #getSequenceSpace()} always give
+     * distinct codes.
+     *
+     * @param sequence the sequence number, must not be negative.
+     * @return the prefix followed by the short code, which is {@link #getLength()} characters long.
+     */
+    public String generate(long sequence) {
+        long value = BigInteger.valueOf(sequence).multiply(sequenceMultiplier).mod(sequenceSpace).longValueExact();
+        char[] code = state.get().code;
+        int radix = alphabet.length;
+        int position = code.length;
+        for (int i = 0; i < sequenceDigits; i++) {
+            code[--position] = alphabet[(int) (value % radix)];
+            value /= radix;
+        }
+        while (position > prefix.length()) {
+            code[--position] = alphabet[0];
+        }
+        return new String(code);
+    }
+
+    /**
+     * Longest codes that still convert to {@code long}s: the alphabet size to the power of this length fits in 63 bits.
+     *
+     * @return the maximum length of numeric codes.
+     */
+    public int getMaxNumericLength() {
+        return digitsPerWord;
+    }
+
+    /**
+     * Get the number a short url stands for.
+     *
+     * @param shortUrl the prefix followed by a code of {@link #getLength()} characters of the alphabet.
+     * @return the code as a non-negative number, or {@code -1} if {@code shortUrl} is not such a short url.
+     * @throws IllegalStateException if codes are longer than {@link #getMaxNumericLength()}.
+     */
+    public long toCode(String shortUrl) {
+        checkNumeric();
+        if (shortUrl == null || shortUrl.length() != prefix.length() + length || !shortUrl.startsWith(prefix)) {
+            return -1;
+        }
+        int radix = alphabet.length;
+        long code = 0;
+        for (int i = prefix.length(); i < shortUrl.length(); i++) {
+            char c = shortUrl.charAt(i);
+            int digit = c < digitValues.length ? digitValues[c] : -1;
+            if (digit < 0) {
+                return -1;
+            }
+            code = code * radix + digit;
+        }
+        return code;
+    }
+
+    /**
+     * Render the short url of a number, the reverse of {@link #toCode(String)}.
+     *
+     * @param code the code as a number, must not be negative.
+     * @return the prefix followed by the code, which is {@link #getLength()} characters long.
+     * @throws IllegalStateException if codes are longer than {@link #getMaxNumericLength()}.
+     */
+    public String toShortUrl(long code) {
+        checkNumeric();
+        if (code < 0) {
+            throw new IllegalArgumentException("A short code cannot be negative: " + code);
+        }
+        char[] chars = state.get().code;
+        int radix = alphabet.length;
+        for (int position = chars.length - 1; position >= prefix.length(); position--) {
+            chars[position] = alphabet[(int) (code % radix)];
+            code /= radix;
+        }
+        if (code != 0) {
+            throw new IllegalArgumentException("A short code must have at most " + length + " digits");
+        }
+        return new String(chars);
+    }
+
+    private void checkNumeric() {
+        if (length > digitsPerWord) {
+            throw new IllegalStateException("Short codes of more than " + digitsPerWord + " characters are not numbers");
+        }
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xff);
+        }
+        return value;
+    }
+
+    private final class State {
+
+        private final MessageDigest digest;
+
+        private final byte[] hash = new byte[DIGEST_LENGTH];
+
+        private final char[] code = new char[prefix.length() + length];
+
+        private byte[] input = new byte[INITIAL_INPUT_CAPACITY];
+
+        private State() {
+            prefix.getChars(0, prefix.length(), code, 0);
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("Unable to find SHA-256 algorithm", e);
+            }
+        }
+
+        /**
+         * Copy an ASCII url into the input buffer.
+         *
+         * @return the number of bytes written, or {@code -1} if the url contains non-ASCII characters.
+         */
+        private int fillAscii(String value) {
+            int size = value.length();
+            if (input.length < size) {
+                input = new byte[Math.max(size, input.length * 2)];
+            }
+            for (int i = 0; i < size; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    return -1;
+                }
+                input[i] = (byte) c;
+            }
+            return size;
+        }
+    }
+}
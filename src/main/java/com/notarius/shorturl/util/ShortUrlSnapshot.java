@@ -0,0 +1,306 @@
+package com.notarius.shorturl.util;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+/**
+ * A read-only file of short urls and their targets, memory-mapped so lookups never touch the heap besides the result.
+ * <p>
+ * Short urls are stored as the number their code stands for, see {@link ShortCodeGenerator#toCode(String)}. The file
+ * holds a header, the records, then the codes in increasing order and the position of the record of each code. A lookup
+ * is a binary search of the codes. Records are the expiration as epoch milliseconds ({@link Long#MIN_VALUE} when none),
+ * a 32-bit target length and the UTF-8 target.
+ * <p>
+ * A single mapping is limited to 2 GB, so the file is mapped in regions of a power of two bytes, 1 GB unless written
+ * otherwise. Records are padded so none spans two regions, and the index is aligned on 8 bytes, so every read falls in
+ * a single region. The size of the file is only limited by the address space.
+ * <p>
+ * Lookups are thread-safe, as they only use absolute reads of the mappings.
+ */
+public class ShortUrlSnapshot {
+
+    private static final int MAGIC = 0x53555331;
+
+    private static final int VERSION = 3;
+
+    private static final int HEADER_SIZE = 24;
+
+    private static final int DEFAULT_REGION_SHIFT = 30;
+
+    private static final long NO_EXPIRATION = Long.MIN_VALUE;
+
+    private final MappedByteBuffer[] regions;
+
+    private final int regionShift;
+
+    private final long regionMask;
+
+    private final long byteSize;
+
+    private final int size;
+
+    private final long codesPosition;
+
+    private final long positionsPosition;
+
+    private ShortUrlSnapshot(FileChannel channel) throws IOException {
+        this.byteSize = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (byteSize < HEADER_SIZE || channel.read(header, 0) != HEADER_SIZE) {
+            throw new IOException("Not a short url snapshot");
+        }
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Not a short url snapshot");
+        }
+        this.size = header.getInt(8);
+        this.regionShift = header.getInt(12);
+        this.codesPosition = header.getLong(16);
+        this.positionsPosition = codesPosition + (long) size * Long.BYTES;
+        if (
+            regionShift < 6 ||
+            regionShift > DEFAULT_REGION_SHIFT ||
+            size < 0 ||
+            codesPosition < HEADER_SIZE ||
+            codesPosition % Long.BYTES != 0
+        ) {
+            throw new IOException("Corrupted short url snapshot");
+        }
+        if (positionsPosition + (long) size * Long.BYTES != byteSize) {
+            throw new IOException("Truncated short url snapshot");
+        }
+        this.regionMask = (1L << regionShift) - 1;
+        this.regions = new MappedByteBuffer[(int) ((byteSize + regionMask) >>> regionShift)];
+        for (int i = 0; i < regions.length; i++) {
+            long start = (long) i << regionShift;
+            regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(regionMask + 1, byteSize - start));
+        }
+    }
+
+    /**
+     * Map a snapshot file.
+     *
+     * @param file the snapshot file.
+     * @return the snapshot.
+     * @throws IOException if the file cannot be read or is not a snapshot.
+     */
+    public static ShortUrlSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mappings outlive the channel
+            return new ShortUrlSnapshot(channel);
+        }
+    }
+
+    /**
+     * Start writing a snapshot file. The file is complete once the writer is closed.
+     *
+     * @param file the snapshot file to create or replace.
+     * @return the writer.
+     * @throws IOException if the file cannot be created.
+     */
+    public static Writer writer(Path file) throws IOException {
+        return new Writer(file, DEFAULT_REGION_SHIFT);
+    }
+
+    /**
+     * Start writing a snapshot file mapped in smaller regions, to exercise records padded to the next region.
+     */
+    static Writer writer(Path file, int regionShift) throws IOException {
+        return new Writer(file, regionShift);
+    }
+
+    /**
+     * Look up a short url.
+     *
+     * @param code the code of the short url.
+     * @return the entry, or {@code null} if the short url is not in the snapshot.
+     */
+    public Entry get(long code) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleCode = getLong(codesPosition + (long) middle * Long.BYTES);
+            if (middleCode < code) {
+                low = middle + 1;
+            } else if (middleCode > code) {
+                high = middle - 1;
+            } else {
+                return read(getLong(positionsPosition + (long) middle * Long.BYTES), code);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of short urls in the snapshot.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the size of the snapshot file, in bytes.
+     */
+    public long getByteSize() {
+        return byteSize;
+    }
+
+    private long getLong(long position) {
+        return regions[(int) (position >>> regionShift)].getLong((int) (position & regionMask));
+    }
+
+    private Entry read(long position, long code) {
+        MappedByteBuffer region = regions[(int) (position >>> regionShift)];
+        int offset = (int) (position & regionMask);
+        long expiration = region.getLong(offset);
+        int length = region.getInt(offset + Long.BYTES);
+        byte[] fullUrl = new byte[length];
+        region.get(offset + Long.BYTES + Integer.BYTES, fullUrl);
+        return new Entry(
+            code,
+            new String(fullUrl, StandardCharsets.UTF_8),
+            expiration == NO_EXPIRATION ? null : ZonedDateTime.ofInstant(Instant.ofEpochMilli(expiration), ZoneId.systemDefault())
+        );
+    }
+
+    /**
+     * A short url of the snapshot, with its target.
+     */
+    public static class Entry {
+
+        private final long code;
+
+        private final String fullUrl;
+
+        private final ZonedDateTime expirationDateTime;
+
+        public Entry(long code, String fullUrl, ZonedDateTime expirationDateTime) {
+            this.code = code;
+            this.fullUrl = fullUrl;
+            this.expirationDateTime = expirationDateTime;
+        }
+
+        public long getCode() {
+            return code;
+        }
+
+        public String getFullUrl() {
+            return fullUrl;
+        }
+
+        public ZonedDateTime getExpirationDateTime() {
+            return expirationDateTime;
+        }
+    }
+
+    /**
+     * Writer of a snapshot file, streaming the records to disk and keeping only the index in memory (16 bytes per url).
+     */
+    public static class Writer implements Closeable {
+
+        private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+        private final Path file;
+
+        private final DataOutputStream output;
+
+        private final int regionShift;
+
+        private long[] codes = new long[1024];
+
+        private long[] positions = new long[1024];
+
+        private int size;
+
+        private long position = HEADER_SIZE;
+
+        private Writer(Path file, int regionShift) throws IOException {
+            this.file = file;
+            this.regionShift = regionShift;
+            this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+            output.write(new byte[HEADER_SIZE]);
+        }
+
+        /**
+         * Add a short url. Short urls must be added in increasing order of their code, each only once.
+         *
+         * @param code the code of the short url.
+         * @param fullUrl its target.
+         * @param expirationDateTime its expiration, or {@code null}.
+         * @throws IOException if the record cannot be written.
+         * @throws IllegalArgumentException if the code is out of order, or the target larger than a region.
+         */
+        public void add(long code, String fullUrl, ZonedDateTime expirationDateTime) throws IOException {
+            if (size > 0 && code <= codes[size - 1]) {
+                throw new IllegalArgumentException("Short url codes not in increasing order: " + code);
+            }
+            byte[] value = fullUrl.getBytes(StandardCharsets.UTF_8);
+            long recordSize = Long.BYTES + Integer.BYTES + value.length;
+            if (recordSize > 1L << regionShift) {
+                throw new IllegalArgumentException("Target too long for a snapshot: " + value.length + " bytes");
+            }
+            if (size == codes.length) {
+                if (size == MAX_SIZE) {
+                    throw new IOException("Too many short urls for a snapshot");
+                }
+                int capacity = (int) Math.min(size * 2L, MAX_SIZE);
+                codes = Arrays.copyOf(codes, capacity);
+                positions = Arrays.copyOf(positions, capacity);
+            }
+            // Records start in the next region rather than span two
+            long regionEnd = ((position >>> regionShift) + 1) << regionShift;
+            if (position + recordSize > regionEnd) {
+                pad(regionEnd - position);
+            }
+            codes[size] = code;
+            positions[size] = position;
+            size++;
+            output.writeLong(expirationDateTime == null ? NO_EXPIRATION : expirationDateTime.toInstant().toEpochMilli());
+            output.writeInt(value.length);
+            output.write(value);
+            position += recordSize;
+        }
+
+        /**
+         * Write the index and the header, completing the file.
+         */
+        @Override
+        public void close() throws IOException {
+            try (output) {
+                pad(-position & (Long.BYTES - 1));
+                for (int i = 0; i < size; i++) {
+                    output.writeLong(codes[i]);
+                }
+                for (int i = 0; i < size; i++) {
+                    output.writeLong(positions[i]);
+                }
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(regionShift).putLong(position).flip();
+                channel.write(header, 0);
+                channel.force(true);
+            }
+        }
+
+        private void pad(long bytes) throws IOException {
+            for (long i = 0; i < bytes; i++) {
+                output.write(0);
+            }
+            position += bytes;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.notarius.shorturl.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+/**
+ * An immutable in-memory index of short urls and their targets, built once and queried in constant time.
+ * <p>
+ * Short urls are keyed by the number their code stands for, see {@link ShortCodeGenerator#toCode(String)}, and mapped
+ * by a {@link MinimalPerfectHash} of a bijective mix of that number to a slot of a bit-packed array of offsets, each slot
+ * using just enough bits to address a contiguous byte region of records. A record is the code as 8 big-endian bytes, the
+ * varint length and UTF-8 bytes of the target, then a flag byte followed by the expiration as epoch milliseconds when
+ * there is one. The stored code is compared on lookup, so unknown short urls are not matched.
+ */
+public class StaticUrlIndex {
+
+    private final MinimalPerfectHash hash;
+
+    private final long[] offsets;
+
+    private final int offsetBits;
+
+    private final byte[] records;
+
+    private StaticUrlIndex(MinimalPerfectHash hash, long[] offsets, int offsetBits, byte[] records) {
+        this.hash = hash;
+        this.offsets = offsets;
+        this.offsetBits = offsetBits;
+        this.records = records;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Look up a short url.
+     *
+     * @param code the code of the short url.
+     * @return the entry, or {@code null} if the short url is not in the index.
+     */
+    public ShortUrlSnapshot.Entry get(long code) {
+        int slot = hash.get(hash(code));
+        if (slot < 0 || slot >= hash.size()) {
+            return null;
+        }
+        int position = (int) offset(slot);
+        if (readLong(position) != code) {
+            return null;
+        }
+        position += Long.BYTES;
+        int fullUrlLength = readVarint(position);
+        position += varintSize(fullUrlLength);
+        String fullUrl = new String(records, position, fullUrlLength, StandardCharsets.UTF_8);
+        position += fullUrlLength;
+        ZonedDateTime expirationDateTime = null;
+        if (records[position] != 0) {
+            expirationDateTime = ZonedDateTime.ofInstant(Instant.ofEpochMilli(readLong(position + 1)), ZoneId.systemDefault());
+        }
+        return new ShortUrlSnapshot.Entry(code, fullUrl, expirationDateTime);
+    }
+
+    /**
+     * @return the number of short urls in the index.
+     */
+    public int size() {
+        return hash.size();
+    }
+
+    /**
+     * @return the memory used by the minimal perfect hash, in bits per short url.
+     */
+    public double getHashBitsPerKey() {
+        return size() == 0 ? 0 : (double) hash.getBitSize() / size();
+    }
+
+    /**
+     * @return the memory used by the whole index, hash, offsets and records, in bytes per short url.
+     */
+    public double getBytesPerKey() {
+        return size() == 0 ? 0 : (hash.getBitSize() / 8.0 + offsets.length * (double) Long.BYTES + records.length) / size();
+    }
+
+    private long offset(int slot) {
+        long bit = (long) slot * offsetBits;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        long value = offsets[word] >>> shift;
+        if (shift + offsetBits > Long.SIZE) {
+            value |= offsets[word + 1] << (Long.SIZE - shift);
+        }
+        return value & ((1L << offsetBits) - 1);
+    }
+
+    private long readLong(int position) {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = (value << 8) | (records[position + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private int readVarint(int position) {
+        int value = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = records[position++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static int varintSize(int value) {
+        return value < (1 << 7) ? 1 : value < (1 << 14) ? 2 : value < (1 << 21) ? 3 : value < (1 << 28) ? 4 : 5;
+    }
+
+    /**
+     * Mix the bits of a code, so consecutive codes spread over the hash. The mix is a bijection, so distinct codes never
+     * share a hash.
+     */
+    private static long hash(long code) {
+        long hash = code;
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Builder of an index, keeping the records and 12 bytes per short url until the index is built.
+     */
+    public static class Builder {
+
+        private final ByteArrayOutputStream records = new ByteArrayOutputStream();
+
+        private long[] hashes = new long[1024];
+
+        private int[] positions = new int[1024];
+
+        private int size;
+
+        private Builder() {}
+
+        /**
+         * Add a short url. Each short url must be added only once.
+         *
+         * @param code the code of the short url.
+         * @param fullUrl its target.
+         * @param expirationDateTime its expiration, or {@code null}.
+         * @return this builder.
+         */
+        public Builder add(long code, String fullUrl, ZonedDateTime expirationDateTime) {
+            byte[] value = fullUrl.getBytes(StandardCharsets.UTF_8);
+            if ((long) records.size() + Long.BYTES + value.length + 5 + 1 + Long.BYTES > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Static url index larger than 2 GB");
+            }
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            hashes[size] = hash(code);
+            positions[size] = records.size();
+            size++;
+            writeLong(code);
+            writeVarint(value.length);
+            records.writeBytes(value);
+            if (expirationDateTime == null) {
+                records.write(0);
+            } else {
+                records.write(1);
+                writeLong(expirationDateTime.toInstant().toEpochMilli());
+            }
+            return this;
+        }
+
+        public StaticUrlIndex build() {
+            long[] distinct = distinctHashes();
+            MinimalPerfectHash hash = new MinimalPerfectHash(distinct);
+            long[] hashBySlot = new long[distinct.length];
+            for (long key : distinct) {
+                hashBySlot[hash.get(key)] = key;
+            }
+            byte[] bytes = records.toByteArray();
+            int offsetBits = Math.max(1, Long.SIZE - Long.numberOfLeadingZeros(bytes.length));
+            long[] offsets = new long[(int) (((long) distinct.length * offsetBits + 63) >>> 6) + 1];
+            for (int i = 0; i < size; i++) {
+                int slot = hash.get(hashes[i]);
+                if (slot >= 0 && hashes[i] == hashBySlot[slot]) {
+                    long bit = (long) slot * offsetBits;
+                    int word = (int) (bit >>> 6);
+                    int shift = (int) (bit & 63);
+                    offsets[word] |= (long) positions[i] << shift;
+                    if (shift + offsetBits > Long.SIZE) {
+                        offsets[word + 1] |= (long) positions[i] >>> (Long.SIZE - shift);
+                    }
+                }
+            }
+            return new StaticUrlIndex(hash, offsets, offsetBits, bytes);
+        }
+
+        /**
+         * Get the hashes of the codes added only once, leaving out codes added twice.
+         */
+        private long[] distinctHashes() {
+            long[] sorted = Arrays.copyOf(hashes, size);
+            Arrays.sort(sorted);
+            int count = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                boolean shared = (i > 0 && sorted[i] == sorted[i - 1]) || (i + 1 < sorted.length && sorted[i] == sorted[i + 1]);
+                if (!shared) {
+                    sorted[count++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, count);
+        }
+
+        private void writeLong(long value) {
+            for (int shift = Long.SIZE - 8; shift >= 0; shift -= 8) {
+                records.write((int) (value >>> shift));
+            }
+        }
+
+        private void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                records.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            records.write(value);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.notarius.shorturl.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel (Varghese and Lauck) firing keys at their deadline, to the tick, in constant time per key.
+ * <p>
+ * The wheel has {@value #LEVELS} levels of {@value #SLOTS} slots: a slot of level {@code n} spans {@code 64^n} ticks, so
+ * the wheel covers {@code 64^4} ticks, 194 days with one-second ticks. A key is scheduled in the slot of the finest level
+ * still spanning its deadline. When the current tick enters a slot of a coarser level, the keys of that slot are moved
+ * down to finer levels, and the keys of the level 0 slot of the tick are fired. Each key is moved at most once per
+ * level. Keys due beyond the horizon wait in the last slot of the coarsest level, and are scheduled again from there.
+ * <p>
+ * This class is not thread-safe: it is meant to be owned by a single thread, which schedules keys and advances time.
+ *
+ * @param <K> the type of the keys.
+ */
+public class TimingWheel<K> {
+
+    public static final int LEVELS = 4;
+
+    public static final int SLOTS = 64;
+
+    private static final int SLOT_BITS = 6;
+
+    private final long tickMillis;
+
+    private final List<List<Timer<K>>> slots;
+
+    private final List<Timer<K>> due = new ArrayList<>();
+
+    private long currentTick;
+
+    private int size;
+
+    /**
+     * @param tickMillis the duration of a tick.
+     * @param startMillis the current time.
+     */
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("A timing wheel needs a positive tick");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.slots = new ArrayList<>(LEVELS * SLOTS);
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedule a key. A key may be scheduled several times, and is then fired as many times.
+     *
+     * @param key the key.
+     * @param deadlineMillis when to fire the key; keys already due are fired by the next {@link #advance(long, Consumer)}.
+     */
+    public void schedule(K key, long deadlineMillis) {
+        // Deadlines are rounded up, so keys never fire early
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        Timer<K> timer = new Timer<>(key, deadlineTick);
+        if (deadlineTick <= currentTick) {
+            due.add(timer);
+        } else {
+            place(timer);
+        }
+        size++;
+    }
+
+    /**
+     * Advance time, firing the keys due in between.
+     *
+     * @param nowMillis the current time.
+     * @param fired called with each fired key.
+     * @return the number of keys fired.
+     */
+    public int advance(long nowMillis, Consumer<K> fired) {
+        int count = fire(due, fired);
+        due.clear();
+        long nowTick = nowMillis / tickMillis;
+        while (currentTick < nowTick) {
+            currentTick++;
+            int rolled = 0;
+            while (rolled + 1 < LEVELS && (currentTick & ((1L << (SLOT_BITS * (rolled + 1))) - 1)) == 0) {
+                rolled++;
+            }
+            // Coarser levels first, as their keys may move to the slots of finer levels cascaded next
+            for (int level = rolled; level > 0; level--) {
+                List<Timer<K>> slot = slot(level, currentTick);
+                if (!slot.isEmpty()) {
+                    List<Timer<K>> timers = new ArrayList<>(slot);
+                    slot.clear();
+                    timers.forEach(this::place);
+                }
+            }
+            List<Timer<K>> slot = slot(0, currentTick);
+            if (!slot.isEmpty()) {
+                List<Timer<K>> timers = new ArrayList<>(slot);
+                slot.clear();
+                count += fire(timers, fired);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of keys scheduled and not fired yet.
+     */
+    public int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    private int fire(List<Timer<K>> timers, Consumer<K> fired) {
+        int count = 0;
+        for (Timer<K> timer : timers) {
+            if (timer.deadlineTick > currentTick) {
+                // Due beyond the horizon when it was placed
+                place(timer);
+            } else {
+                size--;
+                count++;
+                fired.accept(timer.key);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Put a timer in the slot of the finest level spanning its deadline, relative to the current tick: a slot that is
+     * either ahead, or the current one of a level being cascaded.
+     */
+    private void place(Timer<K> timer) {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            if ((timer.deadlineTick >>> shift) - (currentTick >>> shift) < SLOTS) {
+                slot(level, timer.deadlineTick).add(timer);
+                return;
+            }
+        }
+        slot(LEVELS - 1, currentTick + ((long) (SLOTS - 1) << (SLOT_BITS * (LEVELS - 1)))).add(timer);
+    }
+
+    private List<Timer<K>> slot(int level, long tick) {
+        return slots.get(level * SLOTS + (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1)));
+    }
+
+    private static class Timer<K> {
+
+        private final K key;
+
+        private final long deadlineTick;
+
+        Timer(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
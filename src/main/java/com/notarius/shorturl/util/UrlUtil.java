@@ -9,18 +9,53 @@ public class UrlUtil {
 
     public static final String HTTP_SHORT_URL = "http://short.url/";
 
-    public static String generateShortUrl(String fullUrl) {
+    /**
+     * Number of hexadecimal digits of the codes generated before they were base62.
+     */
+    public static final int LEGACY_SHORT_CODE_LENGTH = 10;
+
+    /**
+     * Size of the digest of a full url, in bytes.
+     */
+    public static final int DIGEST_SIZE = 32;
+
+    // MessageDigest instances are not thread-safe, and costly to look up on every call
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    /**
+     * Generate the short url a full url was given when codes were the first hexadecimal digits of its digest. Urls
+     * shortened then keep that code, so it is looked up along with the current one before shortening a url again.
+     *
+     * @param fullUrl the url to shorten.
+     * @return the legacy short url, or an empty string if {@code fullUrl} is {@code null}.
+     */
+    public static String generateLegacyShortUrl(String fullUrl) {
         if (fullUrl == null) {
             return "";
         }
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] encodedhash = digest.digest(fullUrl.getBytes(StandardCharsets.UTF_8));
-            String hash = HexFormat.of().formatHex(encodedhash);
-            var normalizedHash = hash.length() > 10 ? hash.substring(0, 10) : hash;
-            return HTTP_SHORT_URL + normalizedHash;
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Unable to find SHA-256 algorithm", e);
+        return HTTP_SHORT_URL + HexFormat.of().formatHex(digest(fullUrl), 0, LEGACY_SHORT_CODE_LENGTH / 2);
+    }
+
+    public static String toShortUrl(String code) {
+        return HTTP_SHORT_URL + code;
+    }
+
+    /**
+     * Get the fixed-width digest of a full url, the SHA-256 of its UTF-8 bytes, under which it is indexed.
+     *
+     * @param fullUrl the full url.
+     * @return the {@value #DIGEST_SIZE} bytes digest, or {@code null} if {@code fullUrl} is {@code null}.
+     */
+    public static byte[] digest(String fullUrl) {
+        if (fullUrl == null) {
+            return null;
         }
+        return DIGEST.get().digest(fullUrl.getBytes(StandardCharsets.UTF_8));
     }
 }
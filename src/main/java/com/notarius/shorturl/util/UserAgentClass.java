@@ -0,0 +1,82 @@
+package com.notarius.shorturl.util;
+
+import java.util.Locale;
+
+/**
+ * Coarse class of the user agent of a request, stored as a single byte in {@link ClickEvent}s.
+ */
+public enum UserAgentClass {
+    UNKNOWN((byte) 0),
+    BROWSER((byte) 1),
+    MOBILE((byte) 2),
+    BOT((byte) 3),
+    LIBRARY((byte) 4);
+
+    private static final String[] BOT_MARKERS = { "bot", "crawl", "spider", "slurp", "preview", "facebookexternalhit" };
+
+    private static final String[] LIBRARY_PREFIXES = {
+        "curl/",
+        "wget/",
+        "python",
+        "java/",
+        "okhttp",
+        "go-http-client",
+        "apache-httpclient",
+        "axios",
+        "node",
+    };
+
+    private static final String[] MOBILE_MARKERS = { "mobi", "android", "iphone", "ipad" };
+
+    private final byte code;
+
+    UserAgentClass(byte code) {
+        this.code = code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Classify a {@code User-Agent} header.
+     *
+     * @param userAgent the header, or {@code null}.
+     * @return the class of the user agent.
+     */
+    public static UserAgentClass of(String userAgent) {
+        if (userAgent == null || userAgent.isBlank()) {
+            return UNKNOWN;
+        }
+        String value = userAgent.toLowerCase(Locale.ROOT);
+        for (String marker : BOT_MARKERS) {
+            if (value.contains(marker)) {
+                return BOT;
+            }
+        }
+        for (String prefix : LIBRARY_PREFIXES) {
+            if (value.startsWith(prefix)) {
+                return LIBRARY;
+            }
+        }
+        for (String marker : MOBILE_MARKERS) {
+            if (value.contains(marker)) {
+                return MOBILE;
+            }
+        }
+        return value.startsWith("mozilla/") || value.startsWith("opera") ? BROWSER : UNKNOWN;
+    }
+
+    /**
+     * @param code the code of a class.
+     * @return the class, or {@link #UNKNOWN} if the code is unknown.
+     */
+    public static UserAgentClass fromCode(byte code) {
+        for (UserAgentClass userAgentClass : values()) {
+            if (userAgentClass.code == code) {
+                return userAgentClass;
+            }
+        }
+        return UNKNOWN;
+    }
+}
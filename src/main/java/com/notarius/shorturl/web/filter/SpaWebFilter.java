@@ -5,12 +5,19 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.regex.Pattern;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 public class SpaWebFilter extends OncePerRequestFilter {
 
+    private final Pattern shortCodePath;
+
+    public SpaWebFilter(String shortCodeRegex) {
+        this.shortCodePath = Pattern.compile("/" + shortCodeRegex);
+    }
+
     /**
-     * Forwards any unmapped paths (except those containing a period) to the client {@code index.html}.
+     * Forwards any unmapped paths (except those containing a period, and short url codes) to the client {@code index.html}.
      */
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -23,6 +30,7 @@ public class SpaWebFilter extends OncePerRequestFilter {
             !path.startsWith("/v3/api-docs") &&
             !path.startsWith("/h2-console") &&
             !path.contains(".") &&
+            !shortCodePath.matcher(path).matches() &&
             path.matches("/(.*)")
         ) {
             request.getRequestDispatcher("/index.html").forward(request, response);
@@ -0,0 +1,77 @@
+package com.notarius.shorturl.web.rest;
+
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.config.ShortUrlConfiguration;
+import com.notarius.shorturl.service.ClickCounterService;
+import com.notarius.shorturl.service.ClickEventLogService;
+import com.notarius.shorturl.service.HotLinkService;
+import com.notarius.shorturl.service.UrlResolverService;
+import com.notarius.shorturl.util.UrlUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+/**
+ * Controller redirecting short urls to their target.
+ * <p>
+ * This is the public entry point of {@link UrlUtil#HTTP_SHORT_URL}: it is deliberately not a transactional
+ * {@code @RestController} and never serializes the {@link com.notarius.shorturl.domain.Url} entity.
+ */
+@Controller
+public class RedirectController {
+
+    private final UrlResolverService urlResolverService;
+
+    private final ClickCounterService clickCounterService;
+
+    private final ClickEventLogService clickEventLogService;
+
+    private final HotLinkService hotLinkService;
+
+    private final HttpStatus redirectStatus;
+
+    public RedirectController(
+        UrlResolverService urlResolverService,
+        ClickCounterService clickCounterService,
+        ClickEventLogService clickEventLogService,
+        HotLinkService hotLinkService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.urlResolverService = urlResolverService;
+        this.clickCounterService = clickCounterService;
+        this.clickEventLogService = clickEventLogService;
+        this.hotLinkService = hotLinkService;
+        this.redirectStatus = applicationProperties.getResolver().isPermanentRedirect() ? HttpStatus.MOVED_PERMANENTLY : HttpStatus.FOUND;
+    }
+
+    /**
+     * {@code GET  /:code} : redirect to the target of the "code" short url.
+     *
+     * @param code the code of the short url to follow.
+     * @param request the request, recorded in the click log.
+     * @return the {@link ResponseEntity} with status {@code 302 (Found)}, or {@code 301 (Moved Permanently)} when
+     * permanent redirects are enabled, and the target in the {@code Location} header, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping(ShortUrlConfiguration.SHORT_CODE_PATH)
+    public ResponseEntity<Void> redirect(@PathVariable("code") String code, HttpServletRequest request) {
+        String shortUrl = UrlUtil.toShortUrl(code);
+        return urlResolverService
+            .resolve(shortUrl)
+            .map(resolvedUrl -> {
+                clickCounterService.record(shortUrl, request.getRemoteAddr(), request.getHeader(HttpHeaders.USER_AGENT));
+                hotLinkService.record(shortUrl);
+                clickEventLogService.record(
+                    shortUrl,
+                    request.getHeader(HttpHeaders.REFERER),
+                    request.getHeader(HttpHeaders.USER_AGENT),
+                    request.getRemoteAddr()
+                );
+                return ResponseEntity.status(redirectStatus).header(HttpHeaders.LOCATION, resolvedUrl.getFullUrl()).<Void>build();
+            })
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
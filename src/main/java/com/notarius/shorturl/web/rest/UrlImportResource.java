@@ -0,0 +1,81 @@
+package com.notarius.shorturl.web.rest;
+
+import com.notarius.shorturl.domain.UrlImport;
+import com.notarius.shorturl.repository.UrlImportRepository;
+import com.notarius.shorturl.service.UrlImportService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for bulk imports of {@link com.notarius.shorturl.domain.Url}s.
+ * <p>
+ * It is not transactional: the {@link UrlImportService} commits each imported batch on its own.
+ */
+@RestController
+@RequestMapping("/api/url-imports")
+public class UrlImportResource {
+
+    private static final Logger log = LoggerFactory.getLogger(UrlImportResource.class);
+
+    private static final String NAME_PATTERN = "[0-9A-Za-z_.\\-]{1,100}";
+
+    private final UrlImportService urlImportService;
+
+    private final UrlImportRepository urlImportRepository;
+
+    public UrlImportResource(UrlImportService urlImportService, UrlImportRepository urlImportRepository) {
+        this.urlImportService = urlImportService;
+        this.urlImportRepository = urlImportRepository;
+    }
+
+    /**
+     * {@code POST  /url-imports/:name} : Import the CSV rows of the request body, or resume their import.
+     *
+     * @param name the name of the import.
+     * @param input the rows to import: full url, then optional expiration.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the completed import.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(value = "/{name:" + NAME_PATTERN + "}", consumes = "text/csv")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN')")
+    public ResponseEntity<UrlImport> importCsvUrls(@PathVariable("name") String name, InputStream input) throws IOException {
+        log.debug("REST request to import CSV Urls : {}", name);
+        return ResponseEntity.ok(urlImportService.importUrls(name, input, UrlImportService.Format.CSV));
+    }
+
+    /**
+     * {@code POST  /url-imports/:name} : Import the NDJSON rows of the request body, or resume their import.
+     *
+     * @param name the name of the import.
+     * @param input the rows to import: objects with a {@code fullUrl} and an optional {@code expirationDateTime}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the completed import.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(value = "/{name:" + NAME_PATTERN + "}", consumes = "application/x-ndjson")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN')")
+    public ResponseEntity<UrlImport> importNdjsonUrls(@PathVariable("name") String name, InputStream input) throws IOException {
+        log.debug("REST request to import NDJSON Urls : {}", name);
+        return ResponseEntity.ok(urlImportService.importUrls(name, input, UrlImportService.Format.NDJSON));
+    }
+
+    /**
+     * {@code GET  /url-imports/:name} : get the progress of the "name" import.
+     *
+     * @param name the name of the import.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{name:" + NAME_PATTERN + "}")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN')")
+    public ResponseEntity<UrlImport> getUrlImport(@PathVariable("name") String name) {
+        log.debug("REST request to get UrlImport : {}", name);
+        Optional<UrlImport> urlImport = urlImportRepository.findById(name);
+        return ResponseUtil.wrapOrNotFound(urlImport);
+    }
+}
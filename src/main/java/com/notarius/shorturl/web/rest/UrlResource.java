@@ -1,11 +1,22 @@
 package com.notarius.shorturl.web.rest;
 
 import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.domain.UrlStats;
+import com.notarius.shorturl.domain.enumeration.StatsGranularity;
 import com.notarius.shorturl.repository.UrlRepository;
-import com.notarius.shorturl.util.UrlUtil;
+import com.notarius.shorturl.repository.UrlStatsRepository;
+import com.notarius.shorturl.service.UrlExportService;
+import com.notarius.shorturl.service.UrlResolverService;
+import com.notarius.shorturl.service.UrlShortenerService;
+import com.notarius.shorturl.service.UrlWriteBehindService;
+import com.notarius.shorturl.service.dto.ShortenedUrlDTO;
+import com.notarius.shorturl.service.dto.UniqueVisitorsDTO;
+import com.notarius.shorturl.util.HyperLogLog;
+import com.notarius.shorturl.util.ShortCodeGenerator;
 import com.notarius.shorturl.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Objects;
@@ -13,9 +24,16 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
@@ -31,20 +49,57 @@ public class UrlResource {
 
     private static final String ENTITY_NAME = "url";
 
+    private static final int MAX_BATCH_SIZE = 10_000;
+
+    private static final int MAX_PAGE_SIZE = 1_000;
+
+    private static final int MAX_STATS_BUCKETS = 10_000;
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final UrlRepository urlRepository;
 
-    public UrlResource(UrlRepository urlRepository) {
+    private final UrlResolverService urlResolverService;
+
+    private final UrlShortenerService urlShortenerService;
+
+    private final UrlWriteBehindService urlWriteBehindService;
+
+    private final UrlExportService urlExportService;
+
+    private final UrlStatsRepository urlStatsRepository;
+
+    private final ShortCodeGenerator shortCodeGenerator;
+
+    public UrlResource(
+        UrlRepository urlRepository,
+        UrlResolverService urlResolverService,
+        UrlShortenerService urlShortenerService,
+        UrlWriteBehindService urlWriteBehindService,
+        UrlExportService urlExportService,
+        UrlStatsRepository urlStatsRepository,
+        ShortCodeGenerator shortCodeGenerator
+    ) {
         this.urlRepository = urlRepository;
+        this.urlResolverService = urlResolverService;
+        this.urlShortenerService = urlShortenerService;
+        this.urlWriteBehindService = urlWriteBehindService;
+        this.urlExportService = urlExportService;
+        this.urlStatsRepository = urlStatsRepository;
+        this.shortCodeGenerator = shortCodeGenerator;
     }
 
     /**
      * {@code POST  /urls} : Create a new url.
+     * <p>
+     * When created write-behind, the new url is resolved and found by id right away, but only listed once inserted, and
+     * cannot be updated or deleted until then.
      *
      * @param url the url to create.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new url, or with status {@code 400 (Bad Request)} if the url has already an ID.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new url, or with status {@code 400 (Bad Request)} if the url has already an ID or has no full url.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("")
@@ -53,26 +108,42 @@ public class UrlResource {
         if (url.getId() != null) {
             throw new BadRequestAlertException("A new url cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        var shortUrl = UrlUtil.generateShortUrl(url.getFullUrl());
-        Url resultUrl = urlRepository
-            .findByShortUrl(shortUrl)
-            .orElseGet(() -> {
-                url.setShortUrl(shortUrl);
-                url.setCreationDateTime(ZonedDateTime.now());
-                return urlRepository.save(url);
-            });
+        if (url.getFullUrl() == null) {
+            throw new BadRequestAlertException("A new url must have a full url", ENTITY_NAME, "fullurlnull");
+        }
+        Url resultUrl = urlWriteBehindService.shorten(url);
         return ResponseEntity.created(new URI("/api/urls/" + resultUrl.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, resultUrl.getId().toString()))
             .body(resultUrl);
     }
 
+    /**
+     * {@code POST  /urls/batch} : Shorten a batch of full urls, creating the urls not already shortened.
+     *
+     * @param fullUrls the full urls to shorten, at most {@value #MAX_BATCH_SIZE}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome for each full url, in the same order,
+     * or with status {@code 400 (Bad Request)} if the batch is empty, too large or has no full url.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<ShortenedUrlDTO>> createUrls(@RequestBody List<String> fullUrls) {
+        log.debug("REST request to shorten {} Urls", fullUrls.size());
+        if (fullUrls.isEmpty() || fullUrls.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestAlertException("A batch must have between 1 and " + MAX_BATCH_SIZE + " urls", ENTITY_NAME, "batchsize");
+        }
+        if (fullUrls.contains(null)) {
+            throw new BadRequestAlertException("A new url must have a full url", ENTITY_NAME, "fullurlnull");
+        }
+        return ResponseEntity.ok(urlShortenerService.shortenAll(fullUrls));
+    }
+
     /**
      * {@code PUT  /urls/:id} : Updates an existing url.
      *
      * @param id the id of the url to save.
      * @param url the url to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated url,
-     * or with status {@code 400 (Bad Request)} if the url is not valid,
+     * or with status {@code 400 (Bad Request)} if the url is not valid or its short url is not made of a code,
+     * or with status {@code 409 (Conflict)} if the url is created write-behind and not inserted yet,
      * or with status {@code 500 (Internal Server Error)} if the url couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -86,10 +157,14 @@ public class UrlResource {
         if (!Objects.equals(id, url.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        if (urlWriteBehindService.findPending(id).isPresent()) {
+            return pendingConflict(id);
+        }
 
         if (!urlRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        checkShortUrl(url);
 
         url = urlRepository.save(url);
         return ResponseEntity.ok()
@@ -103,8 +178,9 @@ public class UrlResource {
      * @param id the id of the url to save.
      * @param url the url to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated url,
-     * or with status {@code 400 (Bad Request)} if the url is not valid,
+     * or with status {@code 400 (Bad Request)} if the url is not valid or its short url is not made of a code,
      * or with status {@code 404 (Not Found)} if the url is not found,
+     * or with status {@code 409 (Conflict)} if the url is created write-behind and not inserted yet,
      * or with status {@code 500 (Internal Server Error)} if the url couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -118,10 +194,14 @@ public class UrlResource {
         if (!Objects.equals(id, url.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        if (urlWriteBehindService.findPending(id).isPresent()) {
+            return pendingConflict(id);
+        }
 
         if (!urlRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        checkShortUrl(url);
 
         Optional<Url> result = urlRepository
             .findById(url.getId())
@@ -150,18 +230,52 @@ public class UrlResource {
     }
 
     /**
-     * {@code GET  /urls} : get all the urls.
+     * {@code GET  /urls} : get a page of the urls, ordered by id.
+     * <p>
+     * Pages are found by keyset rather than by offset: the {@value #NEXT_CURSOR_HEADER} header and the {@code next} link
+     * of a full page give the cursor of the next one.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of urls in body.
+     * @param cursor the id after which the page starts, or none for the first page.
+     * @param size the number of urls of the page, at most {@value #MAX_PAGE_SIZE}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of urls in body,
+     * or with status {@code 400 (Bad Request)} if the size is not valid.
      */
     @GetMapping("")
-    public List<Url> getAllUrls() {
-        log.debug("REST request to get all Urls");
-        return urlRepository.findAll();
+    public ResponseEntity<List<Url>> getAllUrls(
+        @RequestParam(name = "cursor", required = false) Long cursor,
+        @RequestParam(name = "size", defaultValue = "20") int size
+    ) {
+        log.debug("REST request to get a page of Urls after : {}", cursor);
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestAlertException("A page must have between 1 and " + MAX_PAGE_SIZE + " urls", ENTITY_NAME, "pagesize");
+        }
+        List<Url> urls = urlRepository.findAllByIdGreaterThanOrderByIdAsc(cursor == null ? Long.MIN_VALUE : cursor, Limit.of(size));
+        HttpHeaders headers = new HttpHeaders();
+        if (urls.size() == size) {
+            String nextCursor = urls.get(urls.size() - 1).getId().toString();
+            String nextPage = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("cursor", nextCursor).toUriString();
+            headers.add(NEXT_CURSOR_HEADER, nextCursor);
+            headers.add(HttpHeaders.LINK, "<" + nextPage + ">; rel=\"next\"");
+        }
+        return ResponseEntity.ok().headers(headers).body(urls);
     }
 
     /**
-     * {@code GET  /urls/:id} : get the "id" url.
+     * {@code GET  /urls/export} : export all the urls, ordered by id, as one JSON object per line.
+     * <p>
+     * The urls are streamed from a database cursor while the response is written, in constant memory.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the urls in body.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUrls() {
+        log.debug("REST request to export all Urls");
+        StreamingResponseBody body = urlExportService::exportUrls;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * {@code GET  /urls/:id} : get the "id" url, possibly created write-behind and not inserted yet.
      *
      * @param id the id of the url to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the url, or with status {@code 404 (Not Found)}.
@@ -169,35 +283,152 @@ public class UrlResource {
     @GetMapping("/{id}")
     public ResponseEntity<Url> getUrl(@PathVariable("id") Long id) {
         log.debug("REST request to get Url : {}", id);
-        Optional<Url> url = urlRepository.findById(id);
+        Optional<Url> url = urlWriteBehindService.findPending(id).or(() -> urlRepository.findById(id));
         return ResponseUtil.wrapOrNotFound(url);
     }
 
+    /**
+     * {@code GET  /urls/:id/stats} : get the clicks of the "id" url over a time range, by minute, hour or day.
+     * <p>
+     * Only buckets with clicks are returned, read from the rollups maintained by the click counter.
+     *
+     * @param id the id of the url.
+     * @param from the start of the range, inclusive.
+     * @param to the end of the range, exclusive.
+     * @param granularity the width of the buckets.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the buckets starting in the range, in order,
+     * or with status {@code 400 (Bad Request)} if the range is empty or spans more than {@value #MAX_STATS_BUCKETS} buckets,
+     * or with status {@code 404 (Not Found)} if the url is not found.
+     */
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<List<UrlStats>> getUrlStats(
+        @PathVariable("id") Long id,
+        @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
+        @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to,
+        @RequestParam(name = "granularity", defaultValue = "HOUR") StatsGranularity granularity
+    ) {
+        log.debug("REST request to get the {} stats of Url {} from {} to {}", granularity, id, from, to);
+        if (!from.isBefore(to)) {
+            throw new BadRequestAlertException("The start of the range must be before its end", ENTITY_NAME, "statsrange");
+        }
+        if (Duration.between(from, to).dividedBy(granularity.getBucketDuration()) > MAX_STATS_BUCKETS) {
+            throw new BadRequestAlertException("A range must span at most " + MAX_STATS_BUCKETS + " buckets", ENTITY_NAME, "statsrange");
+        }
+        if (!urlRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(urlStatsRepository.findAllInRange(id, granularity, from, to));
+    }
+
+    /**
+     * {@code GET  /urls/:id/visitors} : estimate the unique visitors of the "id" url over a time range, by merging the
+     * visitor sketches of its hour or day buckets.
+     *
+     * @param id the id of the url.
+     * @param from the start of the range, inclusive.
+     * @param to the end of the range, exclusive.
+     * @param granularity the width of the merged buckets, {@code HOUR} or {@code DAY}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the estimate, or with status
+     * {@code 400 (Bad Request)} if the range is empty or spans more than {@value #MAX_STATS_BUCKETS} buckets, or if the
+     * buckets have no visitor sketch, or with status {@code 404 (Not Found)} if the url is not found.
+     */
+    @GetMapping("/{id}/visitors")
+    public ResponseEntity<UniqueVisitorsDTO> getUrlVisitors(
+        @PathVariable("id") Long id,
+        @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
+        @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to,
+        @RequestParam(name = "granularity", defaultValue = "DAY") StatsGranularity granularity
+    ) {
+        log.debug("REST request to get the unique visitors of Url {} from {} to {} by {}", id, from, to, granularity);
+        if (granularity == StatsGranularity.MINUTE) {
+            throw new BadRequestAlertException("Visitors are only kept by hour and by day", ENTITY_NAME, "statsgranularity");
+        }
+        if (!from.isBefore(to)) {
+            throw new BadRequestAlertException("The start of the range must be before its end", ENTITY_NAME, "statsrange");
+        }
+        if (Duration.between(from, to).dividedBy(granularity.getBucketDuration()) > MAX_STATS_BUCKETS) {
+            throw new BadRequestAlertException("A range must span at most " + MAX_STATS_BUCKETS + " buckets", ENTITY_NAME, "statsrange");
+        }
+        if (!urlRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        HyperLogLog visitors = new HyperLogLog();
+        for (UrlStats stats : urlStatsRepository.findAllInRange(id, granularity, from, to)) {
+            if (stats.getVisitors() != null) {
+                visitors.merge(HyperLogLog.fromBytes(stats.getVisitors()));
+            }
+        }
+        return ResponseEntity.ok(new UniqueVisitorsDTO(id, from, to, visitors.estimate()));
+    }
+
     /**
      * {@code GET  /shorturl} : get the "shorturl" url.
      *
      * @param `url the shorturl of the url to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the url, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the url, or with status {@code 404 (Not Found)}
+     * if it is unknown or expired.
      */
     @GetMapping("/shorturl")
     public ResponseEntity<Url> getUrlByShortUrl(@RequestParam("url") String url) {
         log.debug("REST request to get Url : {}", url);
-        Optional<Url> shortUrl = urlRepository.findByShortUrl(url);
-        return ResponseUtil.wrapOrNotFound(shortUrl);
+        Optional<Url> shortUrl = urlWriteBehindService.findPending(url);
+        if (shortUrl.isEmpty()) {
+            if (!urlResolverService.mightExist(url)) {
+                return ResponseEntity.notFound().build();
+            }
+            shortUrl = urlRepository.findByShortUrl(url);
+            if (shortUrl.isEmpty()) {
+                urlResolverService.recordMissing(url);
+            }
+        }
+        ZonedDateTime now = ZonedDateTime.now();
+        return ResponseUtil.wrapOrNotFound(
+            shortUrl.filter(found -> found.getExpirationDateTime() == null || found.getExpirationDateTime().isAfter(now))
+        );
     }
 
     /**
      * {@code DELETE  /urls/:id} : delete the "id" url.
      *
      * @param id the id of the url to delete.
-     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}, or with status {@code 409 (Conflict)} if the
+     * url is created write-behind and not inserted yet.
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUrl(@PathVariable("id") Long id) {
         log.debug("REST request to delete Url : {}", id);
+        if (urlWriteBehindService.findPending(id).isPresent()) {
+            return pendingConflict(id);
+        }
         urlRepository.deleteById(id);
         return ResponseEntity.noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * Answer a change of a url created write-behind, which would be lost when the url is inserted.
+     */
+    private <T> ResponseEntity<T> pendingConflict(Long id) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .headers(
+                HeaderUtil.createFailureAlert(
+                    applicationName,
+                    true,
+                    ENTITY_NAME,
+                    "urlpending",
+                    "Url " + id + " is not stored yet, try again later"
+                )
+            )
+            .build();
+    }
+
+    /**
+     * Reject a short url which is not the prefix followed by a code, as short urls are stored as the number of their code.
+     */
+    private void checkShortUrl(Url url) {
+        if (url.getShortUrl() != null && shortCodeGenerator.toCode(url.getShortUrl()) < 0) {
+            throw new BadRequestAlertException("A short url must be made of a code", ENTITY_NAME, "shorturlinvalid");
+        }
+    }
 }
@@ -1,3 +1,4 @@
 export const TOTAL_COUNT_RESPONSE_HEADER = 'X-Total-Count';
+export const NEXT_CURSOR_RESPONSE_HEADER = 'X-Next-Cursor';
 export const PAGE_HEADER = 'page';
 export const ITEMS_PER_PAGE = 20;
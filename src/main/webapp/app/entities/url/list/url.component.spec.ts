@@ -61,7 +61,7 @@ describe('Url Management Component', () => {
           new HttpResponse({
             body: [{ id: 123 }],
             headers: new HttpHeaders({
-              link: '<http://localhost/api/foo?page=1&size=20>; rel="next"',
+              'X-Next-Cursor': '123',
             }),
           }),
         ),
@@ -70,9 +70,7 @@ describe('Url Management Component', () => {
         of(
           new HttpResponse({
             body: [{ id: 456 }],
-            headers: new HttpHeaders({
-              link: '<http://localhost/api/foo?page=0&size=20>; rel="prev",<http://localhost/api/foo?page=2&size=20>; rel="next"',
-            }),
+            headers: new HttpHeaders(),
           }),
         ),
       );
@@ -87,6 +85,32 @@ describe('Url Management Component', () => {
     expect(comp.urls?.[0]).toEqual(expect.objectContaining({ id: 123 }));
   });
 
+  it('should load the next page from the cursor of the previous one', () => {
+    // GIVEN
+    comp.ngOnInit();
+    expect(comp.hasMorePage()).toBe(true);
+
+    // WHEN
+    comp.loadNextPage();
+
+    // THEN
+    expect(service.query).toHaveBeenLastCalledWith(expect.objectContaining({ cursor: 123, size: 20 }));
+    expect(comp.urls).toEqual([expect.objectContaining({ id: 123 }), expect.objectContaining({ id: 456 })]);
+    expect(comp.hasMorePage()).toBe(false);
+  });
+
+  it('should load the first page again on load', () => {
+    // GIVEN
+    comp.ngOnInit();
+
+    // WHEN
+    comp.load();
+
+    // THEN
+    expect(service.query).toHaveBeenLastCalledWith(expect.objectContaining({ cursor: null }));
+    expect(comp.urls).toEqual([expect.objectContaining({ id: 456 })]);
+  });
+
   describe('trackId', () => {
     it('Should forward to urlService', () => {
       const entity = { id: 123 };
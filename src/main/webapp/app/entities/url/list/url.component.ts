@@ -1,12 +1,14 @@
-import { Component, NgZone, inject, OnInit } from '@angular/core';
+import { Component, NgZone, inject, OnInit, signal, computed } from '@angular/core';
 import { ActivatedRoute, Data, ParamMap, Router, RouterModule } from '@angular/router';
 import { combineLatest, filter, Observable, Subscription, tap } from 'rxjs';
 import { NgbModal } from '@ng-bootstrap/ng-bootstrap';
+import { InfiniteScrollDirective } from 'ngx-infinite-scroll';
 
 import SharedModule from 'app/shared/shared.module';
 import { sortStateSignal, SortDirective, SortByDirective, type SortState, SortService } from 'app/shared/sort';
 import { DurationPipe, FormatMediumDatetimePipe, FormatMediumDatePipe } from 'app/shared/date';
 import { FormsModule } from '@angular/forms';
+import { ITEMS_PER_PAGE } from 'app/config/pagination.constants';
 import { SORT, ITEM_DELETED_EVENT, DEFAULT_SORT_DATA } from 'app/config/navigation.constants';
 import { IUrl } from '../url.model';
 import { EntityArrayResponseType, UrlService } from '../service/url.service';
@@ -25,6 +27,7 @@ import { UrlDeleteDialogComponent } from '../delete/url-delete-dialog.component'
     DurationPipe,
     FormatMediumDatetimePipe,
     FormatMediumDatePipe,
+    InfiniteScrollDirective,
   ],
 })
 export class UrlComponent implements OnInit {
@@ -34,6 +37,11 @@ export class UrlComponent implements OnInit {
 
   sortState = sortStateSignal({});
 
+  itemsPerPage = ITEMS_PER_PAGE;
+  // Urls are paged by id: each full page gives the cursor of the next one in its X-Next-Cursor header
+  nextCursor = signal<number | null>(null);
+  hasMorePage = computed(() => this.nextCursor() !== null);
+
   public router = inject(Router);
   protected urlService = inject(UrlService);
   protected activatedRoute = inject(ActivatedRoute);
@@ -68,7 +76,17 @@ export class UrlComponent implements OnInit {
       .subscribe();
   }
 
+  reset(): void {
+    this.urls = [];
+    this.nextCursor.set(null);
+  }
+
   load(): void {
+    this.reset();
+    this.loadNextPage();
+  }
+
+  loadNextPage(): void {
     this.queryBackend().subscribe({
       next: (res: EntityArrayResponseType) => {
         this.onResponseSuccess(res);
@@ -85,6 +103,7 @@ export class UrlComponent implements OnInit {
   }
 
   protected onResponseSuccess(response: EntityArrayResponseType): void {
+    this.nextCursor.set(this.urlService.getNextCursor(response.headers));
     const dataFromBody = this.fillComponentAttributesFromResponseBody(response.body);
     this.urls = this.refineData(dataFromBody);
   }
@@ -95,12 +114,21 @@ export class UrlComponent implements OnInit {
   }
 
   protected fillComponentAttributesFromResponseBody(data: IUrl[] | null): IUrl[] {
-    return data ?? [];
+    // Pages are appended to those already loaded, skipping urls loaded twice
+    const urlsNew = this.urls ?? [];
+    for (const url of data ?? []) {
+      if (!urlsNew.some(loaded => loaded.id === url.id)) {
+        urlsNew.push(url);
+      }
+    }
+    return urlsNew;
   }
 
   protected queryBackend(): Observable<EntityArrayResponseType> {
     this.isLoading = true;
     const queryObject: any = {
+      size: this.itemsPerPage,
+      cursor: this.nextCursor(),
       sort: this.sortService.buildSortParam(this.sortState()),
     };
     return this.urlService.query(queryObject).pipe(tap(() => (this.isLoading = false)));
@@ -1,6 +1,6 @@
 import { TestBed } from '@angular/core/testing';
 import { provideHttpClientTesting, HttpTestingController } from '@angular/common/http/testing';
-import { provideHttpClient } from '@angular/common/http';
+import { provideHttpClient, HttpHeaders } from '@angular/common/http';
 
 import { IUrl } from '../url.model';
 import { sampleWithRequiredData, sampleWithNewData, sampleWithPartialData, sampleWithFullData } from '../url.test-samples';
@@ -88,6 +88,11 @@ describe('Url Service', () => {
       expect(expectedResult).toMatchObject([expected]);
     });
 
+    it('should read the cursor of the next page of Url', () => {
+      expect(service.getNextCursor(new HttpHeaders({ 'X-Next-Cursor': '123' }))).toBe(123);
+      expect(service.getNextCursor(new HttpHeaders())).toBeNull();
+    });
+
     it('should delete a Url', () => {
       const expected = true;
 
@@ -1,5 +1,5 @@
 import { inject, Injectable } from '@angular/core';
-import { HttpClient, HttpResponse } from '@angular/common/http';
+import { HttpClient, HttpHeaders, HttpResponse } from '@angular/common/http';
 import { map, Observable } from 'rxjs';
 
 import dayjs from 'dayjs/esm';
@@ -7,6 +7,7 @@ import dayjs from 'dayjs/esm';
 import { isPresent } from 'app/core/util/operators';
 import { ApplicationConfigService } from 'app/core/config/application-config.service';
 import { createRequestOption } from 'app/core/request/request-util';
+import { NEXT_CURSOR_RESPONSE_HEADER } from 'app/config/pagination.constants';
 import { IUrl, NewUrl } from '../url.model';
 
 export type PartialUpdateUrl = Partial<IUrl> & Pick<IUrl, 'id'>;
@@ -64,6 +65,16 @@ export class UrlService {
       .pipe(map(res => this.convertResponseArrayFromServer(res)));
   }
 
+  /**
+   * Get the cursor of the page following a page returned by query, to pass as its cursor parameter.
+   *
+   * @return the cursor, or null if the page was the last one.
+   */
+  getNextCursor(headers: HttpHeaders): number | null {
+    const cursor = headers.get(NEXT_CURSOR_RESPONSE_HEADER);
+    return cursor ? Number(cursor) : null;
+  }
+
   delete(id: number): Observable<HttpResponse<{}>> {
     return this.http.delete(`${this.resourceUrl}/${id}`, { observe: 'response' });
   }
@@ -0,0 +1,97 @@
+package com.notarius.shorturl.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.service.dto.ResolvedUrl;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for the {@link CacheConfiguration} class.
+ */
+class CacheConfigurationTest {
+
+    @TempDir
+    Path diskDirectory;
+
+    private JHipsterProperties jHipsterProperties;
+
+    private ApplicationProperties applicationProperties;
+
+    private javax.cache.CacheManager cacheManager;
+
+    @BeforeEach
+    public void setup() {
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getCache().getEhcache().setMaxEntries(100);
+        jHipsterProperties.getCache().getEhcache().setTimeToLiveSeconds(3600);
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getCache().setDiskDirectory(diskDirectory.toString());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (cacheManager != null) {
+            cacheManager.close();
+        }
+    }
+
+    @Test
+    void shouldUseDefaultsForUnconfiguredCaches() {
+        cacheManager = new CacheConfiguration(jHipsterProperties, applicationProperties).jCacheCacheManager();
+
+        ResourcePools resourcePools = resourcePools(UrlRepository.MISSING_SHORT_URLS_CACHE);
+        assertThat(resourcePools.getResourceTypeSet()).containsExactly(ResourceType.Core.HEAP);
+        assertThat(resourcePools.getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(100);
+        assertThat(resourcePools.getPoolForResource(ResourceType.Core.HEAP).getUnit()).isEqualTo(EntryUnit.ENTRIES);
+    }
+
+    @Test
+    void shouldConfigureTiersAndExpiryPerCache() {
+        ApplicationProperties.Cache.Region region = new ApplicationProperties.Cache.Region();
+        region.setHeapEntries(10L);
+        region.setOffheapMb(1L);
+        region.setDiskMb(2L);
+        region.setTimeToLiveSeconds(60L);
+        applicationProperties.getCache().getCaches().put(UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE, region);
+
+        cacheManager = new CacheConfiguration(jHipsterProperties, applicationProperties).jCacheCacheManager();
+
+        ResourcePools resourcePools = resourcePools(UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE);
+        assertThat(resourcePools.getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(10);
+        assertThat(resourcePools.getPoolForResource(ResourceType.Core.OFFHEAP).getSize()).isEqualTo(1);
+        assertThat(resourcePools.getPoolForResource(ResourceType.Core.OFFHEAP).getUnit()).isEqualTo(MemoryUnit.MB);
+        assertThat(resourcePools.getPoolForResource(ResourceType.Core.DISK).getSize()).isEqualTo(2);
+        assertThat(
+            cacheManager
+                .getCache(UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE)
+                .unwrap(org.ehcache.Cache.class)
+                .getRuntimeConfiguration()
+                .getExpiryPolicy()
+                .getExpiryForCreation("key", "value")
+        ).isEqualTo(Duration.ofSeconds(60));
+
+        // Entries overflowing the heap tier are still served by the lower tiers
+        javax.cache.Cache<Object, Object> cache = cacheManager.getCache(UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE);
+        for (int i = 0; i < 100; i++) {
+            cache.put("code" + i, new ResolvedUrl("https://example.com/" + i, null));
+        }
+        assertThat(cache.get("code0")).isInstanceOf(ResolvedUrl.class);
+        assertThat(((ResolvedUrl) cache.get("code0")).getFullUrl()).isEqualTo("https://example.com/0");
+    }
+
+    @SuppressWarnings("unchecked")
+    private ResourcePools resourcePools(String cacheName) {
+        return cacheManager.getCache(cacheName).unwrap(org.ehcache.Cache.class).getRuntimeConfiguration().getResourcePools();
+    }
+}
@@ -0,0 +1,34 @@
+package com.notarius.shorturl.domain;
+
+import static com.notarius.shorturl.domain.UrlImportTestSamples.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.notarius.shorturl.web.rest.TestUtil;
+import org.junit.jupiter.api.Test;
+
+class UrlImportTest {
+
+    @Test
+    void equalsVerifier() throws Exception {
+        TestUtil.equalsVerifier(UrlImport.class);
+        UrlImport urlImport1 = getUrlImportSample1();
+        UrlImport urlImport2 = new UrlImport();
+        assertThat(urlImport1).isNotEqualTo(urlImport2);
+
+        urlImport2.setName(urlImport1.getName());
+        assertThat(urlImport1).isEqualTo(urlImport2);
+
+        urlImport2 = getUrlImportSample2();
+        assertThat(urlImport1).isNotEqualTo(urlImport2);
+    }
+
+    @Test
+    void hashCodeVerifier() {
+        UrlImport urlImport = new UrlImport();
+        assertThat(urlImport.hashCode()).isZero();
+
+        UrlImport urlImport1 = getUrlImportSample1();
+        urlImport.setName(urlImport1.getName());
+        assertThat(urlImport).hasSameHashCodeAs(urlImport1);
+    }
+}
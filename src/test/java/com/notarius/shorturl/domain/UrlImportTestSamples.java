@@ -0,0 +1,18 @@
+package com.notarius.shorturl.domain;
+
+import java.util.UUID;
+
+public class UrlImportTestSamples {
+
+    public static UrlImport getUrlImportSample1() {
+        return new UrlImport().name("name1");
+    }
+
+    public static UrlImport getUrlImportSample2() {
+        return new UrlImport().name("name2");
+    }
+
+    public static UrlImport getUrlImportRandomSampleGenerator() {
+        return new UrlImport().name(UUID.randomUUID().toString());
+    }
+}
@@ -0,0 +1,43 @@
+package com.notarius.shorturl.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.notarius.shorturl.domain.enumeration.StatsGranularity;
+import com.notarius.shorturl.web.rest.TestUtil;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+
+class UrlStatsTest {
+
+    private static final ZonedDateTime BUCKET_START = ZonedDateTime.of(2026, 10, 18, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    void equalsVerifier() throws Exception {
+        TestUtil.equalsVerifier(UrlStats.class);
+        UrlStats urlStats1 = new UrlStats().urlId(1L).granularity(StatsGranularity.HOUR).bucketStart(BUCKET_START);
+        UrlStats urlStats2 = new UrlStats();
+        assertThat(urlStats1).isNotEqualTo(urlStats2);
+
+        urlStats2 = new UrlStats()
+            .urlId(1L)
+            .granularity(StatsGranularity.HOUR)
+            .bucketStart(BUCKET_START.withZoneSameInstant(ZoneOffset.ofHours(2)))
+            .clicks(10);
+        assertThat(urlStats1).isEqualTo(urlStats2);
+
+        urlStats2.setGranularity(StatsGranularity.DAY);
+        assertThat(urlStats1).isNotEqualTo(urlStats2);
+    }
+
+    @Test
+    void bucketStartIsTruncatedInUtc() {
+        ZonedDateTime instant = ZonedDateTime.of(2026, 10, 18, 12, 34, 56, 0, ZoneOffset.ofHours(-5));
+
+        assertThat(StatsGranularity.MINUTE.bucketStart(instant.toInstant())).isEqualTo(instant.withSecond(0).toInstant());
+        assertThat(StatsGranularity.HOUR.bucketStart(instant.toInstant())).isEqualTo(instant.withMinute(0).withSecond(0).toInstant());
+        assertThat(StatsGranularity.DAY.bucketStart(instant.toInstant())).isEqualTo(
+            ZonedDateTime.of(2026, 10, 18, 0, 0, 0, 0, ZoneOffset.UTC).toInstant()
+        );
+    }
+}
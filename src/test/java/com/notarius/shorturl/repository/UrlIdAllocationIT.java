@@ -0,0 +1,182 @@
+package com.notarius.shorturl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.notarius.shorturl.IntegrationTest;
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.service.UrlShortenerService;
+import com.notarius.shorturl.util.UrlUtil;
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Benchmark of the creation of urls one per transaction, like {@code POST /api/urls}, as their ids are fetched from a
+ * sequence in blocks of 50, before, or of {@link Url#ID_ALLOCATION_SIZE}.
+ * <p>
+ * The benchmark is only meaningful against PostgreSQL, so it only runs with the {@code prod} Maven profile, which starts
+ * it with Testcontainers, e.g. {@code ./mvnw -Pprod verify -Dit.test=UrlIdAllocationIT}.
+ */
+@IntegrationTest
+class UrlIdAllocationIT {
+
+    private static final Logger log = LoggerFactory.getLogger(UrlIdAllocationIT.class);
+
+    private static final int INSERTS = 2_000;
+
+    /** Urls created through JPA, fewer as each also takes a short code and checks for its full url. */
+    private static final int CREATES = 1_000;
+
+    /** Ids of the benchmark, far above those of the sequence of urls. */
+    private static final int BENCHMARK_FIRST_ID = 1_000_000_000;
+
+    private static final String BENCHMARK_SEQUENCE = "url_benchmark_sequence";
+
+    private static final String INSERT_URL_SQL =
+        "insert into url (id, full_url, full_url_digest, creation_date_time, clicks) values (?, ?, ?, ?, 0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UrlShortenerService urlShortenerService;
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    private SequenceSupport sequenceSupport;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        sequenceSupport = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices()
+            .getDialect()
+            .getSequenceSupport();
+    }
+
+    @AfterEach
+    void cleanup() {
+        deleteBenchmarkUrls();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String sql : sequenceSupport.getDropSequenceStrings(BENCHMARK_SEQUENCE)) {
+                jdbcTemplate.execute(sql);
+            }
+        });
+    }
+
+    @Test
+    void createdUrlsShareSequenceFetches() {
+        long firstValue = nextValue("url_sequence_generator");
+        List<Long> ids = new ArrayList<>(CREATES);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < CREATES; i++) {
+                ids.add(urlShortenerService.shorten(new Url().fullUrl("https://www.notarius.com/allocation/" + i)).getId());
+            }
+            log.info("Created {} urls through JPA at {} urls/s", CREATES, Math.round(throughput(CREATES, start)));
+            long lastValue = nextValue("url_sequence_generator");
+
+            // Blocks fetched by Hibernate between the two fetches of the test
+            long fetches = (lastValue - firstValue) / Url.ID_ALLOCATION_SIZE - 1;
+            assertThat(fetches).isBetween(1L, (long) CREATES / Url.ID_ALLOCATION_SIZE + 1);
+            assertThat(ids).doesNotHaveDuplicates().allMatch(id -> id < firstValue || id >= firstValue + Url.ID_ALLOCATION_SIZE);
+        } finally {
+            urlRepository.deleteAllByIdInBatch(ids);
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "spring.profiles.active", matches = ".*testprod.*")
+    void benchmarkSingleInsertsByAllocationSize() {
+        // Warm up
+        insertThroughput(50);
+        deleteBenchmarkUrls();
+        double before = insertThroughput(50);
+        assertThat(fetchedBlocks(50)).isEqualTo(INSERTS / 50);
+        deleteBenchmarkUrls();
+        double after = insertThroughput(Url.ID_ALLOCATION_SIZE);
+        assertThat(fetchedBlocks(Url.ID_ALLOCATION_SIZE)).isEqualTo(INSERTS / Url.ID_ALLOCATION_SIZE);
+
+        log.info(
+            "Inserted {} urls one per transaction at {} urls/s with blocks of 50 ids, and {} urls/s with blocks of {} ids",
+            INSERTS,
+            Math.round(before),
+            Math.round(after),
+            Url.ID_ALLOCATION_SIZE
+        );
+        // Throughputs are only logged, as round trips to the sequence are a small and noisy part of each insert
+        assertThat(jdbcTemplate.queryForObject("select count(*) from url where id >= ?", Long.class, BENCHMARK_FIRST_ID)).isEqualTo(INSERTS);
+    }
+
+    /**
+     * @return the number of blocks fetched from the benchmark sequence since it was created.
+     */
+    private long fetchedBlocks(int allocationSize) {
+        return (nextValue(BENCHMARK_SEQUENCE) - BENCHMARK_FIRST_ID) / allocationSize;
+    }
+
+    /**
+     * Insert urls one per transaction, with ids handed out from a sequence by blocks like the pooled-lo optimizer.
+     *
+     * @return the number of urls inserted per second.
+     */
+    private double insertThroughput(int allocationSize) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String sql : sequenceSupport.getDropSequenceStrings(BENCHMARK_SEQUENCE)) {
+                jdbcTemplate.execute(sql);
+            }
+            for (String sql : sequenceSupport.getCreateSequenceStrings(BENCHMARK_SEQUENCE, BENCHMARK_FIRST_ID, allocationSize)) {
+                jdbcTemplate.execute(sql);
+            }
+        });
+        long[] block = { 0, 0 };
+        long start = System.nanoTime();
+        for (int i = 0; i < INSERTS; i++) {
+            String fullUrl = "https://www.notarius.com/benchmark/" + i;
+            transactionTemplate.executeWithoutResult(status -> {
+                if (block[0] == block[1]) {
+                    block[0] = nextValue(BENCHMARK_SEQUENCE);
+                    block[1] = block[0] + allocationSize;
+                }
+                jdbcTemplate.update(INSERT_URL_SQL, block[0]++, fullUrl, UrlUtil.digest(fullUrl), Timestamp.from(Instant.now()));
+            });
+        }
+        return throughput(INSERTS, start);
+    }
+
+    private void deleteBenchmarkUrls() {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("delete from url where id >= ?", BENCHMARK_FIRST_ID));
+    }
+
+    private long nextValue(String sequence) {
+        return jdbcTemplate.queryForObject(sequenceSupport.getSequenceNextValString(sequence), Long.class);
+    }
+
+    private static double throughput(int count, long start) {
+        return count * 1e9 / (System.nanoTime() - start);
+    }
+}
@@ -1,7 +1,9 @@
 package com.notarius.shorturl.security.jwt;
 
+import com.notarius.shorturl.config.ApplicationProperties;
 import com.notarius.shorturl.config.SecurityConfiguration;
 import com.notarius.shorturl.config.SecurityJwtConfiguration;
+import com.notarius.shorturl.config.ShortUrlConfiguration;
 import com.notarius.shorturl.config.WebConfigurer;
 import com.notarius.shorturl.management.SecurityMetersService;
 import com.notarius.shorturl.web.rest.AuthenticateController;
@@ -21,6 +23,8 @@ import tech.jhipster.config.JHipsterProperties;
     },
     classes = {
         JHipsterProperties.class,
+        ApplicationProperties.class,
+        ShortUrlConfiguration.class,
         WebConfigurer.class,
         SecurityConfiguration.class,
         SecurityJwtConfiguration.class,
@@ -0,0 +1,115 @@
+package com.notarius.shorturl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.notarius.shorturl.IntegrationTest;
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.domain.UrlStats;
+import com.notarius.shorturl.domain.enumeration.StatsGranularity;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.repository.UrlStatsRepository;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link ClickCounterService}.
+ */
+@IntegrationTest
+@Transactional
+class ClickCounterServiceIT {
+
+    private static final String SHORT_URL = "http://short.url/clickcount";
+
+    @Autowired
+    private ClickCounterService clickCounterService;
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private UrlStatsRepository urlStatsRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    private Url url;
+
+    @BeforeEach
+    public void init() {
+        // Drop the clicks left by other tests
+        clickCounterService.flush();
+        url = urlRepository.saveAndFlush(
+            new Url().shortUrl(SHORT_URL).fullUrl("https://www.notarius.com/click-counter").creationDateTime(ZonedDateTime.now())
+        );
+    }
+
+    @Test
+    void assertThatFlushAddsClicksOnce() {
+        em.refresh(url);
+        assertThat(url.getClicks()).isZero();
+
+        clickCounterService.record(SHORT_URL, "10.0.0.1", "curl/8.5.0");
+        clickCounterService.record(SHORT_URL, "10.0.0.2", "curl/8.5.0");
+        clickCounterService.record(SHORT_URL + "/unknown", "10.0.0.1", "curl/8.5.0");
+
+        assertThat(clickCounterService.flush()).isEqualTo(3);
+        assertThat(clickCounterService.flush()).isZero();
+        em.refresh(url);
+        assertThat(url.getClicks()).isEqualTo(2);
+        for (StatsGranularity granularity : StatsGranularity.values()) {
+            Instant bucketStart = granularity.bucketStart(Instant.now());
+            // The flush may have happened in the previous bucket
+            assertThat(
+                urlStatsRepository.findAllInRange(
+                    url.getId(),
+                    granularity,
+                    bucketStart.minus(granularity.getBucketDuration()).atZone(ZoneOffset.UTC),
+                    bucketStart.plus(granularity.getBucketDuration()).atZone(ZoneOffset.UTC)
+                )
+            )
+                .extracting(UrlStats::getClicks, UrlStats::getUniqueVisitors)
+                .containsExactly(tuple(2L, granularity == StatsGranularity.MINUTE ? null : 2L));
+        }
+    }
+
+    @Test
+    void assertThatClicksAreCountedAfterIdleCounterIsDropped() {
+        clickCounterService.record(SHORT_URL, "10.0.0.1", "curl/8.5.0");
+        clickCounterService.flush();
+        // Idle: the counter is dropped
+        clickCounterService.flush();
+
+        clickCounterService.record(SHORT_URL, "10.0.0.1", "curl/8.5.0");
+        clickCounterService.record(SHORT_URL, "10.0.0.1", "Mozilla/5.0");
+
+        assertThat(clickCounterService.flush()).isEqualTo(2);
+        em.refresh(url);
+        assertThat(url.getClicks()).isEqualTo(3);
+        assertThat(
+            urlStatsRepository
+                .findAllInRange(url.getId(), StatsGranularity.DAY, url.getCreationDateTime().minusDays(1), url.getCreationDateTime().plusDays(2))
+                .stream()
+                .mapToLong(UrlStats::getClicks)
+                .sum()
+        ).isEqualTo(3);
+        // The visitors of the dropped counter are merged, not counted twice
+        assertThat(
+            urlStatsRepository.findAllInRange(
+                url.getId(),
+                StatsGranularity.DAY,
+                url.getCreationDateTime().minusDays(1),
+                url.getCreationDateTime().plusDays(2)
+            )
+        )
+            .extracting(UrlStats::getUniqueVisitors)
+            .last()
+            .isEqualTo(2L);
+    }
+}
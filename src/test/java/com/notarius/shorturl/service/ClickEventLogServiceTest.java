@@ -0,0 +1,64 @@
+package com.notarius.shorturl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.util.ClickEvent;
+import com.notarius.shorturl.util.ClickEventLog;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import com.notarius.shorturl.util.UrlUtil;
+import com.notarius.shorturl.util.UserAgentClass;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ClickEventLogServiceTest {
+
+    private final ShortCodeGenerator shortCodeGenerator = new ShortCodeGenerator(UrlUtil.HTTP_SHORT_URL, ShortCodeGenerator.BASE62_ALPHABET, 7);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordedRedirectsAreWrittenToTheLog() throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getClickLog().setEnabled(true);
+        applicationProperties.getClickLog().setDirectory(directory.toString());
+        applicationProperties.getClickLog().setSegmentEvents(1000);
+        ClickEventLogService service = new ClickEventLogService(applicationProperties, shortCodeGenerator, new SimpleMeterRegistry());
+
+        service.record("http://short.url/before", null, null, "127.0.0.1");
+        service.start();
+        for (int i = 0; i < 1500; i++) {
+            service.record(shortCodeGenerator.toShortUrl(i), "https://www.notarius.com", "curl/8.5.0", "127.0.0.1");
+        }
+        service.stop();
+        service.record("http://short.url/after", null, null, "127.0.0.1");
+
+        List<ClickEvent> events = new ArrayList<>();
+        assertThat(ClickEventLog.replay(directory, events::add)).isEqualTo(1500);
+        assertThat(ClickEventLog.segments(directory)).hasSize(2);
+        assertThat(events.get(0).getCodeId()).isZero();
+        assertThat(events.get(0).getReferrerHash()).isEqualTo((int) ClickEvent.hash("https://www.notarius.com"));
+        assertThat(events.get(0).getIpHash()).isEqualTo((int) ClickEvent.hash("127.0.0.1"));
+        assertThat(events.get(0).getUserAgentClass()).isEqualTo(UserAgentClass.LIBRARY);
+        assertThat(events.get(1499).getCodeId()).isEqualTo(1499);
+    }
+
+    @Test
+    void nothingIsRecordedWhenDisabled() throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getClickLog().setDirectory(directory.toString());
+        ClickEventLogService service = new ClickEventLogService(applicationProperties, shortCodeGenerator, new SimpleMeterRegistry());
+
+        service.start();
+        service.record("http://short.url/disabled", null, null, "127.0.0.1");
+        service.stop();
+
+        assertThat(ClickEventLog.segments(directory)).isEmpty();
+    }
+}
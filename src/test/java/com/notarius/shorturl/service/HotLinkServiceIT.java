@@ -0,0 +1,82 @@
+package com.notarius.shorturl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.notarius.shorturl.IntegrationTest;
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.service.dto.ResolvedUrl;
+import com.notarius.shorturl.util.HeavyHitters;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link HotLinkService}.
+ */
+@IntegrationTest
+@Transactional
+class HotLinkServiceIT {
+
+    private static final String HOT_SHORT_URL = "http://short.url/hotLink000";
+
+    @Autowired
+    private UrlResolverService urlResolverService;
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ShortCodeGenerator shortCodeGenerator;
+
+    private HotLinkService hotLinkService;
+
+    private Cache resolvedUrls;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getHotLinks().setSize(2);
+        hotLinkService = new HotLinkService(urlResolverService, applicationProperties, new SimpleMeterRegistry());
+        resolvedUrls = Objects.requireNonNull(cacheManager.getCache(UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        resolvedUrls.evict(shortCodeGenerator.toCode(HOT_SHORT_URL));
+    }
+
+    @Test
+    void assertThatHotLinksAreWarmed() {
+        urlRepository.saveAndFlush(new Url().shortUrl(HOT_SHORT_URL).fullUrl("https://www.notarius.com/hot").creationDateTime(ZonedDateTime.now()));
+        for (int i = 0; i < 10; i++) {
+            hotLinkService.record(HOT_SHORT_URL);
+            hotLinkService.record("http://short.url/cold-" + i);
+        }
+        hotLinkService.record("http://short.url/cold-0");
+
+        assertThat(hotLinkService.getHotLinks())
+            .extracting(HeavyHitters.Entry::getKey, HeavyHitters.Entry::getCount)
+            .first()
+            .isEqualTo(tuple(HOT_SHORT_URL, 10L));
+        assertThat(hotLinkService.getHotLinks()).hasSize(2);
+        assertThat(resolvedUrls.get(shortCodeGenerator.toCode(HOT_SHORT_URL))).isNull();
+
+        // The cold short url is unknown, so only the hot one is loaded
+        assertThat(hotLinkService.warm()).isEqualTo(1);
+        assertThat(resolvedUrls.get(shortCodeGenerator.toCode(HOT_SHORT_URL), ResolvedUrl.class)).extracting(ResolvedUrl::getFullUrl).isEqualTo("https://www.notarius.com/hot");
+    }
+}
@@ -0,0 +1,87 @@
+package com.notarius.shorturl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.service.dto.ResolvedUrl;
+import com.notarius.shorturl.util.OffHeapLongMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import tech.jhipster.config.JHipsterProperties;
+
+class OffHeapResolvedUrlCacheTest {
+
+    @Test
+    void resolvedUrlsAreKeptOffHeapByCode() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getResolver().getOffHeap().setEnabled(true);
+        applicationProperties.getResolver().getOffHeap().setStripes(4);
+        applicationProperties.getResolver().getOffHeap().setInitialCapacity(100);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OffHeapResolvedUrlCache offHeapResolvedUrlCache = new OffHeapResolvedUrlCache(applicationProperties, new JHipsterProperties(), meterRegistry);
+        Cache cache = offHeapResolvedUrlCache.resolvedUrls(new ConcurrentMapCacheManager());
+        ZonedDateTime expiration = ZonedDateTime.ofInstant(Instant.ofEpochMilli(1_800_000_000_000L), ZoneId.systemDefault());
+
+        cache.put(1L, new ResolvedUrl("https://www.notarius.com/é", expiration));
+        cache.put(2L, new ResolvedUrl("https://www.notarius.com", null));
+
+        assertThat(cache.getName()).isEqualTo(UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE);
+        assertThat(cache.getNativeCache()).isInstanceOf(OffHeapLongMap.class);
+        assertThat(cache.get(1L, ResolvedUrl.class)).satisfies(resolvedUrl -> {
+            assertThat(resolvedUrl.getFullUrl()).isEqualTo("https://www.notarius.com/é");
+            assertThat(resolvedUrl.getExpirationDateTime()).isEqualTo(expiration);
+        });
+        assertThat(cache.get(2L, ResolvedUrl.class).getExpirationDateTime()).isNull();
+        assertThat(cache.get(3L)).isNull();
+        assertThat(cache.get("http://short.url/0000000001")).isNull();
+        assertThat(meterRegistry.get(OffHeapResolvedUrlCache.OFF_HEAP_METER_PREFIX + "entries").gauge().value()).isEqualTo(2);
+
+        cache.evict(1L);
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(3L, () -> new ResolvedUrl("https://www.notarius.com/loaded", null)).getFullUrl()).isEqualTo(
+            "https://www.notarius.com/loaded"
+        );
+        assertThat(cache.get(3L)).isNotNull();
+    }
+
+    @Test
+    void entriesAreEvictedWhenFull() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getResolver().getOffHeap().setEnabled(true);
+        applicationProperties.getResolver().getOffHeap().setStripes(1);
+        applicationProperties.getResolver().getOffHeap().setMaxEntries(2);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Cache cache = new OffHeapResolvedUrlCache(applicationProperties, new JHipsterProperties(), meterRegistry).resolvedUrls(
+            new ConcurrentMapCacheManager()
+        );
+
+        for (long code = 0; code < 5; code++) {
+            cache.put(code, new ResolvedUrl("https://www.notarius.com/" + code, null));
+        }
+
+        assertThat(meterRegistry.get(OffHeapResolvedUrlCache.OFF_HEAP_METER_PREFIX + "entries").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get(OffHeapResolvedUrlCache.OFF_HEAP_METER_PREFIX + "evicted").functionCounter().count()).isEqualTo(3);
+        assertThat(cache.get(4L)).isNotNull();
+    }
+
+    @Test
+    void cacheManagerIsUsedWhenDisabled() {
+        OffHeapResolvedUrlCache offHeapResolvedUrlCache = new OffHeapResolvedUrlCache(
+            new ApplicationProperties(),
+            new JHipsterProperties(),
+            new SimpleMeterRegistry()
+        );
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+
+        assertThat(offHeapResolvedUrlCache.isEnabled()).isFalse();
+        assertThat(offHeapResolvedUrlCache.resolvedUrls(cacheManager)).isSameAs(
+            cacheManager.getCache(UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE)
+        );
+    }
+}
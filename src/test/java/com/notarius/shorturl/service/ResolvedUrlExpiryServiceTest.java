@@ -0,0 +1,93 @@
+package com.notarius.shorturl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.service.dto.ResolvedUrl;
+import com.notarius.shorturl.util.OffHeapLongMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import tech.jhipster.config.JHipsterProperties;
+
+class ResolvedUrlExpiryServiceTest {
+
+    private static final long EXPIRING = 1L;
+
+    private static final long RENEWED = 2L;
+
+    private static final long LASTING = 3L;
+
+    @Test
+    void expiredUrlsAreEvicted() throws InterruptedException {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE);
+        Cache cache = cacheManager.getCache(UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getResolver().setExpiryTickMillis(10);
+        ResolvedUrlExpiryService service = new ResolvedUrlExpiryService(
+            cacheManager,
+            new OffHeapResolvedUrlCache(applicationProperties, new JHipsterProperties(), new SimpleMeterRegistry()),
+            applicationProperties,
+            new SimpleMeterRegistry()
+        );
+        ZonedDateTime now = ZonedDateTime.now();
+        ResolvedUrl expiring = new ResolvedUrl("https://www.notarius.com/expiring", now.plusNanos(100_000_000));
+        ResolvedUrl renewed = new ResolvedUrl("https://www.notarius.com/renewed", now.plusNanos(100_000_000));
+        ResolvedUrl lasting = new ResolvedUrl("https://www.notarius.com/lasting", now.plusMinutes(10));
+        cache.put(EXPIRING, expiring);
+        service.schedule(EXPIRING, expiring);
+        service.schedule(RENEWED, renewed);
+        // Cached again with a later expiration
+        cache.put(RENEWED, lasting);
+        service.schedule(RENEWED, lasting);
+        cache.put(LASTING, lasting);
+        service.schedule(LASTING, lasting);
+        service.tick();
+        assertThat(cache.get(EXPIRING)).isNotNull();
+
+        Thread.sleep(150);
+        service.tick();
+
+        assertThat(cache.get(EXPIRING)).isNull();
+        assertThat(cache.get(RENEWED)).isNotNull();
+        assertThat(cache.get(LASTING)).isNotNull();
+    }
+
+    @Test
+    void offHeapUrlsAreEvictedAtTheEndOfTheirTimeToLive() throws InterruptedException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getResolver().setExpiryTickMillis(10);
+        applicationProperties.getResolver().getOffHeap().setEnabled(true);
+        applicationProperties.getResolver().getOffHeap().setInitialCapacity(100);
+        ApplicationProperties.Cache.Region region = new ApplicationProperties.Cache.Region();
+        region.setTimeToLiveSeconds(1L);
+        applicationProperties.getCache().getCaches().put(UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE, region);
+        OffHeapResolvedUrlCache offHeapResolvedUrlCache = new OffHeapResolvedUrlCache(
+            applicationProperties,
+            new JHipsterProperties(),
+            new SimpleMeterRegistry()
+        );
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+        Cache cache = offHeapResolvedUrlCache.resolvedUrls(cacheManager);
+        OffHeapLongMap map = (OffHeapLongMap) cache.getNativeCache();
+        ResolvedUrlExpiryService service = new ResolvedUrlExpiryService(
+            cacheManager,
+            offHeapResolvedUrlCache,
+            applicationProperties,
+            new SimpleMeterRegistry()
+        );
+        ResolvedUrl lasting = new ResolvedUrl("https://www.notarius.com/lasting", null);
+        cache.put(LASTING, lasting);
+        service.schedule(LASTING, lasting);
+        service.tick();
+        assertThat(cache.get(LASTING)).isNotNull();
+
+        Thread.sleep(1100);
+        service.tick();
+
+        assertThat(map.size()).isZero();
+    }
+}
@@ -0,0 +1,39 @@
+package com.notarius.shorturl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.notarius.shorturl.IntegrationTest;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import com.notarius.shorturl.util.UrlUtil;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link ShortCodePool}.
+ */
+@IntegrationTest
+@Transactional
+class ShortCodePoolIT {
+
+    @Autowired
+    private ShortCodePool shortCodePool;
+
+    @Autowired
+    private ShortCodeGenerator shortCodeGenerator;
+
+    @Test
+    void assertThatPollHandsOutUniqueShortUrls() {
+        Set<String> shortUrls = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            shortUrls.add(shortCodePool.poll());
+        }
+
+        assertThat(shortUrls)
+            .hasSize(1000)
+            .allMatch(shortUrl -> shortUrl.substring(UrlUtil.HTTP_SHORT_URL.length()).matches(shortCodeGenerator.getCodeRegex()));
+        assertThat(shortCodePool.available()).isPositive();
+    }
+}
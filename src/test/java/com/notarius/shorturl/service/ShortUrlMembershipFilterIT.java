@@ -0,0 +1,78 @@
+package com.notarius.shorturl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.notarius.shorturl.IntegrationTest;
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link ShortUrlMembershipFilter}.
+ */
+@IntegrationTest
+@Transactional
+class ShortUrlMembershipFilterIT {
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private ShortUrlMembershipFilter shortUrlMembershipFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShortCodeGenerator shortCodeGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void assertThatSavedShortUrlsMightExist() {
+        urlRepository.saveAndFlush(
+            new Url().shortUrl("http://short.url/membership").fullUrl("https://www.notarius.com").creationDateTime(ZonedDateTime.now())
+        );
+
+        assertThat(shortUrlMembershipFilter.mightExist("http://short.url/membership")).isTrue();
+    }
+
+    @Test
+    void assertThatUnknownShortUrlsAreRejected() {
+        double rejectionsBefore = rejectionCount();
+
+        assertThat(shortUrlMembershipFilter.mightExist("http://short.url/unknown-membership")).isFalse();
+        assertThat(rejectionCount()).isEqualTo(rejectionsBefore + 1);
+        assertThat(meterRegistry.get(ShortUrlMembershipFilter.BLOOM_FILTER_METER_PREFIX + "size").gauge().value()).isPositive();
+    }
+
+    @Test
+    void assertThatShortUrlsCreatedByOtherNodesAreLearntOnRefresh() {
+        String shortUrl = shortCodeGenerator.generate("https://www.notarius.com/other-node");
+        // Inserted without any event, like by another node
+        jdbcTemplate.update(
+            "insert into url (id, code, full_url, creation_date_time, clicks) values (nextval('url_sequence_generator'), ?, ?, ?, 0)",
+            shortCodeGenerator.toCode(shortUrl),
+            "https://www.notarius.com/other-node",
+            Timestamp.from(Instant.now())
+        );
+        assertThat(shortUrlMembershipFilter.mightExist(shortUrl)).isFalse();
+
+        shortUrlMembershipFilter.refresh();
+
+        assertThat(shortUrlMembershipFilter.mightExist(shortUrl)).isTrue();
+    }
+
+    private double rejectionCount() {
+        return meterRegistry.get(ShortUrlMembershipFilter.BLOOM_FILTER_METER_PREFIX + "rejections").counter().count();
+    }
+}
@@ -0,0 +1,147 @@
+package com.notarius.shorturl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.notarius.shorturl.IntegrationTest;
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link ShortUrlSnapshotService}.
+ */
+@IntegrationTest
+class ShortUrlSnapshotServiceIT {
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private ShortCodeGenerator shortCodeGenerator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("taskExecutor")
+    private Executor taskExecutor;
+
+    private ApplicationProperties applicationProperties;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getSnapshot().setEnabled(true);
+        applicationProperties.getSnapshot().setFile(directory.resolve("short-urls.snapshot").toString());
+    }
+
+    @Test
+    @Transactional
+    void assertThatSnapshotIsBuiltAndReloaded() {
+        urlRepository.saveAndFlush(
+            new Url().shortUrl("http://short.url/snapshot00").fullUrl("https://www.notarius.com").creationDateTime(ZonedDateTime.now())
+        );
+
+        ShortUrlSnapshotService service = newService();
+        assertThat(service.resolve(code("http://short.url/snapshot00"))).isEmpty();
+        service.onApplicationReady();
+        assertThat(Files.exists(directory.resolve("short-urls.snapshot"))).isTrue();
+        assertThat(service.resolve(code("http://short.url/snapshot00"))).hasValueSatisfying(resolvedUrl ->
+            assertThat(resolvedUrl.getFullUrl()).isEqualTo("https://www.notarius.com")
+        );
+        assertThat(service.resolve(code("http://short.url/unknown-snapshot"))).isEmpty();
+
+        ShortUrlSnapshotService restarted = newService();
+        restarted.onApplicationReady();
+        assertThat(restarted.resolve(code("http://short.url/snapshot00"))).isPresent();
+    }
+
+    @Test
+    @Transactional
+    void assertThatStaleSnapshotIsRebuiltBeforeBeingServed() throws Exception {
+        Url url = urlRepository.saveAndFlush(
+            new Url().shortUrl("http://short.url/snapshotS1").fullUrl("https://www.notarius.com").creationDateTime(ZonedDateTime.now())
+        );
+        ShortUrlSnapshotService service = newService();
+        service.onApplicationReady();
+        assertThat(service.resolve(code("http://short.url/snapshotS1"))).isPresent();
+        // Deleted by another node, or while this node was down
+        urlRepository.delete(url);
+        urlRepository.flush();
+
+        ShortUrlSnapshotService restarted = newService();
+        restarted.onApplicationReady();
+        assertThat(restarted.resolve(code("http://short.url/snapshotS1"))).isPresent();
+
+        Path file = directory.resolve("short-urls.snapshot");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS)));
+        ShortUrlSnapshotService restartedLater = newService();
+        restartedLater.onApplicationReady();
+        assertThat(restartedLater.resolve(code("http://short.url/snapshotS1"))).isEmpty();
+    }
+
+    @Test
+    void assertThatInvalidatedShortUrlsAreLeftToTheRegularLookup() {
+        ShortUrlSnapshotService service = newService();
+        service.onApplicationReady();
+        service.onUrlChanged(
+            new UrlChangedEvent(UrlChangedEvent.Type.CREATED, new Url().shortUrl("http://short.url/snapshotI1").fullUrl("https://www.notarius.com"), null)
+        );
+
+        service.invalidate("http://short.url/snapshotI1");
+
+        assertThat(service.resolve(code("http://short.url/snapshotI1"))).isEmpty();
+    }
+
+    @Test
+    void assertThatWritesAreOverlaidOnTheSnapshot() {
+        ShortUrlSnapshotService service = newService();
+        service.onApplicationReady();
+        Url url = new Url().shortUrl("http://short.url/snapshotD1").fullUrl("https://www.notarius.com");
+
+        service.onUrlChanged(new UrlChangedEvent(UrlChangedEvent.Type.CREATED, url, null));
+        assertThat(service.resolve(code("http://short.url/snapshotD1"))).isPresent();
+
+        url.shortUrl("http://short.url/snapshotD2");
+        service.onUrlChanged(new UrlChangedEvent(UrlChangedEvent.Type.UPDATED, url, "http://short.url/snapshotD1"));
+        assertThat(service.resolve(code("http://short.url/snapshotD1"))).isEmpty();
+        assertThat(service.resolve(code("http://short.url/snapshotD2"))).isPresent();
+
+        service.onUrlChanged(new UrlChangedEvent(UrlChangedEvent.Type.DELETED, url, null));
+        assertThat(service.resolve(code("http://short.url/snapshotD2"))).isEmpty();
+    }
+
+    private ShortUrlSnapshotService newService() {
+        return new ShortUrlSnapshotService(
+            urlRepository,
+            shortCodeGenerator,
+            transactionManager,
+            taskExecutor,
+            applicationProperties,
+            new SimpleMeterRegistry()
+        );
+    }
+
+    private long code(String shortUrl) {
+        return shortCodeGenerator.toCode(shortUrl);
+    }
+}
@@ -0,0 +1,119 @@
+package com.notarius.shorturl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.notarius.shorturl.IntegrationTest;
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link StaticUrlIndexService}.
+ */
+@IntegrationTest
+@Transactional
+class StaticUrlIndexServiceIT {
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private ShortCodeGenerator shortCodeGenerator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("taskExecutor")
+    private Executor taskExecutor;
+
+    private ApplicationProperties applicationProperties;
+
+    private StaticUrlIndexService staticUrlIndexService;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getStaticIndex().setEnabled(true);
+        staticUrlIndexService = newService();
+    }
+
+    @Test
+    void assertThatNotExpiredUrlsAreIndexed() {
+        urlRepository.saveAndFlush(
+            new Url().shortUrl("http://short.url/staticIndx").fullUrl("https://www.notarius.com").creationDateTime(ZonedDateTime.now())
+        );
+        urlRepository.saveAndFlush(
+            new Url()
+                .shortUrl("http://short.url/staticExpd")
+                .fullUrl("https://www.notarius.com")
+                .creationDateTime(ZonedDateTime.now().minusDays(2))
+                .expirationDateTime(ZonedDateTime.now().minusDays(1))
+        );
+
+        assertThat(staticUrlIndexService.resolve(code("http://short.url/staticIndx"))).isEmpty();
+        assertThat(staticUrlIndexService.scheduleRebuild()).isTrue();
+
+        assertThat(staticUrlIndexService.resolve(code("http://short.url/staticIndx"))).hasValueSatisfying(resolvedUrl ->
+            assertThat(resolvedUrl.getFullUrl()).isEqualTo("https://www.notarius.com")
+        );
+        assertThat(staticUrlIndexService.resolve(code("http://short.url/staticExpd"))).isEmpty();
+        assertThat(staticUrlIndexService.getIndex().getBytesPerKey()).isLessThan(staticUrlIndexService.getCacheBytesPerKey());
+    }
+
+    @Test
+    void assertThatChangedUrlsAreNoLongerServed() {
+        Url url = urlRepository.saveAndFlush(
+            new Url().shortUrl("http://short.url/staticIndx").fullUrl("https://www.notarius.com").creationDateTime(ZonedDateTime.now())
+        );
+        staticUrlIndexService.scheduleRebuild();
+
+        staticUrlIndexService.onUrlChanged(new UrlChangedEvent(UrlChangedEvent.Type.DELETED, url, null));
+
+        assertThat(staticUrlIndexService.resolve(code("http://short.url/staticIndx"))).isEmpty();
+    }
+
+    @Test
+    void assertThatUrlsChangedElsewhereAreServedAtMostMaxAge() throws Exception {
+        applicationProperties.getStaticIndex().setMaxAgeSeconds(1);
+        staticUrlIndexService = newService();
+        Url url = urlRepository.saveAndFlush(
+            new Url().shortUrl("http://short.url/staticIndx").fullUrl("https://www.notarius.com").creationDateTime(ZonedDateTime.now())
+        );
+        staticUrlIndexService.scheduleRebuild();
+        // Deleted without any event, like by another node
+        urlRepository.deleteAllByIdInBatch(List.of(url.getId()));
+        assertThat(staticUrlIndexService.resolve(code("http://short.url/staticIndx"))).isPresent();
+
+        Thread.sleep(1100);
+
+        assertThat(staticUrlIndexService.resolve(code("http://short.url/staticIndx"))).isEmpty();
+        assertThat(staticUrlIndexService.getIndex().get(code("http://short.url/staticIndx"))).isNull();
+    }
+
+    private StaticUrlIndexService newService() {
+        return new StaticUrlIndexService(
+            urlRepository,
+            shortCodeGenerator,
+            transactionManager,
+            taskExecutor,
+            applicationProperties,
+            new SimpleMeterRegistry()
+        );
+    }
+
+    private long code(String shortUrl) {
+        return shortCodeGenerator.toCode(shortUrl);
+    }
+}
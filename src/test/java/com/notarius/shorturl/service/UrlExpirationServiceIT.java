@@ -0,0 +1,107 @@
+package com.notarius.shorturl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.notarius.shorturl.IntegrationTest;
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.domain.UrlStats;
+import com.notarius.shorturl.domain.enumeration.StatsGranularity;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.repository.UrlStatsRepository;
+import com.notarius.shorturl.service.dto.ResolvedUrl;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link UrlExpirationService}.
+ */
+@IntegrationTest
+@Transactional
+class UrlExpirationServiceIT {
+
+    private static final String SHORT_URL = "http://short.url/expiratio";
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private UrlStatsRepository urlStatsRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ShortCodeGenerator shortCodeGenerator;
+
+    private UrlExpirationService urlExpirationService;
+
+    private Cache resolvedUrls;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getExpiration().setBatchSize(2);
+        urlExpirationService = new UrlExpirationService(
+            urlRepository,
+            eventPublisher,
+            transactionManager,
+            applicationProperties,
+            new SimpleMeterRegistry()
+        );
+        resolvedUrls = Objects.requireNonNull(cacheManager.getCache(UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        IntStream.range(0, 6).forEach(i -> resolvedUrls.evict(shortCodeGenerator.toCode(SHORT_URL + i)));
+    }
+
+    @Test
+    void assertThatExpiredUrlsAreDeletedInBatches() {
+        ZonedDateTime now = ZonedDateTime.now();
+        List<Url> urls = IntStream.range(0, 6)
+            .mapToObj(i ->
+                urlRepository.saveAndFlush(
+                    new Url()
+                        .shortUrl(SHORT_URL + i)
+                        .fullUrl("https://www.notarius.com/expiration-" + i)
+                        .creationDateTime(now.minusDays(2))
+                        // 5 urls expired, the last one expiring tomorrow
+                        .expirationDateTime(now.minusDays(1).plusHours(i * 5L))
+                )
+            )
+            .toList();
+        urlStatsRepository.saveAndFlush(
+            new UrlStats().urlId(urls.get(0).getId()).granularity(StatsGranularity.DAY).bucketStart(now.minusDays(2)).clicks(3)
+        );
+        urls.forEach(url -> resolvedUrls.put(shortCodeGenerator.toCode(url.getShortUrl()), new ResolvedUrl(url)));
+
+        urlExpirationService.removeExpiredUrls();
+
+        assertThat(urlRepository.findExistingShortUrls(urls.stream().map(Url::getShortUrl).toList())).containsExactly(SHORT_URL + 5);
+        assertThat(urlStatsRepository.findAll()).noneMatch(stats -> stats.getUrlId().equals(urls.get(0).getId()));
+        assertThat(resolvedUrls.get(shortCodeGenerator.toCode(SHORT_URL + 0))).isNull();
+        assertThat(resolvedUrls.get(shortCodeGenerator.toCode(SHORT_URL + 4))).isNull();
+        assertThat(resolvedUrls.get(shortCodeGenerator.toCode(SHORT_URL + 5))).isNotNull();
+    }
+}
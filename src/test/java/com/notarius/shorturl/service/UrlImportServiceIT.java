@@ -0,0 +1,106 @@
+package com.notarius.shorturl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.notarius.shorturl.IntegrationTest;
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.domain.UrlImport;
+import com.notarius.shorturl.repository.UrlImportRepository;
+import com.notarius.shorturl.repository.UrlRepository;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link UrlImportService}.
+ */
+@IntegrationTest
+@Transactional
+class UrlImportServiceIT {
+
+    private static final String FULL_URL = "https://www.notarius.com/import-service";
+
+    @Autowired
+    private UrlImportService urlImportService;
+
+    @Autowired
+    private UrlImportRepository urlImportRepository;
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private UrlShortenerService urlShortenerService;
+
+    @Test
+    void assertThatCsvImportCountsCreatedExistingAndRejectedRows() throws IOException {
+        Url existing = urlShortenerService.shorten(new Url().fullUrl(FULL_URL));
+        String csv =
+            "full_url,expiration_date_time\n" +
+            "\"" + FULL_URL + "/1?a=1,b=2\",2100-01-01T00:00:00Z\n" +
+            FULL_URL + "\n" +
+            FULL_URL + "/2\n" +
+            FULL_URL + "/2\n" +
+            FULL_URL + "/3,not a date\n" +
+            ",\n";
+
+        UrlImport urlImport = urlImportService.importUrls("csv-import", input(csv), UrlImportService.Format.CSV);
+
+        assertThat(urlImport.isCompleted()).isTrue();
+        assertThat(urlImport.getRowsRead()).isEqualTo(6);
+        assertThat(urlImport.getCreatedCount()).isEqualTo(2);
+        assertThat(urlImport.getExistingCount()).isEqualTo(2);
+        assertThat(urlImport.getRejectedCount()).isEqualTo(2);
+        Url imported = findByFullUrl(FULL_URL + "/1?a=1,b=2").orElseThrow();
+        assertThat(imported.getExpirationDateTime().toInstant()).isEqualTo(ZonedDateTime.parse("2100-01-01T00:00:00Z").toInstant());
+        assertThat(urlRepository.findByShortUrl(imported.getShortUrl())).map(Url::getId).contains(imported.getId());
+        assertThat(findByFullUrl(FULL_URL).map(Url::getId)).contains(existing.getId());
+    }
+
+    @Test
+    void assertThatNdjsonImportRejectsInvalidRows() throws IOException {
+        String ndjson = "{\"fullUrl\":\"" + FULL_URL + "/4\"}\n" + "{\"fullUrl\":42}\n" + "not json\n";
+
+        UrlImport urlImport = urlImportService.importUrls("ndjson-import", input(ndjson), UrlImportService.Format.NDJSON);
+
+        assertThat(urlImport.getRowsRead()).isEqualTo(3);
+        assertThat(urlImport.getCreatedCount()).isEqualTo(1);
+        assertThat(urlImport.getRejectedCount()).isEqualTo(2);
+        assertThat(findByFullUrl(FULL_URL + "/4")).isPresent();
+    }
+
+    @Test
+    void assertThatImportResumesAfterItsCheckpoint() throws IOException {
+        UrlImport checkpoint = new UrlImport().name("resumed-import");
+        checkpoint.setRowsRead(1);
+        checkpoint.setCreatedCount(1);
+        urlImportRepository.saveAndFlush(checkpoint);
+        String csv = FULL_URL + "/5\n" + FULL_URL + "/6\n";
+
+        UrlImport urlImport = urlImportService.importUrls("resumed-import", input(csv), UrlImportService.Format.CSV);
+
+        assertThat(urlImport.getRowsRead()).isEqualTo(2);
+        assertThat(urlImport.getCreatedCount()).isEqualTo(2);
+        assertThat(findByFullUrl(FULL_URL + "/5")).isEmpty();
+        assertThat(findByFullUrl(FULL_URL + "/6")).isPresent();
+
+        UrlImport again = urlImportService.importUrls("resumed-import", input(FULL_URL + "/7\n"), UrlImportService.Format.CSV);
+
+        assertThat(again.getRowsRead()).isEqualTo(2);
+        assertThat(findByFullUrl(FULL_URL + "/7")).isEmpty();
+    }
+
+    private Optional<Url> findByFullUrl(String fullUrl) {
+        return urlRepository.findAll().stream().filter(url -> fullUrl.equals(url.getFullUrl())).findFirst();
+    }
+
+    private static InputStream input(String rows) {
+        return new ByteArrayInputStream(rows.getBytes(StandardCharsets.UTF_8));
+    }
+}
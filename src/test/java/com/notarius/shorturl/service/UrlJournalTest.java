@@ -0,0 +1,112 @@
+package com.notarius.shorturl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.notarius.shorturl.domain.Url;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UrlJournalTest {
+
+    private static final ZonedDateTime CREATION = ZonedDateTime.ofInstant(Instant.ofEpochMilli(1_800_000_000_000L), ZoneId.systemDefault());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void urlsAreReadBackFromRolledSegments() throws Exception {
+        List<Path> sealed = new ArrayList<>();
+        try (UrlJournal journal = UrlJournal.open(directory)) {
+            journal.append(url(1).expirationDateTime(CREATION.plusDays(1)));
+            journal.append(url(2));
+            sealed.add(journal.roll());
+            assertThat(journal.roll()).isNull();
+            journal.append(url(3));
+            sealed.add(journal.getCurrentSegment());
+        }
+
+        assertThat(UrlJournal.segments(directory)).containsExactlyElementsOf(sealed);
+        List<Url> urls = new ArrayList<>();
+        assertThat(UrlJournal.read(sealed.get(0), urls::add)).isEqualTo(2);
+        assertThat(UrlJournal.read(sealed.get(1), urls::add)).isEqualTo(1);
+        assertThat(urls).extracting(Url::getId).containsExactly(1L, 2L, 3L);
+        assertThat(urls.get(0)).satisfies(url -> {
+            assertThat(url.getShortUrl()).isEqualTo("http://short.url/journal001");
+            assertThat(url.getFullUrl()).isEqualTo("https://www.notarius.com/é/1");
+            assertThat(url.getCreationDateTime()).isEqualTo(CREATION);
+            assertThat(url.getExpirationDateTime()).isEqualTo(CREATION.plusDays(1));
+        });
+        assertThat(urls.get(1).getExpirationDateTime()).isNull();
+
+        // Reopened after the last segment
+        try (UrlJournal journal = UrlJournal.open(directory)) {
+            assertThat(journal.getCurrentSegment()).isNotIn(sealed);
+        }
+    }
+
+    @Test
+    void readingStopsAtATornRecord() throws Exception {
+        Path segment;
+        try (UrlJournal journal = UrlJournal.open(directory)) {
+            journal.append(url(1));
+            journal.append(url(2));
+            segment = journal.getCurrentSegment();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        // The second record loses its last byte, then gets a corrupt byte
+        Files.write(segment, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThat(UrlJournal.read(segment, url -> {})).isEqualTo(1);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(segment, bytes);
+        assertThat(UrlJournal.read(segment, url -> {})).isEqualTo(1);
+        Files.write(segment, new byte[] { 0, 0, 0 }, StandardOpenOption.APPEND);
+        assertThat(UrlJournal.read(segment, url -> {})).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentAppendsAreAllJournaled() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        Path segment;
+        try (UrlJournal journal = UrlJournal.open(directory)) {
+            List<Future<?>> appends = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                long id = i;
+                appends.add(executor.submit(() -> {
+                    journal.append(url(id));
+                    return null;
+                }));
+            }
+            for (Future<?> append : appends) {
+                append.get(1, TimeUnit.MINUTES);
+            }
+            segment = journal.getCurrentSegment();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Url> urls = new ArrayList<>();
+        UrlJournal.read(segment, urls::add);
+        assertThat(urls).extracting(Url::getId).hasSize(1000).doesNotHaveDuplicates();
+    }
+
+    private static Url url(long id) {
+        return new Url()
+            .id(id)
+            .shortUrl(String.format("http://short.url/journal%03d", id))
+            .fullUrl("https://www.notarius.com/é/" + id)
+            .creationDateTime(CREATION);
+    }
+}
@@ -0,0 +1,141 @@
+package com.notarius.shorturl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.notarius.shorturl.IntegrationTest;
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.service.dto.ShortenedUrlDTO;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import com.notarius.shorturl.util.UrlUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link UrlShortenerService}.
+ */
+@IntegrationTest
+@Transactional
+class UrlShortenerServiceIT {
+
+    private static final String FULL_URL = "https://www.notarius.com/shortener-service";
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private UrlShortenerService urlShortenerService;
+
+    @Autowired
+    private ShortCodeGenerator shortCodeGenerator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void assertThatShortenReusesExistingUrl() {
+        Url created = urlShortenerService.shorten(new Url().fullUrl(FULL_URL));
+        Url existing = urlShortenerService.shorten(new Url().fullUrl(FULL_URL));
+
+        assertThat(created.getShortUrl()).isEqualTo(shortCodeGenerator.generate(FULL_URL));
+        assertThat(existing.getId()).isEqualTo(created.getId());
+    }
+
+    @Test
+    void assertThatShortenProbesAgainOnCollision() {
+        double collisionsBefore = collisionCount();
+        Url squatter = urlRepository.saveAndFlush(
+            new Url().shortUrl(shortCodeGenerator.generate(FULL_URL)).fullUrl("https://www.example.com").creationDateTime(ZonedDateTime.now())
+        );
+
+        Url created = urlShortenerService.shorten(new Url().fullUrl(FULL_URL));
+
+        assertThat(created.getId()).isNotEqualTo(squatter.getId());
+        assertThat(created.getFullUrl()).isEqualTo(FULL_URL);
+        assertThat(created.getShortUrl()).isEqualTo(shortCodeGenerator.generate(FULL_URL, 1));
+        assertThat(collisionCount()).isEqualTo(collisionsBefore + 1);
+        assertThat(urlShortenerService.shorten(new Url().fullUrl(FULL_URL)).getId()).isEqualTo(created.getId());
+    }
+
+    @Test
+    void assertThatShortenAllKeepsOrderAndReportsExistingUrls() {
+        Url existing = urlShortenerService.shorten(new Url().fullUrl(FULL_URL));
+        Url squatter = urlRepository.saveAndFlush(
+            new Url()
+                .shortUrl(shortCodeGenerator.generate(FULL_URL + "/1"))
+                .fullUrl("https://www.example.com")
+                .creationDateTime(ZonedDateTime.now())
+        );
+
+        List<ShortenedUrlDTO> shortenedUrls = urlShortenerService.shortenAll(
+            List.of(FULL_URL + "/1", FULL_URL, FULL_URL + "/2", FULL_URL + "/1")
+        );
+
+        assertThat(shortenedUrls).extracting(ShortenedUrlDTO::getFullUrl).containsExactly(
+            FULL_URL + "/1",
+            FULL_URL,
+            FULL_URL + "/2",
+            FULL_URL + "/1"
+        );
+        assertThat(shortenedUrls).extracting(ShortenedUrlDTO::isCreated).containsExactly(true, false, true, true);
+        assertThat(shortenedUrls.get(0).getShortUrl()).isEqualTo(shortCodeGenerator.generate(FULL_URL + "/1", 1));
+        assertThat(shortenedUrls.get(0).getId()).isNotNull().isNotEqualTo(squatter.getId()).isEqualTo(shortenedUrls.get(3).getId());
+        assertThat(shortenedUrls.get(1).getId()).isEqualTo(existing.getId());
+        assertThat(urlRepository.findByShortUrl(shortenedUrls.get(2).getShortUrl())).isPresent();
+    }
+
+    @Test
+    void assertThatUrlsShortenedWithLegacyHexadecimalCodesAreReused() {
+        Url legacy = urlRepository.saveAndFlush(
+            new Url().shortUrl(UrlUtil.generateLegacyShortUrl(FULL_URL)).fullUrl(FULL_URL).creationDateTime(ZonedDateTime.now())
+        );
+        Url batchLegacy = urlRepository.saveAndFlush(
+            new Url()
+                .shortUrl(UrlUtil.generateLegacyShortUrl(FULL_URL + "/1"))
+                .fullUrl(FULL_URL + "/1")
+                .creationDateTime(ZonedDateTime.now())
+        );
+
+        assertThat(urlShortenerService.shorten(new Url().fullUrl(FULL_URL)).getId()).isEqualTo(legacy.getId());
+        List<ShortenedUrlDTO> shortenedUrls = urlShortenerService.shortenAll(List.of(FULL_URL + "/1", FULL_URL + "/2"));
+        assertThat(shortenedUrls).extracting(ShortenedUrlDTO::isCreated).containsExactly(false, true);
+        assertThat(shortenedUrls.get(0).getId()).isEqualTo(batchLegacy.getId());
+        assertThat(shortenedUrls.get(0).getShortUrl()).isEqualTo(UrlUtil.generateLegacyShortUrl(FULL_URL + "/1"));
+    }
+
+    @Test
+    void assertThatCodesAreHandedOutOnceInABatch() {
+        // 3844 codes for 300 full urls: several of them get the same code on their first probes
+        ShortCodeGenerator tinyCodes = new ShortCodeGenerator(UrlUtil.HTTP_SHORT_URL, ShortCodeGenerator.BASE62_ALPHABET, 2);
+        UrlShortenerService service = new UrlShortenerService(
+            urlRepository,
+            tinyCodes,
+            null,
+            new ApplicationProperties(),
+            new SimpleMeterRegistry()
+        );
+        List<String> fullUrls = IntStream.range(0, 300).mapToObj(i -> FULL_URL + "/" + i).toList();
+
+        Map<String, Url> urls = service.assignShortUrls(fullUrls);
+
+        assertThat(urls).hasSize(300);
+        assertThat(urls.values()).extracting(Url::getShortUrl).doesNotHaveDuplicates();
+        assertThat(urls.values()).extracting(Url::getFullUrl).containsExactlyElementsOf(fullUrls);
+    }
+
+    private double collisionCount() {
+        return meterRegistry
+            .get(UrlShortenerService.SHORT_CODES_METER_NAME)
+            .tag(UrlShortenerService.SHORT_CODES_METER_RESULT_DIMENSION, "collision")
+            .counter()
+            .count();
+    }
+}
@@ -0,0 +1,164 @@
+package com.notarius.shorturl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.notarius.shorturl.IntegrationTest;
+import com.notarius.shorturl.config.ApplicationProperties;
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.repository.UrlBulkRepository;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Integration tests for {@link UrlWriteBehindService}.
+ */
+@IntegrationTest
+class UrlWriteBehindServiceIT {
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private UrlBulkRepository urlBulkRepository;
+
+    @Autowired
+    private ShortCodeGenerator shortCodeGenerator;
+
+    @Autowired
+    private ShortCodePool shortCodePool;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ApplicationProperties applicationProperties;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getShortCode().setStrategy(ApplicationProperties.ShortCode.Strategy.KEY_POOL);
+        applicationProperties.getWriteBehind().setEnabled(true);
+        applicationProperties.getWriteBehind().setDirectory(directory.toString());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        urlRepository.deleteAllByIdInBatch(createdIds);
+    }
+
+    @Test
+    void assertThatUrlsAreResolvedWhilePendingThenInserted() {
+        UrlWriteBehindService service = newService();
+        service.start();
+        assertThat(service.isEnabled()).isTrue();
+
+        Url url = service.shorten(new Url().fullUrl("https://www.notarius.com/write-behind"));
+        createdIds.add(url.getId());
+        long code = shortCodeGenerator.toCode(url.getShortUrl());
+
+        assertThat(url.getId()).isNotNull();
+        assertThat(urlRepository.findById(url.getId())).isEmpty();
+        assertThat(service.resolve(code)).hasValueSatisfying(resolvedUrl ->
+            assertThat(resolvedUrl.getFullUrl()).isEqualTo("https://www.notarius.com/write-behind")
+        );
+        assertThat(service.findPending(url.getShortUrl())).contains(url);
+        assertThat(service.findPending(url.getId())).contains(url);
+        assertThat(service.shorten(new Url().fullUrl("https://www.notarius.com/write-behind"))).isSameAs(url);
+
+        assertThat(service.flush()).isEqualTo(1);
+        assertThat(urlRepository.findById(url.getId())).hasValueSatisfying(inserted -> {
+            assertThat(inserted.getShortUrl()).isEqualTo(url.getShortUrl());
+            assertThat(inserted.getFullUrl()).isEqualTo("https://www.notarius.com/write-behind");
+        });
+        assertThat(service.resolve(code)).isEmpty();
+        assertThat(service.findPending(url.getId())).isEmpty();
+        assertThat(service.shorten(new Url().fullUrl("https://www.notarius.com/write-behind")).getId()).isEqualTo(url.getId());
+        service.stop();
+    }
+
+    @Test
+    void assertThatPendingUrlsAreReusedOnceMaxPendingIsReached() {
+        applicationProperties.getWriteBehind().setMaxPending(1);
+        UrlWriteBehindService service = newService();
+        service.start();
+
+        Url pending = service.shorten(new Url().fullUrl("https://www.notarius.com/write-behind/pending"));
+        createdIds.add(pending.getId());
+        Url synchronous = service.shorten(new Url().fullUrl("https://www.notarius.com/write-behind/synchronous"));
+        createdIds.add(synchronous.getId());
+
+        assertThat(service.shorten(new Url().fullUrl("https://www.notarius.com/write-behind/pending"))).isSameAs(pending);
+        assertThat(urlRepository.findById(pending.getId())).isEmpty();
+        assertThat(service.findPending(synchronous.getId())).isEmpty();
+        assertThat(urlRepository.findById(synchronous.getId())).isPresent();
+        service.stop();
+        assertThat(urlRepository.findById(pending.getId())).isPresent();
+    }
+
+    @Test
+    void assertThatJournalIsReplayedAfterACrash() throws Exception {
+        UrlWriteBehindService crashed = newService();
+        crashed.start();
+        Url inserted = crashed.shorten(new Url().fullUrl("https://www.notarius.com/write-behind/inserted"));
+        createdIds.add(inserted.getId());
+        // Inserted before the crash, but its segment is not deleted yet
+        Path insertedSegment = UrlJournal.segments(directory).get(0);
+        byte[] insertedRecords = Files.readAllBytes(insertedSegment);
+        crashed.flush();
+        Files.write(insertedSegment, insertedRecords);
+        Url replayed = crashed.shorten(new Url().fullUrl("https://www.notarius.com/write-behind/replayed"));
+        createdIds.add(replayed.getId());
+        // An append torn by the crash
+        Files.write(UrlJournal.segments(directory).get(1), new byte[] { 0, 0, 1 }, StandardOpenOption.APPEND);
+
+        UrlWriteBehindService restarted = newService();
+        restarted.start();
+
+        assertThat(urlRepository.findAllByFullUrlDigestIn(List.of(inserted.getFullUrlDigest(), replayed.getFullUrlDigest())))
+            .extracting(Url::getId)
+            .containsExactlyInAnyOrder(inserted.getId(), replayed.getId());
+        assertThat(restarted.resolve(shortCodeGenerator.toCode(replayed.getShortUrl()))).isEmpty();
+        assertThat(UrlJournal.segments(directory)).hasSize(1);
+        restarted.stop();
+    }
+
+    private UrlWriteBehindService newService() {
+        UrlShortenerService urlShortenerService = new UrlShortenerService(
+            urlRepository,
+            shortCodeGenerator,
+            shortCodePool,
+            applicationProperties,
+            new SimpleMeterRegistry()
+        );
+        return new UrlWriteBehindService(
+            urlShortenerService,
+            urlBulkRepository,
+            urlRepository,
+            shortCodeGenerator,
+            eventPublisher,
+            transactionManager,
+            applicationProperties,
+            new SimpleMeterRegistry()
+        );
+    }
+}
@@ -0,0 +1,42 @@
+package com.notarius.shorturl.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContainHasNoFalseNegative() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).parallel().forEach(i -> filter.put("http://short.url/" + i));
+
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("http://short.url/" + i))).isTrue();
+        assertThat(filter.getInsertions()).isEqualTo(10_000);
+    }
+
+    @Test
+    void mightContainKeepsFalsePositiveRateNearConfiguredOne() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("http://short.url/" + i));
+
+        long falsePositives = IntStream.range(10_000, 110_000).filter(i -> filter.mightContain("http://short.url/" + i)).count();
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.getFalsePositiveRate()).isBetween(0.005, 0.015);
+    }
+
+    @Test
+    void sizeFollowsExpectedInsertionsAndRate() {
+        BloomFilter filter = new BloomFilter(1_000_000, 0.01);
+        assertThat(filter.getBitSize()).isBetween(9_500_000L, 9_700_000L);
+        assertThat(filter.getHashFunctions()).isEqualTo(7);
+    }
+
+    @Test
+    void constructorRejectsInvalidArguments() {
+        assertThatThrownBy(() -> new BloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(10, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,74 @@
+package com.notarius.shorturl.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ClickEventLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayReadsEveryAppendedEventAcrossSegments() throws IOException {
+        try (ClickEventLog log = ClickEventLog.open(directory, 100, 10)) {
+            for (int i = 1; i <= 250; i++) {
+                log.append(i, ClickEvent.hash("http://short.url/" + i), i, -i, UserAgentClass.MOBILE.getCode());
+            }
+        }
+
+        assertThat(ClickEventLog.segments(directory)).hasSize(3);
+        List<ClickEvent> events = new ArrayList<>();
+        assertThat(ClickEventLog.replay(directory, events::add)).isEqualTo(250);
+        assertThat(events).extracting(ClickEvent::getTimestamp).startsWith(1L, 2L, 3L).endsWith(250L);
+        ClickEvent event = events.get(41);
+        assertThat(event.getCodeId()).isEqualTo(ClickEvent.hash("http://short.url/42"));
+        assertThat(event.getReferrerHash()).isEqualTo(42);
+        assertThat(event.getIpHash()).isEqualTo(-42);
+        assertThat(event.getUserAgentClass()).isEqualTo(UserAgentClass.MOBILE);
+    }
+
+    @Test
+    void openStartsNewSegmentAndDropsOldestSegments() throws IOException {
+        for (int i = 1; i <= 4; i++) {
+            try (ClickEventLog log = ClickEventLog.open(directory, 10, 2)) {
+                log.append(i, 0, 0, 0, UserAgentClass.UNKNOWN.getCode());
+            }
+        }
+
+        List<Path> segments = ClickEventLog.segments(directory);
+        assertThat(segments).extracting(segment -> segment.getFileName().toString()).containsExactly(
+            "clicks-000000000002.seg",
+            "clicks-000000000003.seg"
+        );
+        List<ClickEvent> events = new ArrayList<>();
+        ClickEventLog.replay(directory, events::add);
+        assertThat(events).extracting(ClickEvent::getTimestamp).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void readRejectsOtherFiles() throws IOException {
+        Path file = Files.write(directory.resolve("clicks-000000000000.seg"), new byte[64]);
+
+        assertThatThrownBy(() -> ClickEventLog.read(file, event -> {})).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void userAgentsAreClassified() {
+        assertThat(UserAgentClass.of(null)).isEqualTo(UserAgentClass.UNKNOWN);
+        assertThat(UserAgentClass.of("Mozilla/5.0 (Windows NT 10.0; Win64; x64) Firefox/130.0")).isEqualTo(UserAgentClass.BROWSER);
+        assertThat(UserAgentClass.of("Mozilla/5.0 (iPhone; CPU iPhone OS 17_0 like Mac OS X) Mobile/15E148")).isEqualTo(
+            UserAgentClass.MOBILE
+        );
+        assertThat(UserAgentClass.of("Mozilla/5.0 (compatible; Googlebot/2.1)")).isEqualTo(UserAgentClass.BOT);
+        assertThat(UserAgentClass.of("curl/8.5.0")).isEqualTo(UserAgentClass.LIBRARY);
+        assertThat(UserAgentClass.fromCode(UserAgentClass.BOT.getCode())).isEqualTo(UserAgentClass.BOT);
+    }
+}
@@ -0,0 +1,80 @@
+package com.notarius.shorturl.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ClickEventRingTest {
+
+    @Test
+    void drainReturnsEventsInOrderAndRefusesWhenFull() {
+        ClickEventRing ring = new ClickEventRing(4);
+        for (int i = 1; i <= 4; i++) {
+            assertThat(ring.offer(i, i * 10L, i, -i, (byte) 1)).isTrue();
+        }
+        assertThat(ring.offer(5, 50, 5, -5, (byte) 1)).isFalse();
+        assertThat(ring.size()).isEqualTo(4);
+
+        List<Long> timestamps = new ArrayList<>();
+        assertThat(
+            ring.drain(
+                (timestamp, codeId, referrerHash, ipHash, userAgentClass) -> {
+                    assertThat(codeId).isEqualTo(timestamp * 10);
+                    assertThat(referrerHash).isEqualTo((int) timestamp);
+                    assertThat(ipHash).isEqualTo((int) -timestamp);
+                    timestamps.add(timestamp);
+                },
+                3
+            )
+        ).isEqualTo(3);
+        assertThat(timestamps).containsExactly(1L, 2L, 3L);
+        assertThat(ring.offer(5, 50, 5, -5, (byte) 1)).isTrue();
+    }
+
+    @Test
+    void concurrentProducersLoseNoEvent() throws InterruptedException {
+        ClickEventRing ring = new ClickEventRing(1024);
+        int producers = 4;
+        int eventsPerProducer = 100_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 1; i <= eventsPerProducer; i++) {
+                    while (!ring.offer(i, producer, 0, 0, (byte) 0)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        long[] lastByProducer = new long[producers];
+        AtomicInteger drained = new AtomicInteger();
+        while (drained.get() < producers * eventsPerProducer) {
+            ring.drain(
+                (timestamp, codeId, referrerHash, ipHash, userAgentClass) -> {
+                    // Each producer's events come out in the order it offered them
+                    assertThat(timestamp).isEqualTo(lastByProducer[(int) codeId] + 1);
+                    lastByProducer[(int) codeId] = timestamp;
+                    drained.incrementAndGet();
+                },
+                256
+            );
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(lastByProducer).containsOnly(eventsPerProducer);
+        assertThat(ring.size()).isZero();
+    }
+
+    @Test
+    void capacityMustBeAPowerOfTwo() {
+        assertThatThrownBy(() -> new ClickEventRing(1000)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,77 @@
+package com.notarius.shorturl.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class HeavyHittersTest {
+
+    @Test
+    void testSketchNeverUndercounts() {
+        CountMinSketch sketch = new CountMinSketch(1000, 4);
+        assertThat(sketch.getWidth()).isEqualTo(1024);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.add(ClickEvent.hash("key-" + (i % 2000)));
+        }
+        int overcounted = 0;
+        for (int key = 0; key < 2000; key++) {
+            long estimate = sketch.estimate(ClickEvent.hash("key-" + key));
+            assertThat(estimate).isGreaterThanOrEqualTo(5);
+            // Overcounting by more than e / width of the total has a probability of exp(-depth)
+            if (estimate > 5 + 27) {
+                overcounted++;
+            }
+        }
+        assertThat(overcounted).isLessThan(2000 / 50);
+        sketch.decay();
+        assertThat(sketch.getTotal()).isEqualTo(5_000);
+    }
+
+    @Test
+    void testHottestKeysAreKept() {
+        HeavyHitters heavyHitters = new HeavyHitters(10, 4096, 4);
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            if (random.nextInt(4) == 0) {
+                // A quarter of the stream goes to 6 hot keys, hot-0 for half of it, hot-1 for a quarter, and so on
+                heavyHitters.add("hot-" + Integer.numberOfTrailingZeros(random.nextInt(32) | 32));
+            } else {
+                heavyHitters.add("cold-" + random.nextInt(100_000));
+            }
+        }
+        List<HeavyHitters.Entry> top = heavyHitters.top();
+        assertThat(top).hasSize(10);
+        assertThat(top.subList(0, 4)).extracting(HeavyHitters.Entry::getKey).containsExactly("hot-0", "hot-1", "hot-2", "hot-3");
+        assertThat(top.subList(4, 6)).extracting(HeavyHitters.Entry::getKey).containsExactlyInAnyOrder("hot-4", "hot-5");
+        assertThat(top.get(0).getCount()).isCloseTo(25_000L, within(1_000L));
+
+        heavyHitters.decay();
+        assertThat(heavyHitters.top().get(0).getCount()).isEqualTo(top.get(0).getCount() / 2);
+    }
+
+    @Test
+    void testConcurrentAdds() throws InterruptedException {
+        HeavyHitters heavyHitters = new HeavyHitters(3, 1024, 4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            int offset = thread;
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    heavyHitters.add("hot");
+                    heavyHitters.add("cold-" + offset + "-" + i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(heavyHitters.top()).hasSize(3).first().extracting(HeavyHitters.Entry::getKey).isEqualTo("hot");
+        assertThat(heavyHitters.top().get(0).getCount()).isGreaterThanOrEqualTo(40_000);
+        assertThat(heavyHitters.getTotal()).isEqualTo(80_000);
+    }
+}
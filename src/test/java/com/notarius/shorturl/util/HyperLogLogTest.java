@@ -0,0 +1,58 @@
+package com.notarius.shorturl.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+    @Test
+    void testEstimateIsWithinErrorBounds() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertThat(sketch.estimate()).isZero();
+        for (int i = 0; i < 100_000; i++) {
+            sketch.add(ClickEvent.hash("visitor-" + i));
+            // Duplicates are not counted
+            sketch.add(ClickEvent.hash("visitor-" + i));
+        }
+        assertThat(sketch.estimate()).isCloseTo(100_000L, within(5_000L));
+    }
+
+    @Test
+    void testSmallCardinalitiesAreExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 10; i++) {
+            sketch.add(ClickEvent.hash("visitor-" + i));
+        }
+        assertThat(sketch.estimate()).isEqualTo(10);
+    }
+
+    @Test
+    void testMergeIsIdempotent() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 20_000; i++) {
+            first.add(ClickEvent.hash("visitor-" + i));
+            second.add(ClickEvent.hash("visitor-" + (i + 10_000)));
+        }
+        HyperLogLog merged = new HyperLogLog().merge(first).merge(second);
+        long estimate = merged.estimate();
+        assertThat(estimate).isCloseTo(30_000L, within(1_500L));
+        assertThat(merged.merge(first).merge(second).estimate()).isEqualTo(estimate);
+    }
+
+    @Test
+    void testSerialization() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add(ClickEvent.hash("visitor-" + i));
+        }
+        byte[] bytes = sketch.toBytes();
+        assertThat(bytes).hasSize(HyperLogLog.SERIALIZED_SIZE);
+        assertThat(HyperLogLog.fromBytes(bytes).estimate()).isEqualTo(sketch.estimate());
+        assertThat(HyperLogLog.fromBytes(bytes).toBytes()).isEqualTo(bytes);
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[12])).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,47 @@
+package com.notarius.shorturl.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class MinimalPerfectHashTest {
+
+    @Test
+    void getMapsEveryKeyToItsOwnIndex() {
+        long[] keys = new SplittableRandom(42).longs(100_000).toArray();
+        MinimalPerfectHash hash = new MinimalPerfectHash(keys);
+
+        BitSet indexes = new BitSet();
+        for (long key : keys) {
+            int index = hash.get(key);
+            assertThat(index).isBetween(0, keys.length - 1);
+            indexes.set(index);
+        }
+        assertThat(indexes.cardinality()).isEqualTo(keys.length);
+        assertThat(hash.size()).isEqualTo(keys.length);
+    }
+
+    @Test
+    void sizeIsAboutThreeBitsPerKey() {
+        long[] keys = new SplittableRandom(42).longs(100_000).toArray();
+        MinimalPerfectHash hash = new MinimalPerfectHash(keys);
+
+        assertThat((double) hash.getBitSize() / keys.length).isBetween(2.5, 3.5);
+    }
+
+    @Test
+    void emptySetHasNoIndex() {
+        MinimalPerfectHash hash = new MinimalPerfectHash(new long[0]);
+
+        assertThat(hash.size()).isZero();
+        assertThat(hash.get(42)).isEqualTo(-1);
+    }
+
+    @Test
+    void constructorRejectsDuplicateKeys() {
+        assertThatThrownBy(() -> new MinimalPerfectHash(new long[] { 1, 2, 1 })).isInstanceOf(IllegalArgumentException.class);
+    }
+}
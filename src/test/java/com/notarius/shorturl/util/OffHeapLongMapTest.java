@@ -0,0 +1,136 @@
+package com.notarius.shorturl.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class OffHeapLongMapTest {
+
+    @Test
+    void putGetAndRemove() {
+        OffHeapLongMap map = new OffHeapLongMap(4, 16, 1024);
+
+        map.put(0L, bytes("zero"));
+        map.put(42L, bytes("forty-two"));
+        map.put(Long.MAX_VALUE - 1, bytes("max"));
+
+        assertThat(map.get(0L)).isEqualTo(bytes("zero"));
+        assertThat(map.get(42L)).isEqualTo(bytes("forty-two"));
+        assertThat(map.get(Long.MAX_VALUE - 1)).isEqualTo(bytes("max"));
+        assertThat(map.get(43L)).isNull();
+        assertThat(map.size()).isEqualTo(3);
+
+        map.put(42L, bytes("replaced"));
+        assertThat(map.get(42L)).isEqualTo(bytes("replaced"));
+        assertThat(map.size()).isEqualTo(3);
+
+        assertThat(map.remove(42L)).isTrue();
+        assertThat(map.remove(42L)).isFalse();
+        assertThat(map.get(42L)).isNull();
+        assertThat(map.size()).isEqualTo(2);
+
+        map.put(42L, bytes("again"));
+        assertThat(map.get(42L)).isEqualTo(bytes("again"));
+
+        map.clear();
+        assertThat(map.get(0L)).isNull();
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void tablesGrowAndArenasAreCompacted() {
+        OffHeapLongMap map = new OffHeapLongMap(2, 16, 4096);
+
+        for (long key = 0; key < 100_000; key++) {
+            map.put(key, bytes("https://www.notarius.com/" + key));
+        }
+        for (int round = 0; round < 5; round++) {
+            for (long key = 0; key < 100_000; key += 2) {
+                map.put(key, bytes("https://www.notarius.com/" + key + "/" + round));
+            }
+        }
+        for (long key = 1; key < 100_000; key += 4) {
+            map.remove(key);
+        }
+
+        assertThat(map.size()).isEqualTo(75_000);
+        assertThat(map.get(10L)).isEqualTo(bytes("https://www.notarius.com/10/4"));
+        assertThat(map.get(11L)).isEqualTo(bytes("https://www.notarius.com/11"));
+        assertThat(map.get(13L)).isNull();
+        // Replaced values are reclaimed: 100,000 values of about 35 bytes, and the tables
+        assertThat(map.getOffHeapBytes()).isLessThan(12_000_000L);
+    }
+
+    @Test
+    void keysAreEvictedAboveTheMaximumNumberOfEntries() {
+        OffHeapLongMap map = new OffHeapLongMap(4, 16, 4096, 1000);
+
+        for (long key = 0; key < 100_000; key++) {
+            map.put(key, bytes("https://www.notarius.com/" + key));
+        }
+        map.put(99_999L, bytes("replaced"));
+
+        assertThat(map.size()).isEqualTo(1000);
+        assertThat(map.getEvictions()).isEqualTo(99_000);
+        assertThat(map.get(99_999L)).isEqualTo(bytes("replaced"));
+        // Tables and arenas stay sized for the maximum
+        assertThat(map.getOffHeapBytes()).isLessThan(100_000L);
+    }
+
+    @Test
+    void readersSeeConsistentValuesWhileWritersReplaceThem() throws Exception {
+        OffHeapLongMap map = new OffHeapLongMap(8, 16, 1024);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int round = 0; round < 20; round++) {
+                    for (long key = 0; key < 5_000; key++) {
+                        map.put(key, bytes(key + ":" + round));
+                    }
+                }
+            });
+            Future<?>[] readers = new Future<?>[3];
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = executor.submit(() -> {
+                    while (running.get()) {
+                        for (long key = 0; key < 5_000; key++) {
+                            byte[] value = map.get(key);
+                            if (value != null) {
+                                assertThat(new String(value, StandardCharsets.UTF_8)).startsWith(key + ":");
+                            }
+                        }
+                    }
+                });
+            }
+            writer.get(1, TimeUnit.MINUTES);
+            running.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(map.get(4_999L)).isEqualTo(bytes("4999:19"));
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        assertThatThrownBy(() -> new OffHeapLongMap(3, 16, 1024)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new OffHeapLongMap(1, 16, 1024, 0)).isInstanceOf(IllegalArgumentException.class);
+        OffHeapLongMap map = new OffHeapLongMap(1, 16, 1024);
+        assertThatThrownBy(() -> map.put(-1L, bytes("negative"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.get(Long.MAX_VALUE)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,139 @@
+package com.notarius.shorturl.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ShortCodeGeneratorTest {
+
+    private final ShortCodeGenerator generator = new ShortCodeGenerator("", ShortCodeGenerator.BASE62_ALPHABET, 10);
+
+    @Test
+    void generateUsesOnlyAlphabetCharacters() {
+        assertThat(generator.generate("https://www.example.com")).hasSize(10).matches("[0-9A-Za-z]{10}");
+    }
+
+    @Test
+    void generatePrependsPrefix() {
+        ShortCodeGenerator prefixed = new ShortCodeGenerator("http://short.url/", ShortCodeGenerator.BASE62_ALPHABET, 7);
+        assertThat(prefixed.generate("https://www.example.com"))
+            .startsWith("http://short.url/")
+            .hasSize("http://short.url/".length() + 7)
+            .endsWith(new ShortCodeGenerator("", ShortCodeGenerator.BASE62_ALPHABET, 7).generate("https://www.example.com"));
+    }
+
+    @Test
+    void generateHandlesNonAsciiAndLongUrls() {
+        String longUrl = "https://www.example.com/" + "a".repeat(1000);
+        assertThat(generator.generate("https://www.exemple.com/été")).isEqualTo(generator.generate("https://www.exemple.com/été"));
+        assertThat(generator.generate(longUrl)).isEqualTo(generator.generate(longUrl)).isNotEqualTo(generator.generate("a"));
+    }
+
+    @Test
+    void generateSupportsCodesSpanningSeveralDigestWords() {
+        ShortCodeGenerator binary = new ShortCodeGenerator("", "01", 200);
+        assertThat(binary.generate("https://www.example.com")).hasSize(200).matches("[01]+");
+    }
+
+    @Test
+    void generateIsConsistentAcrossThreads() {
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 1000).parallel().forEach(i -> codes.add(generator.generate("https://www.example.com")));
+        assertThat(codes).hasSize(1);
+    }
+
+    @Test
+    void generateSpreadsCodes() {
+        Set<String> codes = new HashSet<>();
+        IntStream.range(0, 10_000).forEach(i -> codes.add(generator.generate("https://www.example.com/" + i)));
+        assertThat(codes).hasSize(10_000);
+    }
+
+    @Test
+    void generateWithSaltGivesAlternativeCodes() {
+        assertThat(generator.generate("https://www.example.com", 0)).isEqualTo(generator.generate("https://www.example.com"));
+        assertThat(generator.generate("https://www.example.com", 1))
+            .isNotEqualTo(generator.generate("https://www.example.com"))
+            .isEqualTo(generator.generate("https://www.example.com", 1));
+    }
+
+    @Test
+    void codeRegexMatchesGeneratedCodes() {
+        ShortCodeGenerator dashed = new ShortCodeGenerator("", "ab-_", 12);
+        assertThat(dashed.generate("https://www.example.com")).matches(dashed.getCodeRegex());
+        assertThat("ab-_").doesNotMatch(dashed.getCodeRegex());
+        assertThat(generator.generate("https://www.example.com")).matches(generator.getCodeRegex());
+    }
+
+    @Test
+    void generateFromSequenceIsAPermutation() {
+        ShortCodeGenerator binary = new ShortCodeGenerator("", "01", 10);
+        Set<String> codes = new HashSet<>();
+        for (long sequence = 0; sequence < binary.getSequenceSpace(); sequence++) {
+            codes.add(binary.generate(sequence));
+        }
+        assertThat(binary.getSequenceSpace()).isEqualTo(1024);
+        assertThat(codes).hasSize(1024).allMatch(code -> code.matches(binary.getCodeRegex()));
+    }
+
+    @Test
+    void generateFromSequenceScramblesConsecutiveNumbers() {
+        assertThat(generator.generate(1L)).matches(generator.getCodeRegex()).isNotEqualTo(generator.generate(2L));
+        assertThat(generator.generate(1L).substring(0, 5)).isNotEqualTo(generator.generate(2L).substring(0, 5));
+    }
+
+    @Test
+    void codesConvertToNumbersAndBack() {
+        ShortCodeGenerator prefixed = new ShortCodeGenerator("http://short.url/", ShortCodeGenerator.BASE62_ALPHABET, 10);
+        String shortUrl = prefixed.generate("https://www.example.com");
+
+        long code = prefixed.toCode(shortUrl);
+
+        assertThat(code).isNotNegative();
+        assertThat(prefixed.toShortUrl(code)).isEqualTo(shortUrl);
+        assertThat(prefixed.toCode("http://short.url/0000000001")).isEqualTo(1L);
+        assertThat(prefixed.toCode("http://short.url/zzzzzzzzzz")).isEqualTo((long) Math.pow(62, 10) - 1);
+        assertThat(prefixed.toShortUrl(0L)).isEqualTo("http://short.url/0000000000");
+    }
+
+    @Test
+    void toCodeRejectsOtherStrings() {
+        ShortCodeGenerator prefixed = new ShortCodeGenerator("http://short.url/", ShortCodeGenerator.BASE62_ALPHABET, 10);
+
+        assertThat(prefixed.toCode(null)).isEqualTo(-1L);
+        assertThat(prefixed.toCode("http://short.url/000000000")).isEqualTo(-1L);
+        assertThat(prefixed.toCode("http://short.url/000000000-")).isEqualTo(-1L);
+        assertThat(prefixed.toCode("http://short.url/00000000é0")).isEqualTo(-1L);
+        assertThat(prefixed.toCode("https://short.url/0000000000")).isEqualTo(-1L);
+    }
+
+    @Test
+    void numericCodesFitInLongs() {
+        assertThat(generator.getMaxNumericLength()).isEqualTo(10);
+        assertThatThrownBy(() -> new ShortCodeGenerator("", ShortCodeGenerator.BASE62_ALPHABET, 11).toShortUrl(0L)).isInstanceOf(
+            IllegalStateException.class
+        );
+        assertThatThrownBy(() -> generator.toShortUrl((long) Math.pow(62, 10))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void constructorRejectsInvalidAlphabet() {
+        assertThatThrownBy(() -> new ShortCodeGenerator("", "aa", 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ShortCodeGenerator("", "ab/", 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void constructorRejectsInvalidLength() {
+        assertThatThrownBy(() -> new ShortCodeGenerator("", ShortCodeGenerator.BASE62_ALPHABET, 0)).isInstanceOf(
+            IllegalArgumentException.class
+        );
+        assertThatThrownBy(() -> new ShortCodeGenerator("", ShortCodeGenerator.BASE62_ALPHABET, 100)).isInstanceOf(
+            IllegalArgumentException.class
+        );
+    }
+}
@@ -0,0 +1,99 @@
+package com.notarius.shorturl.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ShortUrlSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void getFindsEveryWrittenShortUrl() throws IOException {
+        Path file = directory.resolve("short-urls.snapshot");
+        ZonedDateTime expiration = ZonedDateTime.now().plusDays(1);
+        try (ShortUrlSnapshot.Writer writer = ShortUrlSnapshot.writer(file)) {
+            for (int i = 0; i < 10_000; i++) {
+                writer.add(i * 3L, "https://www.notarius.com/" + i, i % 2 == 0 ? expiration : null);
+            }
+        }
+
+        ShortUrlSnapshot snapshot = ShortUrlSnapshot.open(file);
+        assertThat(snapshot.size()).isEqualTo(10_000);
+        assertThat(snapshot.getByteSize()).isEqualTo(Files.size(file));
+        for (int i = 0; i < 10_000; i++) {
+            ShortUrlSnapshot.Entry entry = snapshot.get(i * 3L);
+            assertThat(entry.getCode()).isEqualTo(i * 3L);
+            assertThat(entry.getFullUrl()).isEqualTo("https://www.notarius.com/" + i);
+            if (i % 2 == 0) {
+                assertThat(entry.getExpirationDateTime().toInstant().toEpochMilli()).isEqualTo(expiration.toInstant().toEpochMilli());
+            } else {
+                assertThat(entry.getExpirationDateTime()).isNull();
+            }
+            assertThat(snapshot.get(i * 3L + 1)).isNull();
+        }
+        assertThat(snapshot.get(30_000)).isNull();
+        assertThat(snapshot.get(-1)).isNull();
+    }
+
+    @Test
+    void getFindsShortUrlsAcrossRegions() throws IOException {
+        Path file = directory.resolve("regions.snapshot");
+        long unpaddedSize = 24;
+        try (ShortUrlSnapshot.Writer writer = ShortUrlSnapshot.writer(file, 8)) {
+            for (int i = 0; i < 1_000; i++) {
+                String fullUrl = "https://www.notarius.com/" + "x".repeat(i % 200);
+                writer.add(i, fullUrl, null);
+                unpaddedSize += Long.BYTES + Integer.BYTES + fullUrl.length() + 2 * Long.BYTES;
+            }
+        }
+
+        ShortUrlSnapshot snapshot = ShortUrlSnapshot.open(file);
+        // Records are padded rather than span two regions of 256 bytes
+        assertThat(snapshot.getByteSize()).isGreaterThan(unpaddedSize);
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(snapshot.get(i).getFullUrl()).isEqualTo("https://www.notarius.com/" + "x".repeat(i % 200));
+        }
+    }
+
+    @Test
+    void writerRejectsTargetsLargerThanARegion() throws IOException {
+        try (ShortUrlSnapshot.Writer writer = ShortUrlSnapshot.writer(directory.resolve("large.snapshot"), 8)) {
+            assertThatThrownBy(() -> writer.add(1, "x".repeat(256), null)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void emptySnapshotFindsNothing() throws IOException {
+        Path file = directory.resolve("empty.snapshot");
+        ShortUrlSnapshot.writer(file).close();
+
+        ShortUrlSnapshot snapshot = ShortUrlSnapshot.open(file);
+        assertThat(snapshot.size()).isZero();
+        assertThat(snapshot.get(0)).isNull();
+    }
+
+    @Test
+    void writerRejectsCodesOutOfOrder() throws IOException {
+        try (ShortUrlSnapshot.Writer writer = ShortUrlSnapshot.writer(directory.resolve("unordered.snapshot"))) {
+            writer.add(2, "https://www.notarius.com", null);
+
+            assertThatThrownBy(() -> writer.add(1, "https://www.notarius.com", null)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> writer.add(2, "https://www.notarius.com", null)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void openRejectsOtherFiles() throws IOException {
+        Path file = Files.write(directory.resolve("other.snapshot"), new byte[64]);
+
+        assertThatThrownBy(() -> ShortUrlSnapshot.open(file)).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,57 @@
+package com.notarius.shorturl.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+
+class StaticUrlIndexTest {
+
+    @Test
+    void getFindsEveryAddedShortUrl() {
+        ZonedDateTime expiration = ZonedDateTime.now().plusDays(1);
+        StaticUrlIndex.Builder builder = StaticUrlIndex.builder();
+        for (int i = 0; i < 10_000; i++) {
+            builder.add(i, "https://www.notarius.com/" + i, i % 2 == 0 ? expiration : null);
+        }
+        StaticUrlIndex index = builder.build();
+
+        assertThat(index.size()).isEqualTo(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            ShortUrlSnapshot.Entry entry = index.get(i);
+            assertThat(entry.getCode()).isEqualTo(i);
+            assertThat(entry.getFullUrl()).isEqualTo("https://www.notarius.com/" + i);
+            if (i % 2 == 0) {
+                assertThat(entry.getExpirationDateTime().toInstant().toEpochMilli()).isEqualTo(expiration.toInstant().toEpochMilli());
+            } else {
+                assertThat(entry.getExpirationDateTime()).isNull();
+            }
+        }
+    }
+
+    @Test
+    void getIgnoresUnknownShortUrls() {
+        StaticUrlIndex index = StaticUrlIndex.builder().add(42, "https://www.notarius.com", null).build();
+
+        for (int i = 0; i < 1_000; i++) {
+            if (i != 42) {
+                assertThat(index.get(i)).isNull();
+            }
+        }
+        assertThat(index.get(42)).isNotNull();
+        assertThat(StaticUrlIndex.builder().build().get(42)).isNull();
+    }
+
+    @Test
+    void memoryPerKeyIsReported() {
+        StaticUrlIndex.Builder builder = StaticUrlIndex.builder();
+        for (int i = 0; i < 10_000; i++) {
+            builder.add(i, "https://www.notarius.com/" + i, null);
+        }
+        StaticUrlIndex index = builder.build();
+
+        assertThat(index.getHashBitsPerKey()).isBetween(2.5, 3.5);
+        // Records of about 39 bytes, an 8-byte code instead of the whole short url, plus 3 bytes of offset and less than 1 byte of hash
+        assertThat(index.getBytesPerKey()).isBetween(38.0, 45.0);
+    }
+}
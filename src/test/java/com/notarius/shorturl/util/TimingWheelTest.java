@@ -0,0 +1,65 @@
+package com.notarius.shorturl.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    @Test
+    void testKeysFireAtTheirDeadline() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, 1000);
+        Random random = new Random(42);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int key = 0; key < 10_000; key++) {
+            // Deadlines spread over the first 4 levels
+            long deadline = 1000 + 1 + (long) (Math.pow(random.nextDouble(), 3) * 300_000);
+            deadlines.put(key, deadline);
+            wheel.schedule(key, deadline);
+        }
+        assertThat(wheel.size()).isEqualTo(10_000);
+        Map<Integer, Long> fired = new HashMap<>();
+        for (long now = 1001; now <= 301_000; now++) {
+            long firedAt = now;
+            wheel.advance(now, key -> assertThat(fired.put(key, firedAt)).isNull());
+        }
+        assertThat(fired).isEqualTo(deadlines);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void testDueKeysFireOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 10_000);
+        wheel.schedule("past", 5_000);
+        // Rounded up to the next tick
+        wheel.schedule("next", 10_001);
+        List<String> fired = new ArrayList<>();
+        assertThat(wheel.advance(10_000, fired::add)).isEqualTo(1);
+        assertThat(fired).containsExactly("past");
+        assertThat(wheel.advance(10_999, fired::add)).isZero();
+        assertThat(wheel.advance(11_000, fired::add)).isEqualTo(1);
+        assertThat(fired).containsExactly("past", "next");
+    }
+
+    @Test
+    void testKeysBeyondHorizonFireAtTheirDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        long horizon = 1L << 24;
+        wheel.schedule("far", horizon + 12_345);
+        wheel.schedule("near", 12_345);
+        List<String> fired = new ArrayList<>();
+        wheel.advance(12_344, fired::add);
+        assertThat(fired).isEmpty();
+        wheel.advance(12_345, fired::add);
+        assertThat(fired).containsExactly("near");
+        wheel.advance(horizon + 12_344, fired::add);
+        assertThat(fired).containsExactly("near");
+        wheel.advance(horizon + 12_345, fired::add);
+        assertThat(fired).containsExactly("near", "far");
+    }
+}
@@ -0,0 +1,162 @@
+package com.notarius.shorturl.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.notarius.shorturl.IntegrationTest;
+import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.service.ClickCounterService;
+import com.notarius.shorturl.service.UrlResolverService;
+import com.notarius.shorturl.service.dto.ResolvedUrl;
+import com.notarius.shorturl.util.ShortCodeGenerator;
+import com.notarius.shorturl.util.UrlUtil;
+import jakarta.persistence.EntityManager;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link RedirectController} controller.
+ */
+@AutoConfigureMockMvc
+@WithUnauthenticatedMockUser
+@IntegrationTest
+class RedirectControllerIT {
+
+    private static final String CODE = "0123456789";
+
+    private static final String FULL_URL = "https://www.notarius.com/redirect-controller";
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private UrlResolverService urlResolverService;
+
+    @Autowired
+    private ClickCounterService clickCounterService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ShortCodeGenerator shortCodeGenerator;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    public void cleanup() {
+        urlResolverService.evict(UrlUtil.toShortUrl(CODE));
+    }
+
+    @Test
+    @Transactional
+    void redirectToFullUrl() throws Exception {
+        urlRepository.saveAndFlush(new Url().shortUrl(UrlUtil.toShortUrl(CODE)).fullUrl(FULL_URL).creationDateTime(ZonedDateTime.now()));
+
+        mockMvc
+            .perform(get("/" + CODE))
+            .andExpect(status().isFound())
+            .andExpect(header().string(HttpHeaders.LOCATION, FULL_URL))
+            .andExpect(forwardedUrl(null));
+    }
+
+    @Test
+    @Transactional
+    void redirectIsServedFromResolverCache() throws Exception {
+        Url url = urlRepository.saveAndFlush(
+            new Url().shortUrl(UrlUtil.toShortUrl(CODE)).fullUrl(FULL_URL).creationDateTime(ZonedDateTime.now())
+        );
+        mockMvc.perform(get("/" + CODE)).andExpect(status().isFound());
+        assertThat(cacheManager.getCache(UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE).get(shortCodeGenerator.toCode(url.getShortUrl()))).isNotNull();
+
+        // Writes through JPA evict the resolved target
+        urlRepository.saveAndFlush(url.fullUrl(FULL_URL + "/updated"));
+        assertThat(cacheManager.getCache(UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE).get(shortCodeGenerator.toCode(url.getShortUrl()))).isNull();
+        mockMvc.perform(get("/" + CODE)).andExpect(status().isFound()).andExpect(header().string(HttpHeaders.LOCATION, FULL_URL + "/updated"));
+
+        urlRepository.delete(url);
+        urlRepository.flush();
+        mockMvc.perform(get("/" + CODE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void redirectExpiredUrl() throws Exception {
+        Url url = urlRepository.saveAndFlush(
+            new Url()
+                .shortUrl(UrlUtil.toShortUrl(CODE))
+                .fullUrl(FULL_URL)
+                .creationDateTime(ZonedDateTime.now())
+                .expirationDateTime(ZonedDateTime.now().plusMinutes(1))
+        );
+        mockMvc.perform(get("/" + CODE)).andExpect(status().isFound());
+
+        // The cached target expires too, without any write
+        url.setExpirationDateTime(ZonedDateTime.now().minusMinutes(1));
+        cacheManager
+            .getCache(UrlRepository.RESOLVED_URLS_BY_SHORT_URL_CACHE)
+            .put(shortCodeGenerator.toCode(url.getShortUrl()), new ResolvedUrl(url));
+        mockMvc.perform(get("/" + CODE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void redirectOnceCreatedAfterMiss() throws Exception {
+        // Leave the short url in the membership filter, but not in the database
+        Url url = urlRepository.saveAndFlush(
+            new Url().shortUrl(UrlUtil.toShortUrl(CODE)).fullUrl(FULL_URL).creationDateTime(ZonedDateTime.now())
+        );
+        urlRepository.delete(url);
+        urlRepository.flush();
+
+        mockMvc.perform(get("/" + CODE)).andExpect(status().isNotFound());
+        assertThat(cacheManager.getCache(UrlRepository.MISSING_SHORT_URLS_CACHE).get(shortCodeGenerator.toCode(UrlUtil.toShortUrl(CODE)))).isNotNull();
+
+        urlRepository.saveAndFlush(new Url().shortUrl(UrlUtil.toShortUrl(CODE)).fullUrl(FULL_URL).creationDateTime(ZonedDateTime.now()));
+        assertThat(cacheManager.getCache(UrlRepository.MISSING_SHORT_URLS_CACHE).get(shortCodeGenerator.toCode(UrlUtil.toShortUrl(CODE)))).isNull();
+        mockMvc.perform(get("/" + CODE)).andExpect(status().isFound()).andExpect(header().string(HttpHeaders.LOCATION, FULL_URL));
+    }
+
+    @Test
+    @Transactional
+    void redirectIsCounted() throws Exception {
+        // Drop the clicks of the other tests
+        clickCounterService.flush();
+        Url url = urlRepository.saveAndFlush(
+            new Url().shortUrl(UrlUtil.toShortUrl(CODE)).fullUrl(FULL_URL).creationDateTime(ZonedDateTime.now())
+        );
+
+        mockMvc.perform(get("/" + CODE)).andExpect(status().isFound());
+        mockMvc.perform(get("/" + CODE)).andExpect(status().isFound());
+        clickCounterService.flush();
+
+        em.refresh(url);
+        assertThat(url.getClicks()).isEqualTo(2);
+    }
+
+    @Test
+    @Transactional
+    void redirectUnknownCode() throws Exception {
+        mockMvc.perform(get("/" + CODE)).andExpect(status().isNotFound()).andExpect(forwardedUrl(null));
+    }
+
+    @Test
+    @Transactional
+    void pathsWhichAreNotCodesAreLeftToTheClient() throws Exception {
+        // Longer than the configured codes, so neither redirected nor permitted as a redirect, but forwarded to the client
+        mockMvc.perform(get("/" + CODE + "0")).andExpect(status().isOk()).andExpect(forwardedUrl("/index.html"));
+    }
+}
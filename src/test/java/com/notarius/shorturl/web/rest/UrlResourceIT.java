@@ -4,29 +4,44 @@ import static com.notarius.shorturl.domain.UrlAsserts.*;
 import static com.notarius.shorturl.web.rest.TestUtil.createUpdateProxyForBean;
 import static com.notarius.shorturl.web.rest.TestUtil.sameInstant;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.lessThan;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.notarius.shorturl.IntegrationTest;
 import com.notarius.shorturl.domain.Url;
+import com.notarius.shorturl.domain.UrlStats;
+import com.notarius.shorturl.domain.enumeration.StatsGranularity;
 import com.notarius.shorturl.repository.UrlRepository;
+import com.notarius.shorturl.repository.UrlStatsRepository;
+import com.notarius.shorturl.util.ClickEvent;
+import com.notarius.shorturl.util.HyperLogLog;
+import com.notarius.shorturl.util.UrlUtil;
 import jakarta.persistence.EntityManager;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -37,8 +52,8 @@ import org.springframework.transaction.annotation.Transactional;
 @WithMockUser
 class UrlResourceIT {
 
-    private static final String DEFAULT_SHORT_URL = "AAAAAAAAAA";
-    private static final String UPDATED_SHORT_URL = "BBBBBBBBBB";
+    private static final String DEFAULT_SHORT_URL = "http://short.url/AAAAAAAAAA";
+    private static final String UPDATED_SHORT_URL = "http://short.url/BBBBBBBBBB";
 
     private static final String DEFAULT_FULL_URL = "AAAAAAAAAA";
     private static final String UPDATED_FULL_URL = "BBBBBBBBBB";
@@ -61,6 +76,9 @@ class UrlResourceIT {
     @Autowired
     private UrlRepository urlRepository;
 
+    @Autowired
+    private UrlStatsRepository urlStatsRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -136,6 +154,28 @@ class UrlResourceIT {
         insertedUrl = returnedUrl;
     }
 
+    @Test
+    @Transactional
+    void createUrlWithLongFullUrl() throws Exception {
+        url.setFullUrl(DEFAULT_FULL_URL + "?q=" + "a".repeat(2000));
+
+        var returnedUrl = om.readValue(
+            restUrlMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(url)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            Url.class
+        );
+
+        Url persistedUrl = getPersistedUrl(returnedUrl);
+        assertThat(persistedUrl.getFullUrl()).isEqualTo(url.getFullUrl());
+        assertThat(persistedUrl.getFullUrlDigest()).isEqualTo(UrlUtil.digest(url.getFullUrl()));
+
+        insertedUrl = returnedUrl;
+    }
+
     @Test
     @Transactional
     void createUrlWithExistingId() throws Exception {
@@ -153,6 +193,45 @@ class UrlResourceIT {
         assertSameRepositoryCount(databaseSizeBeforeCreate);
     }
 
+    @Test
+    @Transactional
+    void createUrlsInBatch() throws Exception {
+        url.setFullUrl("https://www.notarius.com/batch");
+        url.setShortUrl(null);
+        Url existingUrl = om.readValue(
+            restUrlMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(url)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            Url.class
+        );
+        long databaseSizeBeforeCreate = getRepositoryCount();
+
+        restUrlMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(List.of("https://www.notarius.com/batch/new", "https://www.notarius.com/batch")))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].fullUrl").value("https://www.notarius.com/batch/new"))
+            .andExpect(jsonPath("$.[0].created").value(true))
+            .andExpect(jsonPath("$.[1].id").value(existingUrl.getId().intValue()))
+            .andExpect(jsonPath("$.[1].shortUrl").value(existingUrl.getShortUrl()))
+            .andExpect(jsonPath("$.[1].created").value(false));
+
+        assertIncrementedRepositoryCount(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void createUrlsInEmptyBatch() throws Exception {
+        restUrlMockMvc
+            .perform(post(ENTITY_API_URL + "/batch").contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(List.of())))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getAllUrls() throws Exception {
@@ -161,7 +240,7 @@ class UrlResourceIT {
 
         // Get all the urlList
         restUrlMockMvc
-            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .perform(get(ENTITY_API_URL + "?cursor={cursor}", url.getId() - 1))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(url.getId().intValue())))
@@ -171,6 +250,150 @@ class UrlResourceIT {
             .andExpect(jsonPath("$.[*].expirationDateTime").value(hasItem(sameInstant(DEFAULT_EXPIRATION_DATE_TIME))));
     }
 
+    @Test
+    @Transactional
+    void getAllUrlsByCursor() throws Exception {
+        Url first = urlRepository.saveAndFlush(url);
+        Url second = urlRepository.saveAndFlush(createUpdatedEntity(em));
+
+        restUrlMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor={cursor}&size=1", first.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(header().string(UrlResource.NEXT_CURSOR_HEADER, first.getId().toString()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("cursor=" + first.getId())))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(first.getId().intValue()));
+
+        restUrlMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor={cursor}&size=2", first.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(UrlResource.NEXT_CURSOR_HEADER))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(second.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllUrlsWithInvalidPageSize() throws Exception {
+        restUrlMockMvc.perform(get(ENTITY_API_URL + "?size=0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportUrls() throws Exception {
+        insertedUrl = urlRepository.saveAndFlush(url);
+
+        MvcResult result = restUrlMockMvc.perform(get(ENTITY_API_URL + "/export")).andExpect(request().asyncStarted()).andReturn();
+
+        String lines = restUrlMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        Url exported = Stream.of(lines.split("\n"))
+            .map(line -> {
+                try {
+                    return om.readValue(line, Url.class);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException(e);
+                }
+            })
+            .filter(line -> insertedUrl.getId().equals(line.getId()))
+            .findFirst()
+            .orElseThrow();
+        assertUrlAllPropertiesEquals(insertedUrl, exported);
+    }
+
+    @Test
+    @Transactional
+    void getUrlStats() throws Exception {
+        insertedUrl = urlRepository.saveAndFlush(url);
+        ZonedDateTime hour = ZonedDateTime.of(2026, 10, 18, 12, 0, 0, 0, ZoneOffset.UTC);
+        urlStatsRepository.saveAndFlush(new UrlStats().urlId(url.getId()).granularity(StatsGranularity.HOUR).bucketStart(hour).clicks(5));
+        urlStatsRepository.saveAndFlush(
+            new UrlStats().urlId(url.getId()).granularity(StatsGranularity.HOUR).bucketStart(hour.plusHours(1)).clicks(7)
+        );
+        urlStatsRepository.saveAndFlush(
+            new UrlStats().urlId(url.getId()).granularity(StatsGranularity.HOUR).bucketStart(hour.plusHours(2)).clicks(9)
+        );
+        urlStatsRepository.saveAndFlush(new UrlStats().urlId(url.getId()).granularity(StatsGranularity.DAY).bucketStart(hour.withHour(0)).clicks(21));
+
+        restUrlMockMvc
+            .perform(
+                get(ENTITY_API_URL_ID + "/stats", url.getId())
+                    .param("from", hour.toString())
+                    .param("to", hour.plusHours(2).toString())
+                    .param("granularity", "HOUR")
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].bucketStart").value(sameInstant(hour)))
+            .andExpect(jsonPath("$.[0].clicks").value(5))
+            .andExpect(jsonPath("$.[1].clicks").value(7));
+    }
+
+    @Test
+    @Transactional
+    void getUrlVisitors() throws Exception {
+        insertedUrl = urlRepository.saveAndFlush(url);
+        ZonedDateTime day = ZonedDateTime.of(2026, 10, 18, 0, 0, 0, 0, ZoneOffset.UTC);
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (long visitor = 0; visitor < 300; visitor++) {
+            first.add(ClickEvent.hash("10.0.0." + visitor));
+            // Half of the visitors come back the next day
+            second.add(ClickEvent.hash("10.0.0." + (visitor + 150)));
+        }
+        urlStatsRepository.saveAndFlush(
+            new UrlStats().urlId(url.getId()).granularity(StatsGranularity.DAY).bucketStart(day).clicks(300).visitors(first.toBytes())
+        );
+        urlStatsRepository.saveAndFlush(
+            new UrlStats().urlId(url.getId()).granularity(StatsGranularity.DAY).bucketStart(day.plusDays(1)).clicks(300).visitors(second.toBytes())
+        );
+
+        restUrlMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/visitors", url.getId()).param("from", day.toString()).param("to", day.plusDays(2).toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.urlId").value(url.getId().intValue()))
+            .andExpect(jsonPath("$.uniqueVisitors").value(both(greaterThan(430)).and(lessThan(470))));
+        restUrlMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/stats", url.getId()).param("from", day.toString()).param("to", day.plusDays(1).toString()).param("granularity", "DAY"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].uniqueVisitors").value(both(greaterThan(285)).and(lessThan(315))))
+            .andExpect(jsonPath("$.[0].visitors").doesNotExist());
+        restUrlMockMvc
+            .perform(
+                get(ENTITY_API_URL_ID + "/visitors", url.getId())
+                    .param("from", day.toString())
+                    .param("to", day.plusDays(1).toString())
+                    .param("granularity", "MINUTE")
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getUrlStatsWithInvalidRange() throws Exception {
+        insertedUrl = urlRepository.saveAndFlush(url);
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+
+        restUrlMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/stats", url.getId()).param("from", now.toString()).param("to", now.toString()))
+            .andExpect(status().isBadRequest());
+        restUrlMockMvc
+            .perform(
+                get(ENTITY_API_URL_ID + "/stats", url.getId())
+                    .param("from", now.minusYears(1).toString())
+                    .param("to", now.toString())
+                    .param("granularity", "MINUTE")
+            )
+            .andExpect(status().isBadRequest());
+        restUrlMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/stats", Long.MAX_VALUE).param("from", now.minusDays(1).toString()).param("to", now.toString()))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void getUrl() throws Exception {
@@ -189,6 +412,35 @@ class UrlResourceIT {
             .andExpect(jsonPath("$.expirationDateTime").value(sameInstant(DEFAULT_EXPIRATION_DATE_TIME)));
     }
 
+    @Test
+    @Transactional
+    void getUrlByShortUrl() throws Exception {
+        // Initialize the database
+        insertedUrl = urlRepository.saveAndFlush(url.expirationDateTime(ZonedDateTime.now().plusDays(1)));
+
+        // Get the url
+        restUrlMockMvc
+            .perform(get(ENTITY_API_URL + "/shorturl").param("url", DEFAULT_SHORT_URL))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(url.getId().intValue()))
+            .andExpect(jsonPath("$.fullUrl").value(DEFAULT_FULL_URL));
+    }
+
+    @Test
+    @Transactional
+    void getExpiredUrlByShortUrl() throws Exception {
+        // The default expiration is in the past
+        insertedUrl = urlRepository.saveAndFlush(url);
+
+        restUrlMockMvc.perform(get(ENTITY_API_URL + "/shorturl").param("url", DEFAULT_SHORT_URL)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingUrlByShortUrl() throws Exception {
+        restUrlMockMvc.perform(get(ENTITY_API_URL + "/shorturl").param("url", "http://short.url/missing")).andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void getNonExistingUrl() throws Exception {
@@ -225,6 +477,24 @@ class UrlResourceIT {
         assertPersistedUrlToMatchAllProperties(updatedUrl);
     }
 
+    @Test
+    @Transactional
+    void putUrlWithInvalidShortUrl() throws Exception {
+        insertedUrl = urlRepository.saveAndFlush(url);
+
+        Url updatedUrl = urlRepository.findById(url.getId()).orElseThrow();
+        em.detach(updatedUrl);
+        updatedUrl.shortUrl("http://short.url/not-a-code");
+
+        restUrlMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedUrl.getId()).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(updatedUrl))
+            )
+            .andExpect(status().isBadRequest());
+
+        assertThat(getPersistedUrl(url).getShortUrl()).isEqualTo(DEFAULT_SHORT_URL);
+    }
+
     @Test
     @Transactional
     void putNonExistingUrl() throws Exception {